@@ -1,6 +1,7 @@
 module tello {
     requires javafx.controls;
     requires java.logging;
+    requires java.management;
 
     requires org.bytedeco.ffmpeg;
     requires org.bytedeco.ffmpeg.macosx.arm64;
@@ -12,4 +13,7 @@ module tello {
 
     exports tello;
     exports telloflix;
+
+    // die MBean-Interfaces muessen fuer die Reflection von JMX zugaenglich sein
+    exports tello.models.metrics;
 }
\ No newline at end of file
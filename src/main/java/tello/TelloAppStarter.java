@@ -28,6 +28,7 @@ public class TelloAppStarter extends Application {
         //das PresentationModel, in diesem Fall die Klasse zur Verbindung mit der Drohne
         tello = new Tello();
         tello.connect();
+        tello.startStateListener();
     }
 
     @Override
@@ -17,11 +17,12 @@ public class TelloFlightPlan {
 
         Tello tello = new Tello();
         tello.connect();                        // Verbindung zur Drohne aufbauen
+        tello.startStateListener();             // aktuellen Status von der Drohne schicken lassen
 
+        // kommt aus dem Status, solange der aktuell ist, sonst wird 'battery?' geschickt
         if (tello.getBatteryLevel() < 0) {     // TelloCamp liefert im Moment immer 0. todo: Bei der echten Drohne hier einen realistischen Wert eingetragen
             LOGGER.info("Tello can't start. Battery level too low.");
         } else {
-            tello.startStateListener();        // aktuellen Status von der Drohne schicken lassen
             tello.takeOff();
             tello.delay(Duration.ofSeconds(2)); // zwei Sekunde schweben lassen
             tello.setSpeed(50);                 // 50 cm/sec
@@ -0,0 +1,551 @@
+package tello.models;
+
+import tello.models.metrics.DroneMetrics;
+import tello.models.net.CommandChannel;
+import tello.models.net.CommandLatencies;
+import tello.models.net.CommandTransport;
+import tello.models.net.IoReactor;
+import tello.models.net.LinkHealth;
+import tello.models.net.LinkLossAction;
+import tello.models.net.LinkMonitor;
+import tello.models.net.LinkWatchdog;
+import tello.models.net.Response;
+import tello.models.recorder.FlightRecorder;
+import tello.models.telemetry.StateParser;
+import tello.models.telemetry.TelemetryCache;
+import tello.models.telemetry.TelemetryEstimator;
+import tello.models.telemetry.TelemetryHistory;
+import tello.models.telemetry.TelemetrySnapshot;
+import tello.models.telemetry.TelemetryValues;
+import tello.models.util.BoundedPublisher;
+import tello.models.util.ObservableInt;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Die Verbindung zu einer Drohne, wie sie {@link Tello} und {@code TelloFlix} gemeinsam verwenden: Reactor, Kommando-
+ * und Status-Kanal, die Telemetrie mit Verlauf, Schaetzer und Publisher, Flugschreiber, Watchdog und Metriken.
+ * <p>
+ * Die beiden Klassen bieten darauf ihre eigene Steuerung an (blockierend bzw. mit {@link CompletableFuture}),
+ * TelloFlix dazu das Video.
+ */
+public class DroneLink {
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    // Lese-Kommandos wie 'battery?' antworten sofort
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(3);
+
+    // der Status kommt 10 mal pro Sekunde, ist er aelter, ist der Status-Kanal gestoert oder nicht gestartet
+    private static final Duration MAX_TELEMETRY_AGE = Duration.ofSeconds(1);
+
+    // Takt der Status-Pakete, fehlen 3 davon ist die Verbindung beeintraechtigt, fehlen 10 ist sie unterbrochen
+    private static final Duration STATE_INTERVAL = Duration.ofMillis(100);
+
+    private CommandTransport commandTransport;
+    private CommandChannel   commandChannel;
+
+    private DatagramChannel statusChannel;
+
+    // bedient Kommando- und Status-Kanal in einem einzigen Thread
+    private IoReactor reactor;
+    private boolean   ownsReactor;
+
+    private volatile boolean connected = false;
+
+    private final TelemetryCache    telemetry       = new TelemetryCache();
+    private final TelemetryHistory  history         = new TelemetryHistory();
+    private final TelemetryValues   telemetryValues = new TelemetryValues();
+
+    // beliefert die Subscriber, nie im Reactor- oder Video-Thread; pro Subscriber laeuft hoechstens ein Task. Er wird
+    // nie beendet, damit auch nach einem 'disconnect' wieder verbunden werden kann, unbenutzte Threads enden von selbst
+    private final ExecutorService flowExecutor = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "tello-flow");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // einer pro Verbindung, 'disconnect' schliesst ihn und legt den fuer die naechste an
+    private volatile BoundedPublisher<TelemetrySnapshot> telemetryPublisher = newTelemetryPublisher();
+
+    private volatile FlightRecorder flightRecorder;
+    private volatile Duration       maxTelemetryAge = MAX_TELEMETRY_AGE;
+
+    private final LinkWatchdog linkWatchdog = new LinkWatchdog();
+    private final LinkMonitor  stateLink    = linkWatchdog.monitor("state", STATE_INTERVAL);
+    private       LinkMonitor  videoLink;
+
+    private volatile LinkLossAction linkLossAction = LinkLossAction.NONE;
+
+    private DroneMetrics metrics;
+
+    // werden nur im Reactor-Thread verwendet
+    private final StateParser        stateParser = new StateParser();
+    private final TelemetrySnapshot  parsedState = new TelemetrySnapshot();
+    private final TelemetryEstimator estimator   = new TelemetryEstimator();
+
+    // wird im Reactor-Thread veraendert, das UI muss selbst in den FX-Thread wechseln
+    private final ObservableInt batteryLevel = new ObservableInt(0);
+
+    private final String ipAddress;
+    private final int    commandPort;
+    private final int    statePort;
+
+    /**
+     * @param reactor     the reactor serving this drone's sockets or null to let the link create its own, a given
+     *                    reactor is not closed on 'disconnect'
+     * @param ipAddress   the drone's IP address
+     * @param commandPort the drone's command port
+     * @param statePort   the local port the drone sends its state to
+     */
+    public DroneLink(IoReactor reactor, String ipAddress, int commandPort, int statePort) {
+        this.reactor     = reactor;
+        this.ipAddress   = ipAddress;
+        this.commandPort = commandPort;
+        this.statePort   = statePort;
+
+        linkWatchdog.addListener(this::onLinkChange);
+    }
+
+    /**
+     * Adds a monitor for the video stream, it is published in the metrics and {@link LinkLossAction#REINITIALIZE}
+     * sends 'streamon' when it stalls. Must be called before 'connect'.
+     */
+    public LinkMonitor monitorVideo(Duration interval, int degradedAfter, int stalledAfter) {
+        videoLink = linkWatchdog.monitor("video", interval, degradedAfter, stalledAfter);
+        return videoLink;
+    }
+
+    /**
+     * Opens the command channel and enters the SDK mode. If that fails, everything opened so far is closed again.
+     *
+     * @return true if Tello answered 'command' with 'ok'
+     */
+    public boolean connect() {
+        try {
+            InetAddress telloAddress = InetAddress.getByName(ipAddress);
+
+            if (reactor == null) {
+                reactor     = new IoReactor("tello-reactor");
+                ownsReactor = true;
+            }
+            commandTransport = CommandTransport.open(new InetSocketAddress(telloAddress, commandPort));
+            commandChannel   = new CommandChannel(reactor, commandTransport, 1, replies ->
+                    reactor.register(commandTransport.channel(), recording(FlightRecorder.RecordType.REPLY, replies)));
+            commandTransport.setRecorder(flightRecorder);
+            linkWatchdog.start(reactor);
+
+            metrics = new DroneMetrics(commandChannel, stateLink, videoLink);
+            metrics.register(ipAddress + ":" + commandPort);
+
+            connected = sendAndWait("command");
+        } catch (UnknownHostException e) {
+            LOGGER.severe("unknown Host");
+        } catch (IOException e) {
+            LOGGER.severe("cannot connect");
+        } finally {
+            if (!connected) {
+                // sonst liefen Reactor, Watchdog und Kanal weiter und die MBean bliebe registriert
+                release();
+            }
+        }
+        return connected;
+    }
+
+    /**
+     * Closes all channels and stops the reactor, if it was created by the link. The telemetry publisher completes,
+     * {@link #telemetryPublisher()} returns a new one for the next connection.
+     */
+    public void disconnect() {
+        release();
+        stopRecording();
+        // die Subscriber bekommen noch, was in ihrem Puffer liegt, danach onComplete
+        BoundedPublisher<TelemetrySnapshot> completed = telemetryPublisher;
+        telemetryPublisher = newTelemetryPublisher();
+        completed.close();
+    }
+
+    /**
+     * @return true between a successful 'connect' and 'disconnect'
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Darf erst nach einem 'connect' aufgerufen werden
+     */
+    public void startStateListener() {
+        try {
+            statusChannel = DatagramChannel.open().bind(new InetSocketAddress(statePort));
+
+            // der Status wird vom Reactor-Thread entgegengenommen, es wird kein eigener Thread benoetigt
+            reactor.register(statusChannel, recording(FlightRecorder.RecordType.STATE, this::onState));
+            stateLink.start();
+        } catch (IOException e) {
+            LOGGER.severe("cannot connect to status port");
+        }
+    }
+
+    /**
+     * Queues a command without blocking the caller. Darf erst nach einem 'connect' aufgerufen werden.
+     *
+     * @return completes with Tello's reply, or exceptionally if there was none
+     */
+    public CompletableFuture<Response> send(String command) {
+        return commandChannel.send(command);
+    }
+
+    /**
+     * Sends a command and waits for Tello's reply.
+     *
+     * @return true if Tello answered with 'ok'
+     */
+    public boolean sendAndWait(String command) {
+        return "ok".equals(awaitReply(send(command)));
+    }
+
+    /**
+     * Obtain current battery percentage. Taken from the state if it is recent, otherwise 'battery?' is sent.
+     *
+     * @return battery level 0-100
+     */
+    public int getBatteryLevel() {
+        TelemetrySnapshot state = telemetry.latest(maxTelemetryAge);
+        return state != null ? state.battery() : sendIntReadCommand("battery?");
+    }
+
+    /**
+     * Obtain current height. Taken from the state if it is recent, otherwise 'height?' is sent.
+     *
+     * @return height in cm
+     */
+    public int getHeight() {
+        TelemetrySnapshot state = telemetry.latest(maxTelemetryAge);
+        return state != null ? state.height() : sendIntReadCommand("height?") * 10;  // 'height?' liefert dm
+    }
+
+    /**
+     * Obtain current flight time. Taken from the state if it is recent, otherwise 'time?' is sent.
+     *
+     * @return motor on time in seconds
+     */
+    public int getFlightTime() {
+        TelemetrySnapshot state = telemetry.latest(maxTelemetryAge);
+        return state != null ? state.flightTime() : sendIntReadCommand("time?");
+    }
+
+    /**
+     * Obtain distance to the ground. Taken from the state if it is recent, otherwise 'tof?' is sent.
+     *
+     * @return distance measured by the time-of-flight sensor in cm
+     */
+    public int getTof() {
+        TelemetrySnapshot state = telemetry.latest(maxTelemetryAge);
+        return state != null ? state.tof() : sendIntReadCommand("tof?") / 10;  // 'tof?' liefert mm
+    }
+
+    /**
+     * Makes the current position the origin of {@link TelemetrySnapshot#positionX()} and
+     * {@link TelemetrySnapshot#positionY()}, e.g. at takeoff. Takes effect with the next state packet.
+     */
+    public void resetPosition() {
+        IoReactor current = reactor;
+        if (current != null) {
+            // der Schaetzer gehoert dem Reactor-Thread
+            current.execute(estimator::resetPosition);
+        } else {
+            estimator.resetPosition();  // ohne Reactor kommt kein Status an
+        }
+    }
+
+    /**
+     * Zeichnet ab jetzt alle Kommandos, Antworten und Status-Pakete in einer Datei auf, die mit
+     * {@link tello.models.recorder.FlightLog} gelesen und abgespielt werden kann.
+     *
+     * @return true if the flight log could be created
+     */
+    public boolean startRecording(Path file) {
+        stopRecording();
+        try {
+            FlightRecorder created = FlightRecorder.create(file);
+            flightRecorder = created;
+            if (commandTransport != null) {
+                commandTransport.setRecorder(created);
+            }
+            return true;
+        } catch (IOException e) {
+            LOGGER.severe("can't create flight log " + file + " " + e.getMessage());
+            return false;
+        }
+    }
+
+    public void stopRecording() {
+        FlightRecorder stopped = flightRecorder;
+        flightRecorder = null;
+        if (commandTransport != null) {
+            commandTransport.setRecorder(null);
+        }
+        if (stopped != null) {
+            stopped.close();
+        }
+    }
+
+    /**
+     * Darf erst nach einem 'connect' aufgerufen werden
+     *
+     * @return latency histograms per command of the current connection, e.g. {@code commandLatencies().snapshot()}
+     */
+    public CommandLatencies commandLatencies() {
+        return commandChannel.latencies();
+    }
+
+    /**
+     * @return the latest state received on the state port, e.g. for values without getter
+     */
+    public TelemetryCache telemetry() {
+        return telemetry;
+    }
+
+    /**
+     * @return one observable per telemetry field, updated with every state packet without allocation
+     */
+    public TelemetryValues telemetryValues() {
+        return telemetryValues;
+    }
+
+    /**
+     * @return the states as they arrive, completed by {@link #disconnect()}; subscribe again after that for the states
+     *         of the next connection
+     */
+    public BoundedPublisher<TelemetrySnapshot> telemetryPublisher() {
+        return telemetryPublisher;
+    }
+
+    /**
+     * @return the states of the last 30 minutes, e.g. for plots or post-flight analysis
+     */
+    public TelemetryHistory history() {
+        return history;
+    }
+
+    /**
+     * @return the battery level of every state packet, changed in the reactor thread
+     */
+    public ObservableInt batteryLevel() {
+        return batteryLevel;
+    }
+
+    /**
+     * @param maxAge getters send a read command instead if the latest state is older than this
+     */
+    public void setMaxTelemetryAge(Duration maxAge) {
+        maxTelemetryAge = maxAge;
+    }
+
+    /**
+     * Darf erst nach einem 'connect' aufgerufen werden
+     *
+     * @return the counters that are also published over JMX
+     */
+    public DroneMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * @return watches the state (and the video) stream
+     */
+    public LinkWatchdog linkWatchdog() {
+        return linkWatchdog;
+    }
+
+    /**
+     * @param action what to do when a monitored stream stalls, default is {@link LinkLossAction#NONE}
+     */
+    public void setLinkLossAction(LinkLossAction action) {
+        linkLossAction = action;
+    }
+
+    /**
+     * Darf erst nach einem 'connect' aufgerufen werden
+     *
+     * @return the reactor serving the drone's sockets, e.g. for an own timer
+     */
+    public IoReactor reactor() {
+        return reactor;
+    }
+
+    /**
+     * Darf erst nach einem 'connect' aufgerufen werden
+     *
+     * @return the command socket, e.g. for 'rc' which bypasses the command queue
+     */
+    public CommandTransport commandTransport() {
+        return commandTransport;
+    }
+
+    /**
+     * @return the threads delivering to the subscribers, e.g. for further publishers; never shut down
+     */
+    public ExecutorService flowExecutor() {
+        return flowExecutor;
+    }
+
+    // 3 Sekunden Status pro Subscriber, danach gehen die aeltesten verloren
+    private BoundedPublisher<TelemetrySnapshot> newTelemetryPublisher() {
+        return new BoundedPublisher<>(flowExecutor, 32, BoundedPublisher.Overflow.DROP_OLDEST);
+    }
+
+    // schliesst, was 'connect' geoeffnet hat, auch nach einem fehlgeschlagenen Verbindungsaufbau
+    private void release() {
+        connected = false;
+        linkWatchdog.stop();
+        if (metrics != null) {
+            metrics.unregister();
+        }
+        // 'commandChannel' bleibt fuer die Latenzen erhalten, 'send' schlaegt danach fehl
+        if (commandTransport != null) {
+            commandTransport.setRecorder(null);
+            commandTransport = null;
+            if (commandChannel != null) {
+                commandChannel.latencies().snapshot()
+                              .forEach((keyword, latency) -> LOGGER.info("Latency : " + keyword + " " + latency));
+                commandChannel.close();
+            }
+        }
+        if (statusChannel != null) {
+            try {
+                statusChannel.close();
+            } catch (IOException e) {
+                LOGGER.severe("can't close status channel");
+            }
+            statusChannel = null;
+        }
+        if (ownsReactor) {
+            reactor.close();
+            reactor     = null;
+            ownsReactor = false;
+        }
+    }
+
+    /**
+     * Send read command to Tello and wait for its response. Possible read commands:
+     *   - speed?:    obtain current speed (cm/s): x: 1-100
+     *   - battery?:  obtain current battery percentage: x: 0-100
+     *   - time?:     obtain current flight time (s): time
+     *   - wifi?:     obtain Wi-Fi SNR: snr
+     *   - sdk?:      obtain the Tello SDK version
+     *   - sn?:       get obtain the Tello serial number
+     * <p>
+     * Please notice: In most cases it's more appropriate to use the status listener
+     *
+     * @param command the read command to be sent
+     * @return the value as String
+     */
+    private String sendReadCommand(String command) {
+        return awaitReply(commandChannel.send(command, READ_TIMEOUT));
+    }
+
+    /**
+     * Send read command with a numeric answer, e.g. 'height?' which is answered with '10dm'.
+     *
+     * @return the number without unit, 0 if there was no valid reply
+     */
+    private int sendIntReadCommand(String command) {
+        String value = sendReadCommand(command);
+        int    end   = 0;
+        while (end < value.length() && (Character.isDigit(value.charAt(end)) || (end == 0 && value.charAt(0) == '-'))) {
+            end++;
+        }
+        try {
+            return Integer.parseInt(value.substring(0, end));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Wartet auf die Antwort der Drohne auf ein ihr geschicktes Kommando.
+     * <p>
+     * Achtung: Auf manche Kommandos wie 'rc' schickt die Drohne keine Response.
+     *
+     * @return the drone's response to a command or "error" if there was none
+     */
+    private String awaitReply(CompletableFuture<Response> reply) {
+        try {
+            return reply.join().value();
+        } catch (CompletionException | CancellationException e) {
+            LOGGER.severe("can't receive data " + e.getLocalizedMessage());
+            return "error";
+        }
+    }
+
+    /**
+     * Zeichnet die empfangenen Datagramme auf, solange ein Flugschreiber laeuft.
+     */
+    private IoReactor.DatagramHandler recording(FlightRecorder.RecordType type, IoReactor.DatagramHandler handler) {
+        return (datagram, source) -> {
+            FlightRecorder current = flightRecorder;
+            if (current != null) {
+                current.append(type, System.nanoTime(), datagram);
+            }
+            handler.onDatagram(datagram, source);
+        };
+    }
+
+    /**
+     * Nimmt die von der Drohne geschickten Status-Meldungen entgegen und verarbeitet sie.
+     * <p>
+     * Wird vom Reactor-Thread fuer jedes Status-Paket aufgerufen und darf deshalb nicht blockieren.
+     */
+    private void onState(ByteBuffer datagram, SocketAddress source) {
+        long now = System.nanoTime();
+        stateLink.onArrival(now);
+
+        // die Bytes werden direkt gelesen, ohne String und ohne Garbage
+        if (stateParser.parse(datagram, now, parsedState) == 0) {
+            return;
+        }
+        estimator.update(parsedState);
+        telemetry.publish(parsedState);
+        history.record(parsedState);
+        telemetryValues.publish(parsedState);
+        BoundedPublisher<TelemetrySnapshot> publisher = telemetryPublisher;
+        if (publisher.hasSubscribers()) {
+            publisher.submit(parsedState.copy());
+        }
+        batteryLevel.setValue(parsedState.battery());
+
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("state : " + parsedState);
+        }
+    }
+
+    /**
+     * Reagiert im Reactor-Thread auf eine unterbrochene Verbindung, darf deshalb nicht blockieren.
+     */
+    private void onLinkChange(LinkMonitor link, LinkHealth from, LinkHealth to) {
+        if (to != LinkHealth.STALLED || !connected) {
+            return;
+        }
+        switch (linkLossAction) {
+            case HOVER        -> commandChannel.send("stop");
+            case REINITIALIZE -> commandChannel.send(link == videoLink ? "streamon" : "command");
+            case NONE         -> { }
+        }
+    }
+}
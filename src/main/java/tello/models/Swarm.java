@@ -0,0 +1,241 @@
+package tello.models;
+
+import tello.models.net.CommandChannel;
+import tello.models.net.CommandTransport;
+import tello.models.net.DatagramRouter;
+import tello.models.net.IoReactor;
+import tello.models.net.Response;
+import tello.models.telemetry.StateParser;
+import tello.models.telemetry.TelemetryCache;
+import tello.models.telemetry.TelemetrySnapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Logger;
+
+/**
+ * Steuert mehrere Drohnen gleichzeitig, z.B. fuer Formationsfluege.
+ * <p>
+ * Alle Drohnen teilen sich einen einzigen Kommando-Socket, einen einzigen Status-Socket und einen einzigen
+ * {@link IoReactor}-Thread. Antworten und Status-Pakete werden anhand der Absender-Adresse der richtigen Drohne
+ * zugeordnet. Die Drohnen muessen dafuer im Station-Mode ('ap ssid pass') im selben WLAN sein.
+ */
+public class Swarm implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    public static final int COMMAND_PORT = 8889;
+    public static final int STATE_PORT   = 8890;
+
+    private final IoReactor       reactor;
+    private final boolean         ownsReactor;
+    private final DatagramChannel commandChannel;
+    private final DatagramChannel stateChannel;
+
+    private final DatagramRouter replyRouter = new DatagramRouter();
+    private final DatagramRouter stateRouter = new DatagramRouter();
+
+    private final Map<InetSocketAddress, Member> members = new LinkedHashMap<>();
+
+    /**
+     * @param ipAddresses the IP addresses of the drones, each listening on {@link #COMMAND_PORT}
+     */
+    public static Swarm of(String... ipAddresses) throws IOException {
+        List<InetSocketAddress> drones = new ArrayList<>();
+        for (String ipAddress : ipAddresses) {
+            drones.add(new InetSocketAddress(InetAddress.getByName(ipAddress), COMMAND_PORT));
+        }
+        return new Swarm(drones, STATE_PORT);
+    }
+
+    /**
+     * @param drones    the command addresses of the drones
+     * @param statePort the local port all drones send their state to
+     */
+    public Swarm(List<InetSocketAddress> drones, int statePort) throws IOException {
+        this(new IoReactor("tello-swarm-reactor"), true, drones, statePort);
+    }
+
+    /**
+     * @param reactor   serves the swarm's sockets, it is not closed by {@link #close()}
+     * @param drones    the command addresses of the drones
+     * @param statePort the local port all drones send their state to
+     */
+    public Swarm(IoReactor reactor, List<InetSocketAddress> drones, int statePort) throws IOException {
+        this(reactor, false, drones, statePort);
+    }
+
+    private Swarm(IoReactor reactor, boolean ownsReactor, List<InetSocketAddress> drones, int statePort) throws IOException {
+        this.reactor     = reactor;
+        this.ownsReactor = ownsReactor;
+
+        commandChannel = DatagramChannel.open().bind(null);
+        stateChannel   = DatagramChannel.open().bind(new InetSocketAddress(statePort));
+
+        for (InetSocketAddress drone : drones) {
+            Member member = new Member(drone);
+            members.put(drone, member);
+            stateRouter.route(drone.getAddress(), member::onState);
+        }
+
+        reactor.register(commandChannel, replyRouter);
+        reactor.register(stateChannel, stateRouter);
+    }
+
+    /**
+     * Puts all drones into SDK mode.
+     */
+    public CompletableFuture<SwarmResult> connect() {
+        return sendAll("command");
+    }
+
+    /**
+     * Sends {@code command} to all drones in parallel.
+     *
+     * @return completes as soon as every drone has replied or timed out
+     */
+    public CompletableFuture<SwarmResult> sendAll(String command) {
+        return send(command, members.keySet());
+    }
+
+    /**
+     * Sends {@code command} to a subset of the drones in parallel.
+     *
+     * @param drones the command addresses of the drones to address
+     * @return completes as soon as every addressed drone has replied or timed out
+     */
+    public CompletableFuture<SwarmResult> send(String command, Collection<InetSocketAddress> drones) {
+        return send(command, CommandChannel.DEFAULT_TIMEOUT, drones);
+    }
+
+    /**
+     * Sends {@code command} to a subset of the drones in parallel.
+     *
+     * @param timeout how long to wait for each drone's reply
+     * @param drones  the command addresses of the drones to address
+     * @return completes as soon as every addressed drone has replied or timed out
+     */
+    public CompletableFuture<SwarmResult> send(String command, Duration timeout, Collection<InetSocketAddress> drones) {
+        // erst alle pruefen: bei einer unbekannten Adresse fliegt keine Drohne los
+        List<Member> addressed = new ArrayList<>(drones.size());
+        for (InetSocketAddress drone : drones) {
+            addressed.add(member(drone));
+        }
+
+        List<CompletableFuture<SwarmResult.DroneResult>> replies = new ArrayList<>(drones.size());
+        for (Member member : addressed) {
+            InetSocketAddress drone = member.drone;
+            long              start = System.nanoTime();
+            replies.add(member.channel.send(command, timeout).handle((response, failure) -> {
+                Duration latency = response != null ? response.latency() : Duration.ofNanos(System.nanoTime() - start);
+                return new SwarmResult.DroneResult(drone, response, unwrap(failure), latency);
+            }));
+        }
+        return CompletableFuture.allOf(replies.toArray(new CompletableFuture<?>[0]))
+                                .thenApply(ignored -> {
+                                    Map<InetSocketAddress, SwarmResult.DroneResult> results = new LinkedHashMap<>();
+                                    replies.forEach(reply -> {
+                                        SwarmResult.DroneResult result = reply.join();
+                                        results.put(result.drone(), result);
+                                    });
+                                    return new SwarmResult(command, results);
+                                });
+    }
+
+    /**
+     * Stops the motors of all drones immediately, ahead of everything that is still queued.
+     *
+     * @return completes as soon as every drone has replied or timed out
+     */
+    public CompletableFuture<SwarmResult> emergencyAll() {
+        return sendAll("emergency");
+    }
+
+    /**
+     * Sends a command that gets no reply, i.e. 'rc a b c d', to all drones at once.
+     */
+    public void sendNoReplyAll(String command) {
+        members.values().forEach(member -> member.channel.sendNoReply(command));
+    }
+
+    /**
+     * @return the latest state of this drone, parsed without allocation in the reactor thread
+     */
+    public TelemetryCache state(InetSocketAddress drone) {
+        return member(drone).state;
+    }
+
+    /**
+     * @return the command channel of a single drone, e.g. for a drone-specific mission
+     */
+    public CommandChannel commandChannel(InetSocketAddress drone) {
+        return member(drone).channel;
+    }
+
+    /**
+     * @return the command addresses of all drones
+     */
+    public List<InetSocketAddress> drones() {
+        return new ArrayList<>(members.keySet());
+    }
+
+    @Override
+    public void close() {
+        members.values().forEach(member -> member.channel.close());
+        try {
+            commandChannel.close();
+            stateChannel.close();
+        } catch (IOException e) {
+            LOGGER.severe("can't close swarm sockets " + e.getMessage());
+        }
+        if (ownsReactor) {
+            reactor.close();
+        }
+    }
+
+    private Member member(InetSocketAddress drone) {
+        Member member = members.get(drone);
+        if (member == null) {
+            throw new IllegalArgumentException("not part of the swarm: " + drone);
+        }
+        return member;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private final class Member {
+        final InetSocketAddress drone;
+        final CommandChannel    channel;
+        final TelemetryCache    state = new TelemetryCache();
+
+        // werden nur im Reactor-Thread verwendet
+        private final StateParser       parser = new StateParser();
+        private final TelemetrySnapshot parsed = new TelemetrySnapshot();
+
+        Member(InetSocketAddress drone) {
+            this.drone = drone;
+            CommandTransport transport = CommandTransport.shared(commandChannel, drone);
+            channel = new CommandChannel(reactor, transport, 1, replies -> replyRouter.route(drone, replies));
+        }
+
+        void onState(ByteBuffer datagram, SocketAddress source) {
+            if (parser.parse(datagram, System.nanoTime(), parsed) > 0) {
+                state.publish(parsed);
+            }
+        }
+    }
+}
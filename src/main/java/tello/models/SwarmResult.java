@@ -0,0 +1,89 @@
+package tello.models;
+
+import tello.models.net.Response;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Die gesammelten Antworten aller Drohnen eines {@link Swarm} auf ein Kommando.
+ */
+public class SwarmResult {
+
+    /**
+     * Antwort einer einzelnen Drohne.
+     *
+     * @param drone    the drone's command address
+     * @param response the drone's reply, null if there was none
+     * @param failure  why there was no reply (e.g. a timeout), null if there was one
+     * @param latency  time from sending until the reply or the failure
+     */
+    public record DroneResult(InetSocketAddress drone, Response response, Throwable failure, Duration latency) {
+
+        /**
+         * @return true if the drone replied with "ok"
+         */
+        public boolean isOk() {
+            return response != null && response.isOk();
+        }
+    }
+
+    private final String                                    command;
+    private final Map<InetSocketAddress, DroneResult> results;
+
+    SwarmResult(String command, Map<InetSocketAddress, DroneResult> results) {
+        this.command = command;
+        this.results = Collections.unmodifiableMap(results);
+    }
+
+    public String command() {
+        return command;
+    }
+
+    /**
+     * @return one result per addressed drone, in the order the drones were addressed
+     */
+    public Map<InetSocketAddress, DroneResult> results() {
+        return results;
+    }
+
+    public DroneResult result(InetSocketAddress drone) {
+        return results.get(drone);
+    }
+
+    /**
+     * @return true if every addressed drone replied with "ok"
+     */
+    public boolean allOk() {
+        return results.values().stream().allMatch(DroneResult::isOk);
+    }
+
+    /**
+     * @return the drones that did not reply with "ok"
+     */
+    public List<InetSocketAddress> failed() {
+        return results.values().stream()
+                      .filter(result -> !result.isOk())
+                      .map(DroneResult::drone)
+                      .collect(Collectors.toList());
+    }
+
+    /**
+     * @return latency of the slowest drone, i.e. the time the whole swarm needed
+     */
+    public Duration maxLatency() {
+        return results.values().stream()
+                      .map(DroneResult::latency)
+                      .max(Duration::compareTo)
+                      .orElse(Duration.ZERO);
+    }
+
+    @Override
+    public String toString() {
+        return command + " " + results.values();
+    }
+}
@@ -1,19 +1,19 @@
 package tello.models;
 
-import javafx.beans.property.SimpleStringProperty;
-
-import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
-import java.net.InetAddress;
-import java.net.SocketException;
-import java.net.UnknownHostException;
-import java.nio.charset.StandardCharsets;
+import tello.models.metrics.DroneMetrics;
+import tello.models.net.CommandLatencies;
+import tello.models.net.LinkLossAction;
+import tello.models.net.LinkWatchdog;
+import tello.models.telemetry.TelemetryCache;
+import tello.models.telemetry.TelemetryHistory;
+import tello.models.telemetry.TelemetrySnapshot;
+import tello.models.telemetry.TelemetryValues;
+import tello.models.util.BoundedPublisher;
+import tello.models.util.ObservableInt;
+
+import java.nio.file.Path;
 import java.time.Duration;
 
-import java.util.Arrays;
-import java.util.logging.Logger;
-
 
 /**
  * WICHTIG: Diese Klasse ist nur eine erste, rudimentäre Version für die Drohnen-Steuerung via Java.
@@ -27,8 +27,6 @@ import java.util.logging.Logger;
  * Der Umbau, die Erweiterung und Anpassung dieser Klasse sind die Hauptaufgaben dieser Übung (neben dem UI).
  */
 public class Tello {
-    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
-
     // das ist die IP-Adresse der "echten" Drohne (Hinweis: Ihr Laptop muss mit dem WLAN der Drohne verbunden sein)
     private static final String REAL_TELLO_IP_ADDRESS = "192.168.10.1";
 
@@ -47,14 +45,27 @@ public class Tello {
     private static final int STATE_PORT = 8890;
     private static final int VIDEO_PORT = 11111;
 
-    private InetAddress    telloAddress = null;
-    private DatagramSocket commandSocket;
+    // Kommando- und Status-Kanal, Telemetrie, Flugschreiber, Watchdog und Metriken
+    private final DroneLink link;
 
-    private DatagramSocket statusSocket;
+    // wird im Reactor-Thread veraendert, das UI muss selbst in den FX-Thread wechseln
+    public final ObservableInt batteryLevel;
 
-    private boolean connected = false;
+    public Tello() {
+        this(TELLO_IP_ADDRESS, COMMAND_PORT, STATE_PORT);
+    }
 
-    public SimpleStringProperty batteryLevel;
+    /**
+     * Z.B. fuer einen Simulator, der nicht auf den Standard-Ports laeuft.
+     *
+     * @param ipAddress   the drone's IP address
+     * @param commandPort the drone's command port
+     * @param statePort   the local port the drone sends its state to
+     */
+    public Tello(String ipAddress, int commandPort, int statePort) {
+        link         = new DroneLink(null, ipAddress, commandPort, statePort);
+        batteryLevel = link.batteryLevel();
+    }
 
     /**
      * Verbindung zur Drohne (oder TelloCamp) aufbauen
@@ -62,68 +73,47 @@ public class Tello {
      * @return true, falls der Verbindungsaufbau geklappt hat
      */
     public boolean connect() {
-        try {
-            telloAddress = InetAddress.getByName(TELLO_IP_ADDRESS);
-
-            commandSocket = new DatagramSocket();
-            commandSocket.connect(telloAddress, COMMAND_PORT);
-
-            boolean response = sendCommandAndWait("command");
-            connected = response;
-
-            return response;
-        } catch (UnknownHostException e) {
-            LOGGER.severe("unknown Host");
-            return false;
-        } catch (SocketException e) {
-            LOGGER.severe("cannot connect");
-            return false;
-        }
+        return link.connect();
     }
 
     /**
      * Alle Verbindungen zur Drohne trennen und alle laufenden Threads beenden
      */
     public void disconnect() {
-        connected = false; //this will terminate the "listenToStatus-Thread"
-        if (commandSocket != null) {
-            commandSocket.close();
-        }
-        if (statusSocket != null) {
-            statusSocket.close();
-        }
+        link.disconnect();
+    }
+
+    /**
+     * Darf erst nach einem 'connect' aufgerufen werden
+     *
+     * @return latency histograms per command of the current connection, e.g. {@code commandLatencies().snapshot()}
+     */
+    public CommandLatencies commandLatencies() {
+        return link.commandLatencies();
     }
 
     /**
      * Darf erst nach einem 'connect' aufgerufen werden
      */
     public void startStateListener(){
-        try {
-            statusSocket = new DatagramSocket(STATE_PORT);
-
-            // der Status soll kontinuierlich empfangen und weiterverarbeitet werden.
-            // am einfachsten erreicht man das mit einem separaten Thread
-            Thread statusThread = new Thread(this::listenToState);
-            statusThread.setDaemon(true);
-            statusThread.start();
-        } catch (SocketException e) {
-            LOGGER.severe("cannot connect to status port");
-        }
+        link.startStateListener();
     }
 
     /**
      * Stop motors immediately.
      */
     public void emergency() {
-        sendFireAndForgetCommand("emergency");
+        // durch die Queue: wartende und laufende Bewegungen werden abgebrochen statt danach noch verschickt
+        link.send("emergency");
     }
 
     /**
-     * Auto takeoff.
+     * Auto takeoff. The position estimate starts again at the origin.
      *
      * @return true if successful, otherwise false
      */
     public boolean takeOff() {
+        link.resetPosition();
         return sendCommandAndWait("takeoff");
     }
 
@@ -152,20 +142,128 @@ public class Tello {
      * @param speed
      */
     public void setSpeed(int speed) {
-         sendFireAndForgetCommand("speed " + assureRange(speed, 10, 100));
+        // die Drohne beantwortet 'speed', deshalb durch die Queue wie jedes andere Kommando
+        link.send("speed " + assureRange(speed, 10, 100));
     }
 
     /**
-     * Obtain current battery percentage.
+     * Obtain current battery percentage. Taken from the state if it is recent, otherwise 'battery?' is sent.
      *
      * @return battery level 0-100
      */
     public int getBatteryLevel(){
-        try {
-            return Integer.parseInt(sendReadCommand("battery?"));
-        } catch (NumberFormatException e) {
-            return 0;
-        }
+        return link.getBatteryLevel();
+    }
+
+    /**
+     * Obtain current height. Taken from the state if it is recent, otherwise 'height?' is sent.
+     *
+     * @return height in cm
+     */
+    public int getHeight() {
+        return link.getHeight();
+    }
+
+    /**
+     * Obtain current flight time. Taken from the state if it is recent, otherwise 'time?' is sent.
+     *
+     * @return motor on time in seconds
+     */
+    public int getFlightTime() {
+        return link.getFlightTime();
+    }
+
+    /**
+     * Obtain distance to the ground. Taken from the state if it is recent, otherwise 'tof?' is sent.
+     *
+     * @return distance measured by the time-of-flight sensor in cm
+     */
+    public int getTof() {
+        return link.getTof();
+    }
+
+    /**
+     * Zeichnet ab jetzt alle Kommandos, Antworten und Status-Pakete in einer Datei auf, die mit
+     * {@link tello.models.recorder.FlightLog} gelesen und abgespielt werden kann.
+     *
+     * @return true if the flight log could be created
+     */
+    public boolean startRecording(Path file) {
+        return link.startRecording(file);
+    }
+
+    public void stopRecording() {
+        link.stopRecording();
+    }
+
+    /**
+     * @return the latest state received on the state port, e.g. for values without getter
+     */
+    public TelemetryCache telemetry() {
+        return link.telemetry();
+    }
+
+    /**
+     * @return one observable per telemetry field, updated with every state packet without allocation
+     */
+    public TelemetryValues telemetryValues() {
+        return link.telemetryValues();
+    }
+
+    /**
+     * Every subscriber gets a copy of each state packet through its own bounded buffer, in its own thread.
+     * {@code telemetryPublisher().subscribe(subscriber, capacity, overflow)} chooses another buffer size or policy.
+     *
+     * @return the states as they arrive, completed by {@link #disconnect()}; subscribe again after that for the states
+     *         of the next connection
+     */
+    public BoundedPublisher<TelemetrySnapshot> telemetryPublisher() {
+        return link.telemetryPublisher();
+    }
+
+    /**
+     * @return the states of the last 30 minutes, e.g. for plots or post-flight analysis
+     */
+    public TelemetryHistory history() {
+        return link.history();
+    }
+
+    /**
+     * Makes the current position the origin of the estimated position, e.g. before a mission. {@link #takeOff()}
+     * does this, too.
+     */
+    public void resetPosition() {
+        link.resetPosition();
+    }
+
+    /**
+     * @param maxAge getters send a read command instead if the latest state is older than this
+     */
+    public void setMaxTelemetryAge(Duration maxAge) {
+        link.setMaxTelemetryAge(maxAge);
+    }
+
+    /**
+     * Darf erst nach einem 'connect' aufgerufen werden
+     *
+     * @return the counters that are also published over JMX
+     */
+    public DroneMetrics metrics() {
+        return link.metrics();
+    }
+
+    /**
+     * @return watches the state stream, e.g. {@code linkWatchdog().addListener(...)} to show a warning in the UI
+     */
+    public LinkWatchdog linkWatchdog() {
+        return link.linkWatchdog();
+    }
+
+    /**
+     * @param action what to do when the state stream stalls, default is {@link LinkLossAction#NONE}
+     */
+    public void setLinkLossAction(LinkLossAction action) {
+        link.setLinkLossAction(action);
     }
 
     /**
@@ -246,116 +344,7 @@ public class Tello {
      * @return true if command was successful otherwise false
      */
     private boolean sendCommandAndWait(final String command) {
-        sendFireAndForgetCommand(command);
-
-        final String response = getResponse().trim();
-
-        return "ok".equals(response);
-    }
-
-    /**
-     * Send command to Tello without expecting a response.
-     * Use this method when you want to send a command continuously
-     * <p>
-     * - rc a b c d: Send RC control via four channels.
-     *   a: left/right (-100~100)
-     *   b: forward/backward (-100~100)
-     *   c: up/down (-100~100)
-     *   d: yaw (-100~100)
-     * <p>
-     * - streamon:       Set video stream on
-     * - streamoff:      Set video stream off
-     * - emergency:      Stop all motors immediately
-     * - stop:           Hovers in the air. Works at any time.
-     * - speed x:        Set speed to x cm/s. x: 10-100
-     * - wifi ssid pass: Set Wi-Fi with SSID password
-     *
-     * @param command  this command will be sent to Tello
-     */
-    private void sendFireAndForgetCommand(String command) {
-        try {
-            final byte[]         sendData   = command.getBytes();
-            final DatagramPacket sendPacket = new DatagramPacket(sendData, sendData.length, telloAddress, COMMAND_PORT);
-            commandSocket.send(sendPacket);
-            LOGGER.info("Command : " + command);
-        } catch (IOException e) {
-            LOGGER.severe("can't send command : " + command);
-        }
-    }
-
-    /**
-     * Send read command to Tello and wait for its response. Possible read commands:
-     *   - speed?:    obtain current speed (cm/s): x: 1-100
-     *   - battery?:  obtain current battery percentage: x: 0-100
-     *   - time?:     obtain current flight time (s): time
-     *   - wifi?:     obtain Wi-Fi SNR: snr
-     *   - sdk?:      obtain the Tello SDK version
-     *   - sn?:       get obtain the Tello serial number
-     * <p>
-     * Please notice: In most cases it's more appropriate to use the status listener
-     *
-     * @param command the read command to be sent
-     * @return the value as String
-     */
-    private String sendReadCommand(String command) {
-        sendFireAndForgetCommand(command);
-        return getResponse();
-    }
-
-    /**
-     * Wartet auf die Antwort der Drohne auf ein ihr geschicktes Kommando.
-     * <p>
-     * Achtung: Auf manche Kommandos wie 'rc' schickt die Drohne keine Response.
-     *
-     * @return the drone's response to a command
-     */
-    private String getResponse() {
-        try {
-            byte[]               receiveData   = new byte[1024];
-            final DatagramPacket receivePacket = new DatagramPacket(receiveData, receiveData.length);
-            commandSocket.receive(receivePacket);
-            String received = trimResponse(receivePacket);
-            LOGGER.info("Received : " + received);
-
-            return received;
-        } catch (Exception e) {
-            LOGGER.severe("can't receive data " + e.getLocalizedMessage());
-            return "error";
-        }
-    }
-
-    /**
-     * Nimmt die von der Drohne geschickten Status-Meldungen entgegen und verarbeitet sie.
-     * <p>
-     * Aktuell wird der Status einfach nur auf die Konsole geloggt.
-     */
-    private void listenToState() {
-        byte[]               receiveData   = new byte[1024];
-        final DatagramPacket receivePacket = new DatagramPacket(receiveData, receiveData.length);
-        while (connected) {
-            try {
-                statusSocket.receive(receivePacket);
-                String received = trimResponse(receivePacket);
-                // todo: hier den empfangenen String so weiterverarbeiten, dass die Informationen anschliessend z.B. im UI angezeigt werden koennen
-                Arrays.stream(received.split(";")).anyMatch(s -> {
-                    if (s.startsWith("bat")) {
-                        batteryLevel = new SimpleStringProperty(s.substring(4));
-                        return true;
-                    }
-                    return false;
-                });
-
-
-                LOGGER.info("state : " + received);
-            } catch (Exception e) {
-                LOGGER.severe("can't receive state " + e.getLocalizedMessage());
-            }
-        }
-    }
-
-    private String trimResponse(DatagramPacket receivePacket) {
-        byte[] response = Arrays.copyOf(receivePacket.getData(), receivePacket.getLength());
-        return new String(response, StandardCharsets.UTF_8).trim();
+        return link.sendAndWait(command);
     }
 
     private int assureRange(int value, int min, int max) {
@@ -0,0 +1,259 @@
+package tello.models.metrics;
+
+import tello.models.net.CommandChannel;
+import tello.models.net.LinkMonitor;
+import tello.models.util.LatencyHistogram;
+import tello.models.util.ObservableValue;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Macht die Laufzeit-Kennzahlen einer Drohne ueber JMX sichtbar, damit man einem laufenden Prozess z.B. mit JConsole
+ * zuschauen kann.
+ * <p>
+ * Die meisten Werte werden erst beim Abfragen aus den bestehenden Zaehlern gelesen (Kommando-Kanal, Link-Monitore,
+ * Histogramme). Im Empfangs- und Video-Pfad kommt dadurch kaum Aufwand dazu.
+ */
+public class DroneMetrics implements DroneMetricsMBean {
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    private static final String DOMAIN = "tello";
+
+    private final CommandChannel commands;
+    private final LinkMonitor    stateLink;
+    private final LinkMonitor    videoLink;
+
+    private final LongAdder        framesDropped = new LongAdder();
+    private final LatencyHistogram inference     = new LatencyHistogram();
+    private final Rate             stateRate;
+    private final Rate             frameRate;
+
+    private volatile IntSupplier recorderQueueDepth = () -> 0;
+
+    private ObjectName name;
+
+    /**
+     * @param commands  the drone's command channel
+     * @param stateLink watches the state stream
+     * @param videoLink watches the video frames, null if there is no video
+     */
+    public DroneMetrics(CommandChannel commands, LinkMonitor stateLink, LinkMonitor videoLink) {
+        this.commands  = commands;
+        this.stateLink = stateLink;
+        this.videoLink = videoLink;
+        stateRate      = new Rate(() -> stateLink.stats().packets());
+        frameRate      = new Rate(() -> videoLink == null ? 0 : videoLink.stats().packets());
+    }
+
+    /**
+     * Registers with the platform MBean server as {@code tello:type=Drone,name="<drone>"}.
+     *
+     * @param drone identifies the drone, e.g. its address
+     * @return false if it could not be registered, e.g. because another instance uses the same name
+     */
+    public synchronized boolean register(String drone) {
+        try {
+            ObjectName  objectName = new ObjectName(DOMAIN + ":type=Drone,name=" + ObjectName.quote(drone));
+            MBeanServer server     = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, objectName);
+            name = objectName;
+            return true;
+        } catch (JMException e) {
+            LOGGER.warning("can't register metrics " + e.getMessage());
+            return false;
+        }
+    }
+
+    public synchronized void unregister() {
+        if (name == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            LOGGER.warning("can't unregister metrics " + e.getMessage());
+        }
+        name = null;
+    }
+
+    /**
+     * @return the name it is registered under, null if it isn't registered
+     */
+    public synchronized ObjectName name() {
+        return name;
+    }
+
+    /**
+     * A frame that could not be decoded or was skipped.
+     */
+    public void frameDropped() {
+        framesDropped.increment();
+    }
+
+    /**
+     * @param nanos time one run of the detection took
+     */
+    public void inference(long nanos) {
+        inference.record(nanos);
+    }
+
+    /**
+     * @param depth reports the number of frames waiting to be recorded
+     */
+    public void setRecorderQueueDepth(IntSupplier depth) {
+        recorderQueueDepth = depth;
+    }
+
+    @Override
+    public long getCommandsSent() {
+        return commands.transport().sentCount();
+    }
+
+    @Override
+    public long getRepliesReceived() {
+        return commands.repliesReceived();
+    }
+
+    @Override
+    public long getTimeouts() {
+        return commands.timeouts();
+    }
+
+    @Override
+    public long getStatePackets() {
+        return stateLink.stats().packets();
+    }
+
+    @Override
+    public double getStatePacketsPerSecond() {
+        return stateRate.perSecond();
+    }
+
+    @Override
+    public long getFramesDecoded() {
+        return videoLink == null ? 0 : videoLink.stats().packets();
+    }
+
+    @Override
+    public double getFramesPerSecond() {
+        return frameRate.perSecond();
+    }
+
+    @Override
+    public long getFramesDropped() {
+        return framesDropped.sum();
+    }
+
+    @Override
+    public long getDetectionRuns() {
+        return inference.snapshot().count();
+    }
+
+    @Override
+    public double getInferenceMillisP50() {
+        return millis(inference.snapshot().p50());
+    }
+
+    @Override
+    public double getInferenceMillisP99() {
+        return millis(inference.snapshot().p99());
+    }
+
+    @Override
+    public double getInferenceMillisMax() {
+        return millis(inference.snapshot().max());
+    }
+
+    @Override
+    public int getRecorderQueueDepth() {
+        return recorderQueueDepth.getAsInt();
+    }
+
+    @Override
+    public long getListenerDispatches() {
+        return ObservableValue.dispatchLatency().snapshot().count();
+    }
+
+    @Override
+    public double getListenerDispatchMicrosP99() {
+        return micros(ObservableValue.dispatchLatency().snapshot().p99());
+    }
+
+    @Override
+    public double getListenerDispatchMicrosMax() {
+        return micros(ObservableValue.dispatchLatency().snapshot().max());
+    }
+
+    @Override
+    public String getStateLink() {
+        return stateLink.toString();
+    }
+
+    @Override
+    public String getVideoLink() {
+        return videoLink == null ? "-" : videoLink.toString();
+    }
+
+    @Override
+    public void resetStatistics() {
+        inference.reset();
+        ObservableValue.dispatchLatency().reset();
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1e6;
+    }
+
+    private static double micros(Duration duration) {
+        return duration.toNanos() / 1e3;
+    }
+
+    /**
+     * Rechnet einen Zaehler beim Abfragen in eine Rate pro Sekunde um, im Hot-Path entsteht dafuer kein Aufwand.
+     * <p>
+     * Gemittelt wird seit der vorherigen Messung, Abfragen innerhalb einer Sekunde danach liefern dieselbe Rate.
+     */
+    private static final class Rate {
+        private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+        private final LongSupplier counter;
+
+        private long    lastCount;
+        private long    lastNanos = System.nanoTime();
+        private double  perSecond;
+        private boolean measured;
+
+        Rate(LongSupplier counter) {
+            this.counter = counter;
+        }
+
+        synchronized double perSecond() {
+            long now     = System.nanoTime();
+            long elapsed = now - lastNanos;
+            if (elapsed < WINDOW && measured) {
+                return perSecond;
+            }
+            long count = counter.getAsLong();
+            // der Zaehler wurde zurueckgesetzt, z.B. beim Neustart eines Link-Monitors
+            long delta = count >= lastCount ? count - lastCount : count;
+            if (elapsed < WINDOW) {
+                // noch keine volle Sekunde seit dem Start: vorlaeufig, gemessen wird weiter ab dem Start
+                return elapsed > 0 ? delta * 1e9 / elapsed : 0;
+            }
+            perSecond = delta * 1e9 / elapsed;
+            lastCount = count;
+            lastNanos = now;
+            measured  = true;
+            return perSecond;
+        }
+    }
+}
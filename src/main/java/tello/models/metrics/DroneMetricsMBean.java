@@ -0,0 +1,52 @@
+package tello.models.metrics;
+
+/**
+ * Die Kennzahlen einer Drohne, wie sie z.B. in JConsole unter 'tello' erscheinen.
+ * <p>
+ * Zaehler laufen seit dem 'connect'. Raten sind der Mittelwert seit der vorherigen Abfrage, ueber mindestens eine
+ * Sekunde: fragt man wie JConsole jede Sekunde ab, ist es die letzte Sekunde. Vor der ersten vollen Sekunde ist es der
+ * Mittelwert seit dem 'connect'.
+ */
+public interface DroneMetricsMBean {
+
+    long getCommandsSent();
+
+    long getRepliesReceived();
+
+    long getTimeouts();
+
+    long getStatePackets();
+
+    double getStatePacketsPerSecond();
+
+    long getFramesDecoded();
+
+    double getFramesPerSecond();
+
+    long getFramesDropped();
+
+    long getDetectionRuns();
+
+    double getInferenceMillisP50();
+
+    double getInferenceMillisP99();
+
+    double getInferenceMillisMax();
+
+    int getRecorderQueueDepth();
+
+    long getListenerDispatches();
+
+    double getListenerDispatchMicrosP99();
+
+    double getListenerDispatchMicrosMax();
+
+    String getStateLink();
+
+    String getVideoLink();
+
+    /**
+     * Resets the inference and listener dispatch histograms, the counters keep running.
+     */
+    void resetStatistics();
+}
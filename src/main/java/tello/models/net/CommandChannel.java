@@ -0,0 +1,468 @@
+package tello.models.net;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Kommando-Kanal zur Drohne, der mehrere Kommandos gleichzeitig unterwegs haben kann.
+ * <p>
+ * Jedes Kommando liefert sofort ein {@link CompletableFuture}, das mit der Antwort der Drohne abgeschlossen wird.
+ * Der Thread des {@link IoReactor} ordnet die Antworten in der Sende-Reihenfolge den Kommandos zu. Die Futures werden
+ * deshalb im Reactor-Thread abgeschlossen: aufwaendige Folge-Aktionen gehoeren in die '...Async'-Varianten.
+ * <p>
+ * Es sind hoechstens {@code maxInFlight} Kommandos gleichzeitig unterwegs, alle weiteren warten im
+ * {@link CommandScheduler} und werden nach Prioritaet verschickt, sobald eine Antwort eintrifft oder ein Kommando in
+ * den Timeout laeuft.
+ * <p>
+ * SAFETY-Kommandos ('emergency', 'stop', 'land') warten nie: sie verwerfen die wartenden Kommandos (siehe
+ * {@link CommandScheduler#setDroppedOnSafety}) und brechen die bereits verschickten ab, deren Futures enden mit einer
+ * {@link CancellationException}. Ihre Antworten sind aber noch unterwegs und lassen sich nicht von der Antwort auf das
+ * SAFETY-Kommando unterscheiden. 'land' wird deshalb erst mit der letzten dieser Antworten abgeschlossen. Bleibt eine
+ * davon aus, gilt nach dem Timeout die zuletzt empfangene als seine Antwort. 'emergency' und 'stop' beantwortet die
+ * Drohne dagegen sofort, die abgebrochenen Bewegungen vielleicht nie: sie werden mit der ersten Antwort abgeschlossen,
+ * die uebrigen werden wie die Antworten auf ein wiederholtes Kommando (siehe unten) noch eine Round-Trip-Time lang
+ * erwartet und verworfen. So ist nie mehr als ein Kommando-Paar unklar, und spaetere Kommandos erhalten nie eine
+ * fremde Antwort.
+ * <p>
+ * Auf Kommandos, die die Drohne sofort beantwortet ('battery?', 'speed 50', 'command'), wird nur so lange gewartet,
+ * wie es die gemessene Round-Trip-Time ({@link RttEstimator}) erwarten laesst. Bleibt die Antwort aus, wird das
+ * Kommando mit exponentiellem Backoff erneut verschickt, bis das Timeout des Aufrufers erreicht ist. Bewegungen
+ * werden nie wiederholt: Bleibt ihre Antwort aus, endet das Future mit einer {@link IndeterminateCommandException}.
+ * Ein wiederholtes Kommando wird mit seiner ersten Antwort abgeschlossen, die Antworten auf die anderen Versuche sind
+ * meist noch unterwegs. Bis sie da sind, hoechstens bis sie nach der gemessenen Round-Trip-Time faellig waren, wird
+ * kein weiteres Kommando verschickt und sie werden verworfen.
+ * <p>
+ * Achtung: Das Tello-Protokoll kennt keine Kommando-IDs. Antworten, die offensichtlich nicht zum aeltesten
+ * ausstehenden Kommando passen (ein Wert statt 'ok' oder umgekehrt), werden als verspaetete Antworten verworfen.
+ * Andere verspaetete Antworten werden dem naechsten ausstehenden Kommando zugeordnet.
+ */
+public class CommandChannel {
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    // Bewegungen wie 'forward 500' dauern mehrere Sekunden, bevor die Drohne antwortet
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(20);
+
+    // so oft prueft der Reactor, ob ein Kommando in den Timeout gelaufen ist
+    private static final int TIMEOUT_CHECK_MILLIS = 20;
+
+    // so oft wird ein sofort beantwortetes Kommando hoechstens wiederholt
+    private static final int MAX_RETRANSMISSIONS = 4;
+
+    private final CommandTransport transport;
+    private final int              maxInFlight;
+
+    private final Deque<PendingCommand> inFlight  = new ArrayDeque<>();
+    private final CommandScheduler      scheduler = new CommandScheduler();
+    private final Object                lock      = new Object();
+    private final RttEstimator          rtt       = new RttEstimator();
+    private final CommandLatencies      latencies = new CommandLatencies();
+
+    // von einem SAFETY-Kommando abgebrochen, werden ausserhalb von 'lock' abgeschlossen
+    private final List<PendingCommand> aborted = new ArrayList<>();
+
+    // mit 'lock' geschuetzt: so viele Antworten auf ein wiederholtes Kommando sind noch unterwegs, laengstens bis
+    // 'owedUntil', bis dahin wird nur ein SAFETY-Kommando verschickt
+    private int  owedReplies;
+    private long owedUntil;
+
+    private final IoReactor.ScheduledTask timeoutCheck;
+    private volatile boolean open = true;
+
+    // werden nur im Reactor-Thread erhoeht
+    private volatile long repliesReceived;
+    private volatile long timeouts;
+
+    /**
+     * @param reactor     receives the replies and checks the timeouts
+     * @param transport   a transport connected to the drone's command port
+     * @param maxInFlight how many commands may wait for a reply at the same time
+     */
+    public CommandChannel(IoReactor reactor, CommandTransport transport, int maxInFlight) {
+        this(reactor, transport, maxInFlight, replyHandler -> reactor.register(transport.channel(), replyHandler));
+    }
+
+    /**
+     * For a transport that shares its channel: the replies must be routed to this command channel by the caller,
+     * e.g. with a {@link DatagramRouter}.
+     *
+     * @param reactor     checks the timeouts
+     * @param transport   a transport sending to the drone's command port
+     * @param maxInFlight how many commands may wait for a reply at the same time
+     * @param replies     receives the handler that has to be called with each reply of this drone
+     */
+    public CommandChannel(IoReactor reactor, CommandTransport transport, int maxInFlight,
+                          Consumer<IoReactor.DatagramHandler> replies) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.transport   = transport;
+        this.maxInFlight = maxInFlight;
+
+        replies.accept(this::onDatagram);
+        timeoutCheck = reactor.scheduleAtFixedRate(() -> expireTimedOut(System.nanoTime()),
+                                                   TIMEOUT_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Send a command with the {@link #DEFAULT_TIMEOUT}.
+     *
+     * @param command this command will be sent to Tello
+     * @return completes with Tello's reply, or exceptionally with a {@link TimeoutException}
+     */
+    public CompletableFuture<Response> send(String command) {
+        return send(command, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Queue a command. It is sent as soon as fewer than {@code maxInFlight} commands are waiting for a reply and
+     * no command of a higher {@link CommandPriority} is waiting.
+     *
+     * @param command this command will be sent to Tello
+     * @param timeout how long to wait for the reply, measured from the moment the command is sent first
+     * @return completes with Tello's reply, or exceptionally with a {@link TimeoutException}. That is an
+     *         {@link IndeterminateCommandException} if the command was not retransmitted because it is not idempotent.
+     *         Fails right away with an {@link IllegalArgumentException} if the command isn't ASCII.
+     */
+    public CompletableFuture<Response> send(String command, Duration timeout) {
+        PendingCommand pending = new PendingCommand(command, timeout.toNanos());
+        pending.latency = latencies.histogram(pending.keyword);
+        if (!open) {
+            pending.future.completeExceptionally(new IOException("command channel is closed"));
+            return pending.future;
+        }
+        if (!CommandEncoder.isAscii(command)) {
+            // sonst wuerde erst der Reactor-Thread beim Senden scheitern
+            pending.future.completeExceptionally(new IllegalArgumentException("not an ASCII command: " + command));
+            return pending.future;
+        }
+        List<PendingCommand> dropped = new ArrayList<>(0);
+        PendingCommand       queued;
+        synchronized (lock) {
+            queued = scheduler.enqueue(pending, dropped);
+            pump();
+        }
+        for (PendingCommand preempted : dropped) {
+            LOGGER.info("dropped : " + preempted.command);
+            preempted.future.completeExceptionally(new CancellationException("preempted by '" + command + "'"));
+        }
+        completeAborted();
+        return queued.future;
+    }
+
+    /**
+     * Send command to Tello without expecting a response. The command bypasses the queue: use it only for commands
+     * the drone never answers, e.g. 'rc'. A reply to any other command would be taken for the reply to the command
+     * in flight.
+     *
+     * @param command this command will be sent to Tello
+     */
+    public void sendNoReply(String command) {
+        try {
+            transport.send(command);  // die Transport-Schicht protokolliert jedes Kommando mit FINE
+        } catch (IOException e) {
+            LOGGER.severe("can't send command : " + command);
+        }
+    }
+
+    /**
+     * Closes the transport and fails all outstanding commands.
+     */
+    public void close() {
+        open = false;
+        timeoutCheck.cancel();
+        try {
+            transport.close();
+        } catch (IOException e) {
+            LOGGER.severe("can't close command channel " + e.getMessage());
+        }
+        failAll(new IOException("command channel is closed"));
+    }
+
+    /**
+     * @return the transport, e.g. for 'rc' commands that don't need the queue
+     */
+    public CommandTransport transport() {
+        return transport;
+    }
+
+    /**
+     * @return the queue, e.g. to configure its policies or to read the queueing delays
+     */
+    public CommandScheduler scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * @return the round-trip time estimate of this link
+     */
+    public RttEstimator rtt() {
+        return rtt;
+    }
+
+    /**
+     * @return the latency histograms of all commands sent over this channel
+     */
+    public CommandLatencies latencies() {
+        return latencies;
+    }
+
+    /**
+     * @return number of commands sent and still waiting for a reply
+     */
+    public int inFlightCount() {
+        synchronized (lock) {
+            return inFlight.size();
+        }
+    }
+
+    /**
+     * @return number of commands waiting to be sent
+     */
+    public int queuedCount() {
+        synchronized (lock) {
+            return scheduler.size();
+        }
+    }
+
+    /**
+     * @return number of replies received, including unexpected ones
+     */
+    public long repliesReceived() {
+        return repliesReceived;
+    }
+
+    /**
+     * @return number of commands that got no reply, retransmissions included
+     */
+    public long timeouts() {
+        return timeouts;
+    }
+
+    // muss mit 'lock' aufgerufen werden, damit die Sende-Reihenfolge der Reihenfolge in 'inFlight' entspricht
+    private void pump() {
+        while (!scheduler.isEmpty()
+               && (inFlight.size() < maxInFlight || scheduler.peekPriority() == CommandPriority.SAFETY)) {
+            if (owedReplies > 0 && scheduler.peekPriority() != CommandPriority.SAFETY) {
+                if (System.nanoTime() - owedUntil < 0) {
+                    return;
+                }
+                owedReplies = 0;  // verloren gegangen
+            }
+            PendingCommand next = scheduler.poll();
+            if (next.priority == CommandPriority.SAFETY) {
+                abortInFlight(next);
+                next.staleReplies += owedReplies;
+                owedReplies        = 0;
+            }
+            try {
+                long now = System.nanoTime();
+                next.firstSentNanos = now;
+                next.sentNanos      = now;
+                next.giveUpDeadline = now + next.timeoutNanos;
+                next.attempts       = 1;
+                next.deadline       = next.idempotent ? Math.min(now + rtt.rtoNanos(), next.giveUpDeadline)
+                                                      : next.giveUpDeadline;
+                scheduler.recordDispatch(next);
+                transport.send(next.command);
+                inFlight.add(next);
+            } catch (IOException e) {
+                LOGGER.severe("can't send command : " + next.command);
+                next.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    // muss mit 'lock' aufgerufen werden
+    private void abortInFlight(PendingCommand safety) {
+        for (PendingCommand aborted : inFlight) {
+            // die Antworten, die noch fuer 'aborted' (und die von ihm abgebrochenen Kommandos) unterwegs sind
+            safety.staleReplies += 1 + aborted.staleReplies;
+            aborted.abortedBy = safety.command;
+            this.aborted.add(aborted);
+        }
+        inFlight.clear();
+    }
+
+    // darf nicht mit 'lock' aufgerufen werden, die Futures fuehren Callbacks aus
+    private void completeAborted() {
+        List<PendingCommand> completed;
+        synchronized (lock) {
+            if (aborted.isEmpty()) {
+                return;
+            }
+            completed = new ArrayList<>(aborted);
+            aborted.clear();
+        }
+        for (PendingCommand pending : completed) {
+            LOGGER.info("aborted : " + pending.command);
+            pending.future.completeExceptionally(new CancellationException("preempted by '" + pending.abortedBy + "'"));
+        }
+    }
+
+    private void onDatagram(ByteBuffer datagram, SocketAddress source) {
+        long   receivedNanos = System.nanoTime();
+        String reply         = StandardCharsets.UTF_8.decode(datagram).toString().trim();
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Received : " + reply);
+        }
+        repliesReceived++;
+        onReply(reply, receivedNanos);
+    }
+
+    private void onReply(String reply, long receivedNanos) {
+        PendingCommand head;
+        boolean        duplicate = false;
+        synchronized (lock) {
+            head = inFlight.peek();
+            if (head == null && owedReplies > 0) {
+                owedReplies--;
+                duplicate = true;
+                pump();
+            } else if (head == null || !head.isPlausibleReply(reply)) {
+                head = null;
+            } else if (head.staleReplies > 0 && !head.immediateSafety) {
+                // gehoert zu einem abgebrochenen Kommando oder ist die erste von mehreren Antworten
+                head.staleReplies--;
+                head.staleReply = reply;
+                return;
+            } else {
+                inFlight.poll();
+                if (head.staleReplies > 0) {
+                    // auf die abgebrochenen Bewegungen wird nicht bis zum Timeout gewartet
+                    oweReplies(head.staleReplies, receivedNanos + rtt.rtoNanos());
+                } else if (head.idempotent && head.attempts == 1) {
+                    rtt.sample(receivedNanos - head.sentNanos);
+                } else if (head.attempts > 1) {
+                    // die Antwort kam nach 'receivedNanos - firstSentNanos', so lange braucht auch die auf den letzten
+                    // Versuch
+                    oweReplies(head.attempts - 1,
+                               head.sentNanos + (receivedNanos - head.firstSentNanos) + rtt.rtoNanos());
+                }
+                pump();
+            }
+        }
+        completeAborted();
+        if (duplicate) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("duplicate reply : " + reply);
+            }
+            return;
+        }
+        if (head == null) {
+            LOGGER.warning("unexpected reply : " + reply);
+            return;
+        }
+        complete(head, reply, receivedNanos);
+    }
+
+    // muss mit 'lock' aufgerufen werden: das abgeschlossene Kommando hat noch 'owed' Antworten unterwegs, die
+    // spaetestens bis 'until' erwartet werden
+    private void oweReplies(int owed, long until) {
+        PendingCommand next = inFlight.peek();
+        if (next != null) {
+            // schon dahinter verschickt (maxInFlight > 1): es bekommt erst die fremden Antworten
+            next.staleReplies += owed;
+            return;
+        }
+        if (owedReplies == 0 || until - owedUntil > 0) {
+            owedUntil = until;
+        }
+        owedReplies += owed;
+    }
+
+    private static void complete(PendingCommand pending, String reply, long receivedNanos) {
+        long latencyNanos = receivedNanos - pending.firstSentNanos;
+        if (reply.startsWith("error") || reply.startsWith("unknown")) {
+            pending.latency.recordError(latencyNanos);
+        } else {
+            pending.latency.record(latencyNanos);
+        }
+        pending.future.complete(new Response(pending.command, reply, pending.firstSentNanos, receivedNanos));
+    }
+
+    private void expireTimedOut(long now) {
+        List<PendingCommand> expired = null;
+        synchronized (lock) {
+            Iterator<PendingCommand> it = inFlight.iterator();
+            while (it.hasNext()) {
+                PendingCommand pending = it.next();
+                if (now - pending.deadline >= 0) {
+                    if (retransmit(pending, now)) {
+                        continue;
+                    }
+                    it.remove();
+                    if (expired == null) {
+                        expired = new ArrayList<>();
+                    }
+                    expired.add(pending);
+                }
+            }
+            if (expired != null || owedReplies > 0) {
+                pump();
+            }
+        }
+        completeAborted();
+        if (expired != null) {
+            for (PendingCommand pending : expired) {
+                if (pending.staleReply != null) {
+                    // nicht alle Antworten kamen an, welche fehlt, ist nicht feststellbar
+                    LOGGER.warning("missing reply before : " + pending.command);
+                    complete(pending, pending.staleReply, now);
+                    continue;
+                }
+                LOGGER.warning("timeout : " + pending.command);
+                timeouts++;
+                pending.latency.recordTimeout();
+                pending.future.completeExceptionally(pending.idempotent
+                        ? new TimeoutException("no reply to '" + pending.command + "' after " + pending.attempts + " attempts")
+                        : new IndeterminateCommandException(pending.command));
+            }
+        }
+    }
+
+    // muss mit 'lock' aufgerufen werden
+    private boolean retransmit(PendingCommand pending, long now) {
+        if (!pending.idempotent || pending.attempts > MAX_RETRANSMISSIONS || now - pending.giveUpDeadline >= 0) {
+            return false;
+        }
+        try {
+            transport.send(pending.command);
+        } catch (IOException e) {
+            LOGGER.severe("can't retransmit command : " + pending.command);
+            return false;
+        }
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Retransmit : " + pending.command);
+        }
+        long backoff = rtt.rtoNanos() << Math.min(pending.attempts, 6);
+        pending.attempts++;
+        pending.sentNanos = now;
+        pending.deadline  = Math.min(now + backoff, pending.giveUpDeadline);
+        return true;
+    }
+
+    private void failAll(Throwable cause) {
+        List<PendingCommand> outstanding;
+        synchronized (lock) {
+            outstanding = new ArrayList<>(inFlight);
+            scheduler.drainTo(outstanding);
+            inFlight.clear();
+        }
+        outstanding.forEach(pending -> pending.future.completeExceptionally(cause));
+    }
+}
@@ -0,0 +1,96 @@
+package tello.models.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Schreibt Tello-Kommandos als ASCII direkt in einen {@link ByteBuffer}, ohne dabei Strings oder byte-Arrays
+ * anzulegen.
+ */
+public final class CommandEncoder {
+
+    private CommandEncoder() {
+    }
+
+    /**
+     * Writes each character of {@code text} as one ASCII byte.
+     *
+     * @param buffer the target buffer
+     * @param text   only ASCII characters are allowed (all Tello commands are ASCII)
+     * @throws IllegalArgumentException if {@code text} contains a non-ASCII character, nothing is written then
+     */
+    public static void putAscii(ByteBuffer buffer, CharSequence text) {
+        if (!isAscii(text)) {
+            // ein Cast wuerde z.B. aus 'ü' ein anderes, gueltiges Zeichen machen
+            throw new IllegalArgumentException("not an ASCII command: " + text);
+        }
+        for (int i = 0; i < text.length(); i++) {
+            buffer.put((byte) text.charAt(i));
+        }
+    }
+
+    /**
+     * @return true if every character of {@code text} is an ASCII character
+     */
+    public static boolean isAscii(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the decimal representation of {@code value}.
+     *
+     * @param buffer the target buffer
+     * @param value  the value to write, e.g. a distance or an rc channel
+     */
+    public static void putInt(ByteBuffer buffer, int value) {
+        if (value == Integer.MIN_VALUE) {
+            putAscii(buffer, "-2147483648");
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int digits = digitCount(value);
+        int start  = buffer.position();
+        for (int i = start + digits - 1; i >= start; i--) {
+            buffer.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(start + digits);
+    }
+
+    /**
+     * Writes 'rc a b c d'.
+     *
+     * @param buffer       the target buffer
+     * @param leftRight    a: left/right (-100~100)
+     * @param forwardBack  b: forward/backward (-100~100)
+     * @param upDown       c: up/down (-100~100)
+     * @param yaw          d: yaw (-100~100)
+     */
+    public static void putRc(ByteBuffer buffer, int leftRight, int forwardBack, int upDown, int yaw) {
+        buffer.put((byte) 'r').put((byte) 'c');
+        buffer.put((byte) ' ');
+        putInt(buffer, leftRight);
+        buffer.put((byte) ' ');
+        putInt(buffer, forwardBack);
+        buffer.put((byte) ' ');
+        putInt(buffer, upDown);
+        buffer.put((byte) ' ');
+        putInt(buffer, yaw);
+    }
+
+    private static int digitCount(int value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
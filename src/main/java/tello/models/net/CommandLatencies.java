@@ -0,0 +1,43 @@
+package tello.models.net;
+
+import tello.models.util.LatencyHistogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ein {@link LatencyHistogram} pro Kommando-Wort ('takeoff', 'forward', 'battery?', ...) eines
+ * {@link CommandChannel}.
+ * <p>
+ * Gemessen wird vom ersten Senden bis zur Antwort, bei wiederholten Kommandos also inklusive aller Wiederholungen.
+ * Die Wartezeit in der Queue ist nicht enthalten, die liefert {@link CommandScheduler#queueDelay}.
+ */
+public class CommandLatencies {
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * @param keyword the first word of a command, e.g. 'forward' for 'forward 50'
+     */
+    public LatencyHistogram histogram(String keyword) {
+        return histograms.computeIfAbsent(keyword, k -> new LatencyHistogram());
+    }
+
+    /**
+     * @return the snapshots of all commands sent so far, sorted by keyword
+     */
+    public Map<String, LatencyHistogram.Snapshot> snapshot() {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+        histograms.forEach((keyword, histogram) -> snapshots.put(keyword, histogram.snapshot()));
+        return snapshots;
+    }
+
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    static String keyword(String command) {
+        int space = command.indexOf(' ');
+        return space < 0 ? command : command.substring(0, space);
+    }
+}
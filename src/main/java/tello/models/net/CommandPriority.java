@@ -0,0 +1,40 @@
+package tello.models.net;
+
+/**
+ * Prioritaetsklassen der Tello-Kommandos, von der hoechsten zur tiefsten.
+ */
+public enum CommandPriority {
+    /**
+     * emergency, stop, land
+     */
+    SAFETY,
+    /**
+     * rc
+     */
+    CONTROL,
+    /**
+     * takeoff, Bewegungen, Flips und alle weiteren Kommandos
+     */
+    MOTION,
+    /**
+     * Lese-Kommandos wie battery? oder time?
+     */
+    QUERY;
+
+    /**
+     * @param command a Tello SDK command, e.g. 'forward 50' or 'battery?'
+     * @return the class the command belongs to
+     */
+    public static CommandPriority of(String command) {
+        if (command.endsWith("?")) {
+            return QUERY;
+        }
+        if (command.equals("emergency") || command.equals("stop") || command.equals("land")) {
+            return SAFETY;
+        }
+        if (command.startsWith("rc ")) {
+            return CONTROL;
+        }
+        return MOTION;
+    }
+}
@@ -0,0 +1,220 @@
+package tello.models.net;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Warteschlange eines {@link CommandChannel}, die Kommandos nach {@link CommandPriority} statt strikt FIFO verschickt.
+ * <p>
+ * Innerhalb einer Klasse bleibt die Reihenfolge erhalten, eine hoehere Klasse wird aber immer vor allen wartenden
+ * Kommandos tieferer Klassen verschickt. Ein 'land' muss so nicht hinter 'forward', 'flip' und 'up' warten.
+ * <p>
+ * Die Queue-Operationen sind nicht thread-safe, sie werden nur unter dem Lock des {@link CommandChannel} aufgerufen.
+ * Konfiguration und Statistik duerfen aus beliebigen Threads verwendet werden.
+ */
+public class CommandScheduler {
+
+    /**
+     * Was passiert, wenn ein identisches Kommando derselben Klasse bereits wartet.
+     */
+    public enum DuplicatePolicy {
+        /**
+         * beide Kommandos werden verschickt
+         */
+        KEEP,
+        /**
+         * das neue Kommando wird nicht verschickt, es erhaelt die Antwort des bereits wartenden
+         */
+        COLLAPSE,
+        /**
+         * das wartende Kommando wird durch das neue ersetzt (gleiches Kommando-Wort, z.B. 'rc'), beide erhalten die
+         * Antwort des neuen
+         */
+        REPLACE
+    }
+
+    private final Map<CommandPriority, ArrayDeque<PendingCommand>> queues = new EnumMap<>(CommandPriority.class);
+
+    private final Map<CommandPriority, DuplicatePolicy> duplicatePolicies = new EnumMap<>(CommandPriority.class);
+    private volatile Set<CommandPriority>               droppedOnSafety   = EnumSet.of(CommandPriority.CONTROL, CommandPriority.MOTION);
+
+    private final Map<CommandPriority, QueueDelay> delays = new EnumMap<>(CommandPriority.class);
+
+    private int size;
+
+    CommandScheduler() {
+        for (CommandPriority priority : CommandPriority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            delays.put(priority, new QueueDelay());
+        }
+        duplicatePolicies.put(CommandPriority.SAFETY,  DuplicatePolicy.COLLAPSE);
+        duplicatePolicies.put(CommandPriority.CONTROL, DuplicatePolicy.REPLACE);
+        duplicatePolicies.put(CommandPriority.MOTION,  DuplicatePolicy.KEEP);
+        duplicatePolicies.put(CommandPriority.QUERY,   DuplicatePolicy.COLLAPSE);
+    }
+
+    /**
+     * @param priority the class the policy applies to
+     * @param policy   how identical commands of this class are handled while waiting
+     */
+    public void setDuplicatePolicy(CommandPriority priority, DuplicatePolicy policy) {
+        synchronized (duplicatePolicies) {
+            duplicatePolicies.put(priority, policy);
+        }
+    }
+
+    /**
+     * Sobald ein SAFETY-Kommando eintrifft, werden alle wartenden Kommandos dieser Klassen verworfen. Ihre Futures
+     * werden mit einer {@link java.util.concurrent.CancellationException} abgeschlossen.
+     *
+     * @param priorities the classes to drop, default is CONTROL and MOTION
+     */
+    public void setDroppedOnSafety(Set<CommandPriority> priorities) {
+        droppedOnSafety = priorities.isEmpty() ? EnumSet.noneOf(CommandPriority.class) : EnumSet.copyOf(priorities);
+    }
+
+    /**
+     * @return count, mean and max of the time commands of this class waited between queueing and sending
+     */
+    public QueueDelaySnapshot queueDelay(CommandPriority priority) {
+        return delays.get(priority).snapshot();
+    }
+
+    /**
+     * Queues a command according to its priority and the duplicate policy of its class.
+     *
+     * @param pending the new command
+     * @param dropped receives all commands that were removed from the queue and must be completed by the caller
+     * @return the command whose future answers {@code pending}: either {@code pending} itself or the waiting
+     *         duplicate it was collapsed into
+     */
+    PendingCommand enqueue(PendingCommand pending, List<PendingCommand> dropped) {
+        if (pending.priority == CommandPriority.SAFETY) {
+            for (CommandPriority priority : droppedOnSafety) {
+                ArrayDeque<PendingCommand> queue = queues.get(priority);
+                size -= queue.size();
+                dropped.addAll(queue);
+                queue.clear();
+            }
+        }
+
+        ArrayDeque<PendingCommand> queue = queues.get(pending.priority);
+        DuplicatePolicy policy;
+        synchronized (duplicatePolicies) {
+            policy = duplicatePolicies.get(pending.priority);
+        }
+        switch (policy) {
+            case COLLAPSE -> {
+                for (PendingCommand waiting : queue) {
+                    if (waiting.command.equals(pending.command)) {
+                        return waiting;
+                    }
+                }
+            }
+            case REPLACE -> {
+                Iterator<PendingCommand> it = queue.iterator();
+                while (it.hasNext()) {
+                    PendingCommand waiting = it.next();
+                    if (waiting.keyword.equals(pending.keyword)) {
+                        it.remove();
+                        size--;
+                        pending.future.whenComplete((response, failure) -> {
+                            if (failure != null) {
+                                waiting.future.completeExceptionally(failure);
+                            } else {
+                                waiting.future.complete(response);
+                            }
+                        });
+                    }
+                }
+            }
+            case KEEP -> {
+            }
+        }
+        queue.add(pending);
+        size++;
+        return pending;
+    }
+
+    /**
+     * @return the next command to send, or null if nothing is waiting
+     */
+    PendingCommand poll() {
+        for (ArrayDeque<PendingCommand> queue : queues.values()) {
+            PendingCommand next = queue.poll();
+            if (next != null) {
+                size--;
+                return next;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the priority of the next command to send, or null if nothing is waiting
+     */
+    CommandPriority peekPriority() {
+        for (Map.Entry<CommandPriority, ArrayDeque<PendingCommand>> entry : queues.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records how long {@code sent} waited in the queue.
+     */
+    void recordDispatch(PendingCommand sent) {
+        delays.get(sent.priority).record(sent.sentNanos - sent.queuedNanos);
+    }
+
+    void drainTo(List<PendingCommand> target) {
+        for (ArrayDeque<PendingCommand> queue : queues.values()) {
+            target.addAll(queue);
+            queue.clear();
+        }
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Wartezeit zwischen Einreihen und Versenden.
+     *
+     * @param count     number of commands sent
+     * @param meanNanos mean time in the queue
+     * @param maxNanos  longest time in the queue
+     */
+    public record QueueDelaySnapshot(long count, long meanNanos, long maxNanos) {
+    }
+
+    private static final class QueueDelay {
+        private final AtomicLong count      = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos   = new AtomicLong();
+
+        void record(long nanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        QueueDelaySnapshot snapshot() {
+            long n = count.get();
+            return new QueueDelaySnapshot(n, n == 0 ? 0 : totalNanos.get() / n, maxNanos.get());
+        }
+    }
+}
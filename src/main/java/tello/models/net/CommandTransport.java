@@ -0,0 +1,142 @@
+package tello.models.net;
+
+import tello.models.recorder.FlightRecorder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Verschickt Kommandos ueber einen {@link DatagramChannel} an die Drohne.
+ * <p>
+ * Alle Kommandos werden in denselben, wiederverwendeten Direct-{@link ByteBuffer} geschrieben. Damit entsteht beim
+ * Senden, z.B. von 'rc'-Kommandos, kein Garbage.
+ * <p>
+ * Mehrere Transports koennen sich einen Channel teilen (siehe {@link #shared}), z.B. um einen ganzen Schwarm ueber
+ * einen einzigen Socket zu steuern.
+ */
+public class CommandTransport implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    // das laengste SDK-Kommando ('curve x1 y1 z1 x2 y2 z2 speed' oder 'wifi ssid pass') ist deutlich kuerzer
+    private static final int MAX_COMMAND_LENGTH = 256;
+
+    private final DatagramChannel   channel;
+    private final InetSocketAddress target;
+    private final boolean           connected;
+    private final ByteBuffer        buffer = ByteBuffer.allocateDirect(MAX_COMMAND_LENGTH);
+
+    private volatile FlightRecorder recorder;
+
+    // wird nur unter dem Lock der send-Methoden erhoeht
+    private volatile long sent;
+
+    private CommandTransport(DatagramChannel channel, InetSocketAddress target, boolean connected) {
+        this.channel   = channel;
+        this.target    = target;
+        this.connected = connected;
+    }
+
+    /**
+     * Opens a datagram channel connected to the drone's command port.
+     *
+     * @param target address and command port of the drone
+     */
+    public static CommandTransport open(InetSocketAddress target) throws IOException {
+        DatagramChannel channel = DatagramChannel.open();
+        channel.connect(target);
+        return new CommandTransport(channel, target, true);
+    }
+
+    /**
+     * Sends to {@code target} over a channel shared with other transports. Closing this transport does not close
+     * the shared channel.
+     *
+     * @param channel an unconnected channel, e.g. one per swarm
+     * @param target  address and command port of the drone
+     */
+    public static CommandTransport shared(DatagramChannel channel, InetSocketAddress target) {
+        return new CommandTransport(channel, target, false);
+    }
+
+    /**
+     * Send a command without arguments, e.g. 'takeoff' or 'battery?'.
+     */
+    public synchronized void send(CharSequence command) throws IOException {
+        buffer.clear();
+        CommandEncoder.putAscii(buffer, command);
+        flush();
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Command : " + command);
+        }
+    }
+
+    /**
+     * Send 'rc a b c d'.
+     */
+    public synchronized void sendRc(int leftRight, int forwardBack, int upDown, int yaw) throws IOException {
+        buffer.clear();
+        CommandEncoder.putRc(buffer, leftRight, forwardBack, upDown, yaw);
+        flush();
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Command : rc " + leftRight + " " + forwardBack + " " + upDown + " " + yaw);
+        }
+    }
+
+    /**
+     * @param recorder receives every command sent from now on, null to stop recording
+     */
+    public void setRecorder(FlightRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * @return number of datagrams sent so far, including 'rc' commands and retransmissions
+     */
+    public long sentCount() {
+        return sent;
+    }
+
+    /**
+     * @return the underlying channel, e.g. to receive the drone's replies
+     */
+    public DatagramChannel channel() {
+        return channel;
+    }
+
+    public InetSocketAddress target() {
+        return target;
+    }
+
+    /**
+     * @return false if the channel is shared with other transports
+     */
+    public boolean ownsChannel() {
+        return connected;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (connected) {
+            channel.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        FlightRecorder recorder = this.recorder;
+        if (recorder != null) {
+            recorder.append(FlightRecorder.RecordType.COMMAND, System.nanoTime(), buffer);
+        }
+        if (connected) {
+            channel.write(buffer);
+        } else {
+            channel.send(buffer, target);
+        }
+        sent++;
+    }
+}
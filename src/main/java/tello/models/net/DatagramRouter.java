@@ -0,0 +1,58 @@
+package tello.models.net;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Verteilt die Datagramme eines gemeinsam genutzten Sockets anhand der Absender-Adresse an die einzelnen Drohnen.
+ * <p>
+ * Zuerst wird nach der vollstaendigen Socket-Adresse gesucht (z.B. Antworten von Port 8889), danach nur nach der
+ * IP-Adresse (Status-Pakete kommen von einem beliebigen Port der Drohne).
+ */
+public class DatagramRouter implements IoReactor.DatagramHandler {
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    private final Map<SocketAddress, IoReactor.DatagramHandler> bySocketAddress = new ConcurrentHashMap<>();
+    private final Map<InetAddress, IoReactor.DatagramHandler>   byHost          = new ConcurrentHashMap<>();
+
+    /**
+     * Route all datagrams from exactly this address and port to {@code handler}.
+     */
+    public void route(InetSocketAddress source, IoReactor.DatagramHandler handler) {
+        bySocketAddress.put(source, handler);
+    }
+
+    /**
+     * Route all datagrams from this host, whatever the source port, to {@code handler}.
+     */
+    public void route(InetAddress source, IoReactor.DatagramHandler handler) {
+        byHost.put(source, handler);
+    }
+
+    public void remove(InetSocketAddress source) {
+        bySocketAddress.remove(source);
+    }
+
+    public void remove(InetAddress source) {
+        byHost.remove(source);
+    }
+
+    @Override
+    public void onDatagram(ByteBuffer datagram, SocketAddress source) {
+        IoReactor.DatagramHandler handler = bySocketAddress.get(source);
+        if (handler == null && source instanceof InetSocketAddress address) {
+            handler = byHost.get(address.getAddress());
+        }
+        if (handler != null) {
+            handler.onDatagram(datagram, source);
+        } else if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("datagram from unknown drone " + source);
+        }
+    }
+}
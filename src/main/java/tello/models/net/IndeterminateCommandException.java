@@ -0,0 +1,17 @@
+package tello.models.net;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Auf ein nicht wiederholbares Kommando (z.B. 'forward 50' oder 'flip f') kam keine Antwort.
+ * <p>
+ * Es ist unklar, ob die Drohne das Kommando ausgefuehrt hat: das Kommando oder nur die Antwort kann verloren gegangen
+ * sein. Ein solches Kommando wird deshalb nie automatisch wiederholt.
+ */
+public class IndeterminateCommandException extends TimeoutException {
+    private static final long serialVersionUID = 1L;
+
+    public IndeterminateCommandException(String command) {
+        super("no reply to '" + command + "', it may or may not have been executed");
+    }
+}
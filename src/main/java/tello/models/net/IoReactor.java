@@ -0,0 +1,243 @@
+package tello.models.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Ein einziger Thread, der alle UDP-Sockets (Kommandos, Status) ueber einen {@link Selector} bedient und zusaetzlich
+ * Timer ausfuehrt (z.B. Kommando-Timeouts oder den rc-Loop).
+ * <p>
+ * Die Handler werden im Reactor-Thread aufgerufen und duerfen deshalb nie blockieren. Ein Reactor kann von mehreren
+ * Drohnen gemeinsam verwendet werden.
+ */
+public class IoReactor implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    // groesser als jedes Status- oder Antwort-Paket der Drohne
+    private static final int MAX_DATAGRAM_SIZE = 2048;
+
+    /**
+     * Wird fuer jedes empfangene Datagramm aufgerufen.
+     * <p>
+     * Der Buffer ist nur waehrend des Aufrufs gueltig und wird danach fuer das naechste Datagramm wiederverwendet.
+     */
+    @FunctionalInterface
+    public interface DatagramHandler {
+        void onDatagram(ByteBuffer datagram, SocketAddress source);
+    }
+
+    private final Selector                       selector;
+    private final Thread                         thread;
+    private final ConcurrentLinkedQueue<Runnable> tasks  = new ConcurrentLinkedQueue<>();
+    private final PriorityQueue<ScheduledTask>   timers = new PriorityQueue<>();
+    private final ByteBuffer                     receiveBuffer = ByteBuffer.allocateDirect(MAX_DATAGRAM_SIZE);
+    private final Consumer<SelectionKey>         onSelected    = this::readAll;
+
+    private volatile boolean running = true;
+
+    /**
+     * Opens the selector and starts the reactor thread.
+     *
+     * @param name name of the reactor thread
+     */
+    public IoReactor(String name) throws IOException {
+        selector = Selector.open();
+        thread   = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Registers a channel. The channel is switched to non-blocking mode and {@code handler} is called in the
+     * reactor thread for every datagram received on it.
+     */
+    public void register(DatagramChannel channel, DatagramHandler handler) {
+        execute(() -> {
+            try {
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, handler);
+            } catch (IOException e) {
+                LOGGER.severe("can't register channel " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Runs {@code task} in the reactor thread.
+     */
+    public void execute(Runnable task) {
+        tasks.add(task);
+        if (!inReactorThread()) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Runs {@code task} once in the reactor thread after {@code delay}.
+     */
+    public ScheduledTask schedule(Runnable task, long delay, TimeUnit unit) {
+        ScheduledTask scheduled = new ScheduledTask(task, System.nanoTime() + unit.toNanos(delay), 0);
+        execute(() -> timers.add(scheduled));
+        return scheduled;
+    }
+
+    /**
+     * Runs {@code task} periodically in the reactor thread. The first run is immediate. Periods missed because the
+     * reactor was late are skipped, the next run is one period after the late one.
+     */
+    public ScheduledTask scheduleAtFixedRate(Runnable task, long period, TimeUnit unit) {
+        long          periodNanos = unit.toNanos(period);
+        ScheduledTask scheduled   = new ScheduledTask(task, System.nanoTime(), periodNanos);
+        execute(() -> timers.add(scheduled));
+        return scheduled;
+    }
+
+    public boolean inReactorThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Stops the reactor thread and closes the selector. Registered channels stay open.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        if (!inReactorThread()) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                long timeoutMillis = runDueTimers();
+                if (!tasks.isEmpty()) {
+                    selector.selectNow(onSelected);
+                } else {
+                    selector.select(onSelected, timeoutMillis);
+                }
+                runTasks();
+            } catch (IOException e) {
+                LOGGER.severe("reactor failed " + e.getMessage());
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            LOGGER.severe("can't close selector " + e.getMessage());
+        }
+    }
+
+    private void readAll(SelectionKey key) {
+        DatagramChannel channel = (DatagramChannel) key.channel();
+        DatagramHandler handler = (DatagramHandler) key.attachment();
+        try {
+            while (true) {
+                receiveBuffer.clear();
+                SocketAddress source = channel.receive(receiveBuffer);
+                if (source == null) {
+                    return;
+                }
+                receiveBuffer.flip();
+                try {
+                    handler.onDatagram(receiveBuffer, source);
+                } catch (RuntimeException e) {
+                    LOGGER.severe("datagram handler failed " + e);
+                }
+            }
+        } catch (IOException e) {
+            if (running && channel.isOpen()) {
+                LOGGER.severe("can't receive data " + e.getLocalizedMessage());
+            } else {
+                key.cancel();
+            }
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            safely(task);
+        }
+    }
+
+    // ein fehlerhafter Handler darf den Reactor-Thread nicht beenden
+    private static void safely(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            LOGGER.severe("reactor task failed " + e);
+        }
+    }
+
+    /**
+     * @return milliseconds until the next timer is due, or 0 if there is none
+     */
+    private long runDueTimers() {
+        long now = System.nanoTime();
+        ScheduledTask next;
+        while ((next = timers.peek()) != null) {
+            if (next.cancelled) {
+                timers.poll();
+                continue;
+            }
+            long remaining = next.deadline - now;
+            if (remaining > 0) {
+                // aufrunden, sonst wacht 'select' zu frueh auf
+                return (remaining + 999_999) / 1_000_000;
+            }
+            timers.poll();
+            safely(next.task);
+            now = System.nanoTime();
+            if (next.periodNanos > 0 && !next.cancelled) {
+                next.deadline += next.periodNanos;
+                if (next.deadline - now <= 0) {
+                    // zu spaet (z.B. nach einer GC-Pause): verpasste Perioden werden nicht in einer Salve nachgeholt
+                    next.deadline = now + next.periodNanos;
+                }
+                timers.add(next);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Ein Timer des Reactors.
+     */
+    public static final class ScheduledTask implements Comparable<ScheduledTask> {
+        private final    Runnable task;
+        private final    long     periodNanos;
+        private          long     deadline;
+        private volatile boolean  cancelled;
+
+        private ScheduledTask(Runnable task, long deadline, long periodNanos) {
+            this.task        = task;
+            this.deadline    = deadline;
+            this.periodNanos = periodNanos;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public int compareTo(ScheduledTask other) {
+            return Long.compare(deadline - other.deadline, 0);
+        }
+    }
+}
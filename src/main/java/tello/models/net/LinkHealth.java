@@ -0,0 +1,23 @@
+package tello.models.net;
+
+/**
+ * Zustand einer Verbindung, die ein {@link LinkMonitor} ueberwacht.
+ */
+public enum LinkHealth {
+    /**
+     * die Ueberwachung wurde noch nicht gestartet
+     */
+    IDLE,
+    /**
+     * Pakete kommen im erwarteten Takt
+     */
+    HEALTHY,
+    /**
+     * einige Intervalle ohne Paket oder hohe Verlustrate
+     */
+    DEGRADED,
+    /**
+     * so viele Intervalle ohne Paket, dass die Verbindung als unterbrochen gilt
+     */
+    STALLED
+}
@@ -0,0 +1,19 @@
+package tello.models.net;
+
+/**
+ * Was die Drohnen-Steuerung tun soll, wenn der {@link LinkWatchdog} eine unterbrochene Verbindung meldet.
+ */
+public enum LinkLossAction {
+    /**
+     * nur melden
+     */
+    NONE,
+    /**
+     * 'stop' schicken, die Drohne schwebt an Ort
+     */
+    HOVER,
+    /**
+     * die Verbindung neu aufbauen ('command', beim Video 'streamon')
+     */
+    REINITIALIZE
+}
@@ -0,0 +1,159 @@
+package tello.models.net;
+
+import tello.models.util.ObservableValue;
+
+import java.time.Duration;
+
+/**
+ * Ueberwacht einen Paket-Strom, der in einem festen Takt eintrifft, z.B. die Status-Pakete (10 Hz) oder die
+ * Video-Bilder (30 Hz).
+ * <p>
+ * {@link #onArrival} wird vom Empfangs-Thread fuer jedes Paket aufgerufen, kostet konstante Zeit und alloziert nichts.
+ * Daraus entstehen gleitende Werte fuer das mittlere Paket-Intervall, den Jitter (wie bei RTP, RFC 3550) und die
+ * Verlustrate (Luecken im Takt gelten als verlorene Pakete). Der {@link LinkWatchdog} prueft regelmaessig, wie viele
+ * Intervalle seit dem letzten Paket vergangen sind, und setzt daraus die {@link #health()}.
+ * <p>
+ * Die Statistik-Werte werden einzeln veroeffentlicht und stammen nicht zwingend alle vom selben Paket.
+ */
+public class LinkMonitor {
+    // Gewicht eines neuen Intervalls in den gleitenden Werten
+    private static final double SMOOTHING = 1.0 / 16;
+
+    // ab dieser Verlustrate gilt die Verbindung auch ohne lange Pause als beeintraechtigt
+    private static final double DEGRADED_LOSS_RATE = 0.25;
+
+    /**
+     * Statistik einer Verbindung.
+     *
+     * @param packets      packets received since the monitor was started
+     * @param missed       packets missing in the expected rhythm
+     * @param lossRate     recent share of missing packets (0-1)
+     * @param meanInterval recent mean time between two packets
+     * @param jitter       recent mean deviation from the expected interval
+     * @param sinceLast    time since the last packet
+     */
+    public record Stats(long packets, long missed, double lossRate, Duration meanInterval, Duration jitter,
+                        Duration sinceLast) {
+    }
+
+    private final String name;
+    private final long   expectedNanos;
+    private final int    degradedAfter;
+    private final int    stalledAfter;
+
+    private final ObservableValue<LinkHealth> health = new ObservableValue<>(LinkHealth.IDLE);
+
+    private volatile boolean active;
+    private volatile long    startNanos;
+    private volatile long    lastArrival;
+    private volatile long    packets;
+    private volatile long    missed;
+    private volatile double  meanIntervalNanos;
+    private volatile double  jitterNanos;
+    private volatile double  lossRate;
+
+    /**
+     * @param expectedInterval time between two packets when everything is fine
+     * @param degradedAfter    number of missed intervals after which the link is {@link LinkHealth#DEGRADED}
+     * @param stalledAfter     number of missed intervals after which the link is {@link LinkHealth#STALLED}
+     */
+    public LinkMonitor(String name, Duration expectedInterval, int degradedAfter, int stalledAfter) {
+        if (degradedAfter < 1 || stalledAfter <= degradedAfter) {
+            throw new IllegalArgumentException("need 0 < degradedAfter < stalledAfter");
+        }
+        this.name          = name;
+        this.expectedNanos = expectedInterval.toNanos();
+        this.degradedAfter = degradedAfter;
+        this.stalledAfter  = stalledAfter;
+    }
+
+    /**
+     * Starts watching, e.g. when the state listener is started. A link that never delivers a packet stalls too.
+     */
+    public void start() {
+        packets           = 0;
+        missed            = 0;
+        lastArrival       = 0;
+        meanIntervalNanos = expectedNanos;
+        jitterNanos       = 0;
+        lossRate          = 0;
+        startNanos        = System.nanoTime();
+        active            = true;
+    }
+
+    public void stop() {
+        active = false;
+        health.setValue(LinkHealth.IDLE);
+    }
+
+    /**
+     * Must be called for every packet, always by the same thread.
+     *
+     * @param nanos {@link System#nanoTime()} when the packet arrived
+     */
+    public void onArrival(long nanos) {
+        long last = lastArrival;
+        if (last != 0) {
+            long interval = nanos - last;
+            meanIntervalNanos += (interval - meanIntervalNanos) * SMOOTHING;
+            jitterNanos       += (Math.abs(interval - expectedNanos) - jitterNanos) * SMOOTHING;
+
+            // eine Luecke von n Intervallen bedeutet n-1 verlorene Pakete, danach ein angekommenes
+            long lost = Math.min(1000, Math.max(0, Math.round((double) interval / expectedNanos) - 1));
+            if (lost > 0) {
+                missed  += lost;
+                lossRate = 1 - (1 - lossRate) * Math.pow(1 - SMOOTHING, lost);
+            }
+            lossRate *= 1 - SMOOTHING;
+        }
+        packets++;
+        lastArrival = nanos;
+    }
+
+    /**
+     * Re-evaluates the health, called periodically by the {@link LinkWatchdog}.
+     */
+    void check(long now) {
+        if (!active) {
+            return;
+        }
+        long last            = lastArrival;
+        long missedIntervals = (now - (last == 0 ? startNanos : last)) / expectedNanos;
+
+        LinkHealth next;
+        if (missedIntervals >= stalledAfter) {
+            next = LinkHealth.STALLED;
+        } else if (missedIntervals >= degradedAfter || (last != 0 && lossRate > DEGRADED_LOSS_RATE)) {
+            next = LinkHealth.DEGRADED;
+        } else if (last == 0) {
+            return;  // das erste Paket ist noch unterwegs
+        } else {
+            next = LinkHealth.HEALTHY;
+        }
+        health.setValue(next);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the current health, listeners are notified in the watchdog's thread
+     */
+    public ObservableValue<LinkHealth> health() {
+        return health;
+    }
+
+    public Stats stats() {
+        long last = lastArrival;
+        return new Stats(packets, missed, lossRate,
+                         Duration.ofNanos((long) meanIntervalNanos),
+                         Duration.ofNanos((long) jitterNanos),
+                         last == 0 ? Duration.ZERO : Duration.ofNanos(System.nanoTime() - last));
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + health.getValue() + " " + stats();
+    }
+}
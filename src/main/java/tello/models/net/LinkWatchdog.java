@@ -0,0 +1,116 @@
+package tello.models.net;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Erkennt innerhalb von Millisekunden, wenn der Status- oder Video-Strom der Drohne stockt oder abreisst.
+ * <p>
+ * Der Watchdog prueft alle {@link LinkMonitor}s im Takt von {@value #CHECK_MILLIS} ms im Thread des
+ * {@link IoReactor} und meldet jeden Wechsel (beeintraechtigt, unterbrochen, wiederhergestellt) an die
+ * {@link LinkListener}. Die Listener laufen im Reactor-Thread und duerfen nicht blockieren.
+ */
+public class LinkWatchdog {
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    private static final int CHECK_MILLIS = 10;
+
+    private static final int DEFAULT_DEGRADED_AFTER = 3;
+    private static final int DEFAULT_STALLED_AFTER  = 10;
+
+    /**
+     * Wird bei jedem Zustandswechsel einer Verbindung aufgerufen.
+     */
+    @FunctionalInterface
+    public interface LinkListener {
+        /**
+         * @param from the previous health, a change from {@link LinkHealth#DEGRADED} or {@link LinkHealth#STALLED}
+         *             to {@link LinkHealth#HEALTHY} is a recovery
+         */
+        void onLinkChange(LinkMonitor link, LinkHealth from, LinkHealth to);
+    }
+
+    private final List<LinkMonitor>  monitors  = new CopyOnWriteArrayList<>();
+    private final List<LinkListener> listeners = new CopyOnWriteArrayList<>();
+
+    private IoReactor.ScheduledTask check;
+
+    /**
+     * Creates a monitor that is degraded after 3 and stalled after 10 missed intervals.
+     */
+    public LinkMonitor monitor(String name, Duration expectedInterval) {
+        return monitor(name, expectedInterval, DEFAULT_DEGRADED_AFTER, DEFAULT_STALLED_AFTER);
+    }
+
+    /**
+     * @param expectedInterval time between two packets when everything is fine
+     * @param degradedAfter    number of missed intervals after which the link is {@link LinkHealth#DEGRADED}
+     * @param stalledAfter     number of missed intervals after which the link is {@link LinkHealth#STALLED}
+     */
+    public LinkMonitor monitor(String name, Duration expectedInterval, int degradedAfter, int stalledAfter) {
+        LinkMonitor monitor = new LinkMonitor(name, expectedInterval, degradedAfter, stalledAfter);
+        monitor.health().onChange((from, to) -> {
+            if (from != to) {
+                onLinkChange(monitor, from, to);
+            }
+        });
+        monitors.add(monitor);
+        return monitor;
+    }
+
+    public void addListener(LinkListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(LinkListener listener) {
+        listeners.remove(listener);
+    }
+
+    public List<LinkMonitor> monitors() {
+        return List.copyOf(monitors);
+    }
+
+    /**
+     * Starts checking the monitors that have been started.
+     */
+    public synchronized void start(IoReactor reactor) {
+        stop();
+        check = reactor.scheduleAtFixedRate(this::checkAll, CHECK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops checking and stops all monitors.
+     */
+    public synchronized void stop() {
+        if (check != null) {
+            check.cancel();
+            check = null;
+        }
+        monitors.forEach(LinkMonitor::stop);
+    }
+
+    private void checkAll() {
+        long now = System.nanoTime();
+        for (LinkMonitor monitor : monitors) {
+            monitor.check(now);
+        }
+    }
+
+    private void onLinkChange(LinkMonitor link, LinkHealth from, LinkHealth to) {
+        if (to == LinkHealth.DEGRADED || to == LinkHealth.STALLED) {
+            LOGGER.warning("link " + link.name() + " " + to + " " + link.stats());
+        } else if (to == LinkHealth.HEALTHY && from != LinkHealth.IDLE) {
+            LOGGER.info("link " + link.name() + " recovered " + link.stats());
+        }
+        for (LinkListener listener : listeners) {
+            try {
+                listener.onLinkChange(link, from, to);
+            } catch (RuntimeException e) {
+                LOGGER.severe("link listener failed " + e.getMessage());
+            }
+        }
+    }
+}
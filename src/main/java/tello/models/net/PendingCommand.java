@@ -0,0 +1,61 @@
+package tello.models.net;
+
+import tello.models.util.LatencyHistogram;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Ein Kommando, das in einem {@link CommandChannel} auf das Versenden oder auf seine Antwort wartet.
+ */
+final class PendingCommand {
+    // diese Kommandos beantwortet die Drohne sofort und sie duerfen beliebig oft wiederholt werden
+    private static final Set<String> IDEMPOTENT_KEYWORDS = Set.of("command", "streamon", "streamoff", "speed", "mon", "moff");
+
+    // diese SAFETY-Kommandos beantwortet die Drohne sofort, 'land' erst nach der Landung
+    private static final Set<String> IMMEDIATE_SAFETY_KEYWORDS = Set.of("emergency", "stop");
+
+    final String                      command;
+    final String                      keyword;
+    final CommandPriority             priority;
+    final boolean                     idempotent;
+    final boolean                     immediateSafety;
+    final long                        timeoutNanos;
+    final long                        queuedNanos = System.nanoTime();
+    final CompletableFuture<Response> future      = new CompletableFuture<>();
+    LatencyHistogram latency;
+    long firstSentNanos;
+    long sentNanos;
+    long deadline;
+    long giveUpDeadline;
+    int  attempts;
+
+    // nur fuer SAFETY-Kommandos: so viele Antworten abgebrochener Kommandos sind vor der eigenen noch unterwegs
+    int    staleReplies;
+    String staleReply;
+
+    // das SAFETY-Kommando, das dieses abgebrochen hat
+    String abortedBy;
+
+    PendingCommand(String command, long timeoutNanos) {
+        this.command      = command;
+        this.keyword      = CommandLatencies.keyword(command);
+        this.priority     = CommandPriority.of(command);
+        this.idempotent   = priority == CommandPriority.QUERY || IDEMPOTENT_KEYWORDS.contains(keyword);
+        this.timeoutNanos = timeoutNanos;
+
+        immediateSafety = priority == CommandPriority.SAFETY && IMMEDIATE_SAFETY_KEYWORDS.contains(keyword);
+    }
+
+    /**
+     * Queries are answered with a value, all other commands with 'ok' or an error message. A reply that doesn't
+     * fit is a late reply to an earlier, already expired or retransmitted command.
+     */
+    boolean isPlausibleReply(String reply) {
+        boolean acknowledgement = reply.startsWith("ok");
+        if (priority == CommandPriority.QUERY) {
+            return !acknowledgement;
+        }
+        return acknowledgement || reply.startsWith("error") || reply.startsWith("unknown");
+    }
+}
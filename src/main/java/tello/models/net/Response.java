@@ -0,0 +1,28 @@
+package tello.models.net;
+
+import java.time.Duration;
+
+/**
+ * Die Antwort der Drohne auf ein einzelnes Kommando.
+ *
+ * @param command      the command as it was sent to Tello
+ * @param value        the trimmed reply, e.g. "ok", "error" or the value of a read command
+ * @param sentNanos    {@link System#nanoTime()} when the command left the socket
+ * @param receivedNanos {@link System#nanoTime()} when the reply was received
+ */
+public record Response(String command, String value, long sentNanos, long receivedNanos) {
+
+    /**
+     * @return true if Tello acknowledged the command with "ok"
+     */
+    public boolean isOk() {
+        return "ok".equals(value);
+    }
+
+    /**
+     * @return round-trip time between sending the command and receiving its reply
+     */
+    public Duration latency() {
+        return Duration.ofNanos(receivedNanos - sentNanos);
+    }
+}
@@ -0,0 +1,62 @@
+package tello.models.net;
+
+import java.time.Duration;
+
+/**
+ * Schaetzt die Round-Trip-Time einer Verbindung zur Drohne und leitet daraus den Timeout fuer Kommandos ab, die
+ * sofort beantwortet werden (Jacobson/Karels wie bei TCP, RFC 6298).
+ * <p>
+ * Es werden nur Antworten auf nicht wiederholte Kommandos gemessen (Karn), sonst ist unklar, auf welches Senden
+ * sich die Antwort bezieht.
+ */
+public class RttEstimator {
+    private static final long INITIAL_RTO_NANOS = Duration.ofSeconds(1).toNanos();
+    private static final long MIN_RTO_NANOS     = Duration.ofMillis(100).toNanos();
+    private static final long MAX_RTO_NANOS     = Duration.ofSeconds(5).toNanos();
+
+    private long    srttNanos;
+    private long    rttvarNanos;
+    private long    rtoNanos = INITIAL_RTO_NANOS;
+    private boolean hasSample;
+
+    /**
+     * @param rttNanos time between sending a command once and receiving its reply
+     */
+    public synchronized void sample(long rttNanos) {
+        if (!hasSample) {
+            srttNanos   = rttNanos;
+            rttvarNanos = rttNanos / 2;
+            hasSample   = true;
+        } else {
+            // alpha = 1/8, beta = 1/4
+            rttvarNanos += (Math.abs(srttNanos - rttNanos) - rttvarNanos) / 4;
+            srttNanos   += (rttNanos - srttNanos) / 8;
+        }
+        rtoNanos = Math.min(MAX_RTO_NANOS, Math.max(MIN_RTO_NANOS, srttNanos + 4 * rttvarNanos));
+    }
+
+    /**
+     * @return the current retransmission timeout
+     */
+    public synchronized long rtoNanos() {
+        return rtoNanos;
+    }
+
+    /**
+     * @return the smoothed round-trip time, 0 before the first sample
+     */
+    public synchronized Duration smoothedRtt() {
+        return Duration.ofNanos(srttNanos);
+    }
+
+    /**
+     * @return the round-trip time variance, 0 before the first sample
+     */
+    public synchronized Duration rttVariance() {
+        return Duration.ofNanos(rttvarNanos);
+    }
+
+    public synchronized Duration rto() {
+        return Duration.ofNanos(rtoNanos);
+    }
+}
@@ -0,0 +1,147 @@
+package tello.models.recorder;
+
+import tello.models.telemetry.StateParser;
+import tello.models.telemetry.TelemetryEstimator;
+import tello.models.telemetry.TelemetrySnapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Liest eine Log-Datei des {@link FlightRecorder} und spielt sie wieder ab.
+ * <p>
+ * Die Eintraege werden ohne Kopie direkt aus der gemappten Datei geliefert. Beim Abspielen in Echtzeit wird zwischen
+ * den Eintraegen so lange gewartet wie beim Aufzeichnen, mit {@code speed} 0 werden alle Eintraege so schnell wie
+ * moeglich geliefert, z.B. fuer Benchmarks der Telemetrie-Verarbeitung.
+ */
+public class FlightLog implements Closeable {
+
+    /**
+     * Empfaengt die Eintraege beim Abspielen.
+     */
+    @FunctionalInterface
+    public interface EntryListener {
+        /**
+         * @param payload the recorded bytes between position and limit, only valid during this call
+         */
+        void onEntry(FlightRecorder.RecordType type, long nanos, ByteBuffer payload);
+    }
+
+    private final FileChannel      channel;
+    private final MappedByteBuffer data;
+    private final long             startEpochMillis;
+    private final long             startNanos;
+
+    private FlightLog(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        if (channel.size() > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("flight log too large: " + file);
+        }
+        data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (data.remaining() < FlightRecorder.HEADER_SIZE || data.getInt() != FlightRecorder.MAGIC) {
+            channel.close();
+            throw new IOException("not a flight log: " + file);
+        }
+        int version = data.getInt();
+        if (version != FlightRecorder.VERSION) {
+            channel.close();
+            throw new IOException("unsupported flight log version " + version + ": " + file);
+        }
+        startEpochMillis = data.getLong();
+        startNanos       = data.getLong();
+    }
+
+    public static FlightLog open(Path file) throws IOException {
+        return new FlightLog(file);
+    }
+
+    /**
+     * @return wall clock time when the recording started
+     */
+    public long startEpochMillis() {
+        return startEpochMillis;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} when the recording started, the entries' timestamps are relative to it
+     */
+    public long startNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Delivers all entries in recording order in the calling thread.
+     *
+     * @param speed 1 for real time, 2 for double speed, 0 for as fast as possible
+     */
+    public void replay(EntryListener listener, double speed) {
+        ByteBuffer entries = data.duplicate().position(FlightRecorder.HEADER_SIZE);
+        ByteBuffer payload = data.duplicate();
+
+        long    firstNanos  = 0;
+        long    replayStart = System.nanoTime();
+        boolean first       = true;
+        while (entries.remaining() >= FlightRecorder.ENTRY_HEADER) {
+            int length = entries.getInt();
+            if (length < 1 + 8 || length > entries.remaining()) {
+                break;  // Ende der Aufzeichnung (oder abgeschnittene Datei)
+            }
+            FlightRecorder.RecordType type  = FlightRecorder.RecordType.of(entries.get());
+            long                      nanos = entries.getLong();
+            int                       start = entries.position();
+            int                       end   = start + length - 1 - 8;
+            entries.position(end);
+            if (type == null) {
+                continue;
+            }
+            if (first) {
+                firstNanos = nanos;
+                first      = false;
+            }
+            if (speed > 0) {
+                waitUntil(replayStart + (long) ((nanos - firstNanos) / speed));
+            }
+            payload.limit(end).position(start);
+            listener.onEntry(type, nanos, payload);
+        }
+    }
+
+    /**
+     * Feeds all recorded state packets through a {@link StateParser} and a {@link TelemetryEstimator}, like the state
+     * listener does.
+     *
+     * @param speed    1 for real time, 0 for as fast as possible
+     * @param consumer receives one reused snapshot per state packet, with the recorded receive time
+     */
+    public void replayState(Consumer<TelemetrySnapshot> consumer, double speed) {
+        StateParser        parser    = new StateParser();
+        TelemetryEstimator estimator = new TelemetryEstimator();
+        TelemetrySnapshot  snapshot  = new TelemetrySnapshot();
+        replay((type, nanos, payload) -> {
+            if (type == FlightRecorder.RecordType.STATE && parser.parse(payload, nanos, snapshot) > 0) {
+                estimator.update(snapshot);
+                consumer.accept(snapshot);
+            }
+        }, speed);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static void waitUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package tello.models.recorder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Flugschreiber: haengt jedes gesendete Kommando, jede Antwort und jedes Status-Paket an eine binaere Log-Datei an.
+ * <p>
+ * Die Datei wird abschnittsweise in den Speicher gemappt, ein Eintrag kostet damit nur das Kopieren der Bytes, ohne
+ * Formatierung und ohne System-Call. Die Abschnitte liegen lueckenlos hintereinander, ein Eintrag kann ueber die Grenze
+ * reichen. Der jeweils naechste Abschnitt wird im Voraus von einem eigenen Thread gemappt, der auch die vollen
+ * Abschnitte auf die Platte schreibt ({@code force}), beim Wechsel wird der Aufrufer (der Reactor-Thread) also nicht
+ * aufgehalten. Aufbau:
+ * <pre>
+ * Header:  int magic 'TLFR', int version, long startEpochMillis, long startNanos
+ * Eintrag: int length (type + nanos + payload), byte type, long nanoTime, byte[] payload
+ * </pre>
+ * {@link #close()} kuerzt die Datei auf die geschriebenen Bytes. Nur die Datei eines abgestuerzten Prozesses hat noch
+ * den nicht beschriebenen, mit 0 gefuellten Rest des gemappten Abschnitts, dort markiert der Eintrag mit Laenge 0 das
+ * Ende. Gelesen wird die Datei mit {@link FlightLog}.
+ */
+public class FlightRecorder implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    static final int MAGIC        = 0x544C4652;
+    static final int VERSION      = 1;
+    static final int HEADER_SIZE  = 4 + 4 + 8 + 8;
+    static final int ENTRY_HEADER = 4 + 1 + 8;
+
+    // so viel wird jeweils gemappt, ein einzelner Eintrag (z.B. ein Datagramm) muss hineinpassen
+    private static final int SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Art eines Eintrags.
+     */
+    public enum RecordType {
+        COMMAND, REPLY, STATE;
+
+        private static final RecordType[] VALUES = values();
+
+        byte code() {
+            return (byte) (ordinal() + 1);
+        }
+
+        static RecordType of(byte code) {
+            return code >= 1 && code <= VALUES.length ? VALUES[code - 1] : null;
+        }
+    }
+
+    private final Path            file;
+    private final FileChannel     channel;
+    private final ExecutorService background;
+    private final ByteBuffer      entryHeader = ByteBuffer.allocate(ENTRY_HEADER);
+
+    private MappedByteBuffer         segment;
+    private long                     segmentStart;
+    private Future<MappedByteBuffer> next;       // wird im Hintergrund gemappt
+    private MappedByteBuffer         following;  // der naechste Abschnitt, sobald ein Eintrag hineinreicht
+    private boolean                  closed;
+
+    private FlightRecorder(Path file) throws IOException {
+        this.file = file;
+        channel   = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                     StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment   = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+        segment.putInt(MAGIC)
+               .putInt(VERSION)
+               .putLong(System.currentTimeMillis())
+               .putLong(System.nanoTime());
+
+        background = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "flight-recorder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        next = mapAhead(SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates (or overwrites) a flight log.
+     */
+    public static FlightRecorder create(Path file) throws IOException {
+        return new FlightRecorder(file);
+    }
+
+    /**
+     * Appends the bytes between position and limit of {@code payload}, e.g. a received datagram. The buffer's
+     * position is not changed.
+     *
+     * @param nanos {@link System#nanoTime()} when the data was sent or received
+     */
+    public synchronized void append(RecordType type, long nanos, ByteBuffer payload) {
+        int length = payload.remaining();
+        if (!reserve(length)) {
+            return;
+        }
+        putEntryHeader(type, nanos, length);
+        put(payload, payload.position(), length);
+    }
+
+    /**
+     * Appends an ASCII text, e.g. a command.
+     *
+     * @param nanos {@link System#nanoTime()} when the command was sent
+     */
+    public synchronized void append(RecordType type, long nanos, CharSequence text) {
+        int length = text.length();
+        if (!reserve(length)) {
+            return;
+        }
+        putEntryHeader(type, nanos, length);
+        for (int i = 0; i < length; i++) {
+            if (!segment.hasRemaining()) {
+                nextSegment();
+            }
+            segment.put((byte) text.charAt(i));
+        }
+    }
+
+    /**
+     * @return number of bytes written so far, including the header
+     */
+    public synchronized long size() {
+        return segment == null ? segmentStart : segmentStart + segment.position();
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        background.shutdown();
+        try {
+            // ein gerade laufendes 'force' des vorigen Abschnitts abwarten
+            if (!background.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOGGER.warning("flight log " + file + " still being written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            segment.force();
+            segmentStart = size();
+            segment      = null;  // das Mapping wird erst vom GC freigegeben, danach wird nichts mehr geschrieben
+            following    = null;
+            channel.truncate(segmentStart);
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.severe("can't close flight log " + file + " " + e.getMessage());
+        }
+    }
+
+    private void putEntryHeader(RecordType type, long nanos, int length) {
+        if (segment.remaining() >= ENTRY_HEADER) {
+            segment.putInt(1 + 8 + length)
+                   .put(type.code())
+                   .putLong(nanos);
+        } else {
+            entryHeader.clear()
+                       .putInt(1 + 8 + length)
+                       .put(type.code())
+                       .putLong(nanos);
+            put(entryHeader, 0, ENTRY_HEADER);
+        }
+    }
+
+    // kopiert die Bytes, bei Bedarf bis in den naechsten Abschnitt
+    private void put(ByteBuffer source, int offset, int length) {
+        while (length > 0) {
+            if (!segment.hasRemaining()) {
+                nextSegment();
+            }
+            int chunk = Math.min(length, segment.remaining());
+            segment.put(segment.position(), source, offset, chunk);
+            segment.position(segment.position() + chunk);
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    // wechselt in den schon gemappten naechsten Abschnitt, der volle wird im Hintergrund geschrieben
+    private void nextSegment() {
+        MappedByteBuffer full = segment;
+        segmentStart += SEGMENT_SIZE;
+        segment       = following;
+        following     = null;
+        next          = mapAhead(segmentStart + SEGMENT_SIZE);
+        background.execute(() -> {
+            try {
+                full.force();
+            } catch (RuntimeException e) {
+                LOGGER.warning("can't write flight log " + file + " " + e.getMessage());
+            }
+        });
+    }
+
+    private Future<MappedByteBuffer> mapAhead(long position) {
+        return background.submit(() -> channel.map(FileChannel.MapMode.READ_WRITE, position, SEGMENT_SIZE));
+    }
+
+    // holt den naechsten Abschnitt, falls der Eintrag nicht mehr in den aktuellen passt; gewartet wird nur, wenn das
+    // Mappen im Hintergrund noch nicht fertig ist
+    private boolean reserve(int payloadLength) {
+        if (closed) {
+            return false;
+        }
+        int needed = ENTRY_HEADER + payloadLength;
+        if (needed > SEGMENT_SIZE) {
+            LOGGER.warning("flight log entry too large: " + payloadLength + " bytes");
+            return false;
+        }
+        if (segment.remaining() < needed && following == null) {
+            try {
+                following = next.get();
+            } catch (ExecutionException e) {
+                LOGGER.severe("flight log stopped, can't grow " + file + " " + e.getCause().getMessage());
+                close();
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,211 @@
+package tello.models.telemetry;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Liest ein Status-Paket der Drohne direkt aus den empfangenen Bytes in einen {@link TelemetrySnapshot}.
+ * <p>
+ * Es entstehen weder Strings noch Arrays: Der Schluessel wird Byte fuer Byte in ein {@code long} gepackt und mit den
+ * bekannten Schluesseln verglichen, die Zahlen werden direkt aus den ASCII-Ziffern berechnet. Ein Paket sieht so aus:
+ * <pre>
+ * mid:-1;x:0;y:0;z:0;mpry:0,0,0;pitch:0;roll:0;yaw:0;vgx:0;vgy:0;vgz:0;templ:60;temph:62;tof:10;h:0;bat:87;
+ * baro:300.21;time:0;agx:0.00;agy:0.00;agz:-1000.00;\r\n
+ * </pre>
+ * Ein Parser ist nicht thread-safe, jeder Empfangs-Thread braucht seinen eigenen.
+ */
+public final class StateParser {
+    private static final long MID   = key("mid");
+    private static final long X     = key("x");
+    private static final long Y     = key("y");
+    private static final long Z     = key("z");
+    private static final long MPRY  = key("mpry");
+    private static final long PITCH = key("pitch");
+    private static final long ROLL  = key("roll");
+    private static final long YAW   = key("yaw");
+    private static final long VGX   = key("vgx");
+    private static final long VGY   = key("vgy");
+    private static final long VGZ   = key("vgz");
+    private static final long TEMPL = key("templ");
+    private static final long TEMPH = key("temph");
+    private static final long TOF   = key("tof");
+    private static final long H     = key("h");
+    private static final long BAT   = key("bat");
+    private static final long BARO  = key("baro");
+    private static final long TIME  = key("time");
+    private static final long AGX   = key("agx");
+    private static final long AGY   = key("agy");
+    private static final long AGZ   = key("agz");
+
+    private static final double[] POWERS_OF_TEN = new double[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private ByteBuffer buffer;
+    private int        pos;
+    private int        limit;
+
+    // fuer Aufrufer mit byte[] (DatagramPacket), wird nur neu erzeugt, wenn ein anderes Array kommt
+    private ByteBuffer wrapper;
+
+    /**
+     * Parses the bytes between position and limit. The buffer's position is not changed.
+     *
+     * @param datagram      the state packet
+     * @param receivedNanos {@link System#nanoTime()} when the packet arrived
+     * @param target        is cleared and receives all fields of the packet
+     * @return the number of fields found
+     */
+    public int parse(ByteBuffer datagram, long receivedNanos, TelemetrySnapshot target) {
+        buffer = datagram;
+        pos    = datagram.position();
+        limit  = datagram.limit();
+
+        target.clear();
+        target.receivedNanos = receivedNanos;
+
+        int fields = 0;
+        while (pos < limit) {
+            long key = 0;
+            int  p   = pos;
+            byte b;
+            while (p < limit && (b = datagram.get(p)) != ':') {
+                if (b > ' ') {
+                    key = key << 8 | b;
+                }
+                p++;
+            }
+            if (p >= limit) {
+                break;
+            }
+            pos = p + 1;
+            if (assign(key, target)) {
+                fields++;
+            }
+            skipPast(';');
+        }
+        buffer = null;
+        return fields;
+    }
+
+    /**
+     * Parses a state packet received with a {@link java.net.DatagramPacket}.
+     *
+     * @see #parse(ByteBuffer, long, TelemetrySnapshot)
+     */
+    public int parse(byte[] data, int offset, int length, long receivedNanos, TelemetrySnapshot target) {
+        if (wrapper == null || wrapper.array() != data) {
+            wrapper = ByteBuffer.wrap(data);
+        }
+        wrapper.limit(offset + length).position(offset);
+        return parse(wrapper, receivedNanos, target);
+    }
+
+    private boolean assign(long key, TelemetrySnapshot t) {
+        if      (key == MID)   t.mid        = readInt();
+        else if (key == X)     t.x          = readInt();
+        else if (key == Y)     t.y          = readInt();
+        else if (key == Z)     t.z          = readInt();
+        else if (key == MPRY) {
+            t.mpryX = readInt();
+            skipComma();
+            t.mpryY = readInt();
+            skipComma();
+            t.mpryZ = readInt();
+        }
+        else if (key == PITCH) t.pitch      = readInt();
+        else if (key == ROLL)  t.roll       = readInt();
+        else if (key == YAW)   t.yaw        = readInt();
+        else if (key == VGX)   t.vgx        = readInt();
+        else if (key == VGY)   t.vgy        = readInt();
+        else if (key == VGZ)   t.vgz        = readInt();
+        else if (key == TEMPL) t.templ      = readInt();
+        else if (key == TEMPH) t.temph      = readInt();
+        else if (key == TOF)   t.tof        = readInt();
+        else if (key == H)     t.height     = readInt();
+        else if (key == BAT)   t.battery    = readInt();
+        else if (key == BARO)  t.barometer  = readDecimal();
+        else if (key == TIME)  t.flightTime = readInt();
+        else if (key == AGX)   t.agx        = readDecimal();
+        else if (key == AGY)   t.agy        = readDecimal();
+        else if (key == AGZ)   t.agz        = readDecimal();
+        else return false;
+        return true;
+    }
+
+    // liest auch Werte mit Nachkommastellen ('vgx:0.0' bei manchen Firmware-Versionen), die abgeschnitten werden
+    private int readInt() {
+        ByteBuffer buffer   = this.buffer;
+        int        pos      = this.pos;
+        int        limit    = this.limit;
+        boolean    negative = pos < limit && buffer.get(pos) == '-';
+        if (negative) {
+            pos++;
+        }
+        int value = 0;
+        while (pos < limit) {
+            int digit = buffer.get(pos) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            value = value * 10 + digit;
+            pos++;
+        }
+        this.pos = pos;
+        return negative ? -value : value;
+    }
+
+    private double readDecimal() {
+        boolean negative = pos < limit && buffer.get(pos) == '-';
+        if (negative) {
+            pos++;
+        }
+        long    mantissa = 0;
+        int     scale    = 0;
+        boolean fraction = false;
+        while (pos < limit) {
+            byte b = buffer.get(pos);
+            if (b >= '0' && b <= '9') {
+                if (!fraction || scale < POWERS_OF_TEN.length - 1) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (fraction) {
+                        scale++;
+                    }
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+            pos++;
+        }
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private void skipComma() {
+        if (pos < limit && buffer.get(pos) == ',') {
+            pos++;
+        }
+    }
+
+    private void skipPast(char separator) {
+        int p = pos;
+        while (p < limit && buffer.get(p) != separator) {
+            p++;
+        }
+        pos = p + 1;
+    }
+
+    private static long key(String name) {
+        long key = 0;
+        for (int i = 0; i < name.length(); i++) {
+            key = key << 8 | name.charAt(i);
+        }
+        return key;
+    }
+}
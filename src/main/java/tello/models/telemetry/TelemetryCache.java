@@ -0,0 +1,118 @@
+package tello.models.telemetry;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+
+/**
+ * Haelt den zuletzt empfangenen Status der Drohne, damit Werte wie Batterie oder Hoehe ohne Round-Trip zur Drohne
+ * gelesen werden koennen.
+ * <p>
+ * Die Drohne schickt ihren Status 10 mal pro Sekunde. Die Getter liefern den letzten Wert in O(1), solange er nicht
+ * aelter als das angegebene Alter ist. Ist er aelter (oder kam noch gar kein Status), muss der Aufrufer den Wert per
+ * SDK-Kommando ('battery?', 'height?', ...) abfragen.
+ * <p>
+ * Der Status wird lock-frei ueber ein Seqlock veroeffentlicht: Der Empfangs-Thread blockiert nie, Leser erhalten
+ * immer alle Felder aus demselben Paket (z.B. Hoehe, Geschwindigkeit und Lage zusammen). Waehrend des Kopierens
+ * ist die Sequenznummer ungerade; ein Leser, der eine ungerade oder eine veraenderte Sequenznummer sieht, liest
+ * erneut.
+ */
+public class TelemetryCache {
+    private static final VarHandle SEQUENCE;
+
+    static {
+        try {
+            SEQUENCE = MethodHandles.lookup().findVarHandle(TelemetryCache.class, "sequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final TelemetrySnapshot current = new TelemetrySnapshot();
+    private boolean                 hasState;
+
+    // gerade: stabil, ungerade: ein Schreiber kopiert gerade
+    @SuppressWarnings("unused")
+    private volatile long sequence;
+
+    /**
+     * Copies {@code snapshot}, typically filled by a {@link StateParser}, into the cache. Never blocks; concurrent
+     * publishers (normally there is only the receive thread) spin until the other one is done.
+     */
+    public void publish(TelemetrySnapshot snapshot) {
+        long seq = beginWrite();
+        current.copyFrom(snapshot);
+        hasState = true;
+        endWrite(seq);
+    }
+
+    /**
+     * Copies the latest state into {@code target} without allocating and without locking.
+     *
+     * @return false if no state was received yet, the content of {@code target} is undefined then
+     */
+    public boolean read(TelemetrySnapshot target) {
+        while (true) {
+            long before = (long) SEQUENCE.getAcquire(this);
+            if ((before & 1) == 0) {
+                boolean available = hasState;
+                target.copyFrom(current);
+                VarHandle.loadLoadFence();
+                if ((long) SEQUENCE.getOpaque(this) == before) {
+                    return available;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @return a copy of the latest state, null if none was received yet
+     */
+    public TelemetrySnapshot latest() {
+        TelemetrySnapshot copy = new TelemetrySnapshot();
+        return read(copy) ? copy : null;
+    }
+
+    /**
+     * @param maxAge the oldest state that is still acceptable
+     * @return a copy of the latest state, null if none was received yet or it is older than {@code maxAge}
+     */
+    public TelemetrySnapshot latest(Duration maxAge) {
+        TelemetrySnapshot state = latest();
+        if (state == null || System.nanoTime() - state.receivedNanos() > maxAge.toNanos()) {
+            return null;
+        }
+        return state;
+    }
+
+    /**
+     * @return how many states were published so far, e.g. to detect whether a new one arrived
+     */
+    public long version() {
+        return (long) SEQUENCE.getAcquire(this) >>> 1;
+    }
+
+    public void clear() {
+        long seq = beginWrite();
+        current.clear();
+        hasState = false;
+        endWrite(seq);
+    }
+
+    private long beginWrite() {
+        while (true) {
+            long seq = (long) SEQUENCE.getOpaque(this);
+            if ((seq & 1) == 0 && SEQUENCE.compareAndSet(this, seq, seq + 1)) {
+                // die folgenden Feld-Schreibzugriffe duerfen nicht vor die ungerade Sequenznummer verschoben werden
+                VarHandle.storeStoreFence();
+                return seq;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void endWrite(long seq) {
+        SEQUENCE.setRelease(this, seq + 2);
+    }
+}
@@ -0,0 +1,118 @@
+package tello.models.telemetry;
+
+/**
+ * Leitet aus den Rohwerten der Status-Pakete Position, Hoehe, Steigrate und Drehrate ab, mit konstantem Aufwand pro
+ * Paket.
+ * <p>
+ * <ul>
+ *     <li>Position: Koppelnavigation, die Geschwindigkeiten vgx/vgy (dm/s, im Koordinatensystem beim Start) werden
+ *     per Trapezregel aufintegriert. Der Fehler waechst mit der Zeit, fuer kurze Missionen und Follow-Me reicht es.</li>
+ *     <li>Steigrate: Komplementaerfilter aus der aufintegrierten vertikalen Beschleunigung (agz, kurzfristig genau)
+ *     und der Ableitung der gemessenen Hoehe (langfristig driftfrei).</li>
+ *     <li>Hoehe: Komplementaerfilter aus der aufintegrierten Steigrate und der gemessenen Hoehe h.</li>
+ *     <li>Drehrate: Ableitung von yaw ueber den Sprung von 180 auf -180 Grad hinweg, exponentiell geglaettet.</li>
+ * </ul>
+ * Die Werte werden direkt in den {@link TelemetrySnapshot} geschrieben und mit ihm zusammen veroeffentlicht.
+ * Nicht thread-safe, wird nur vom Empfangs-Thread aufgerufen.
+ */
+public class TelemetryEstimator {
+    // 1/1000 g in cm/s²
+    private static final double MILLI_G = 0.981;
+
+    // Pausen zwischen zwei Paketen, die laenger sind, werden nicht integriert (Verbindung war unterbrochen)
+    private static final double MAX_STEP_SECONDS = 1.0;
+
+    private final double altitudeAlpha;
+    private final double verticalSpeedAlpha;
+    private final double headingRateAlpha;
+
+    private boolean initialized;
+    private long    lastNanos;
+    private int     lastHeight;
+    private int     lastYaw;
+    private double  lastVx;
+    private double  lastVy;
+
+    private double positionX;
+    private double positionY;
+    private double altitude;
+    private double verticalSpeed;
+    private double headingRate;
+
+    public TelemetryEstimator() {
+        this(0.9, 0.8, 0.3);
+    }
+
+    /**
+     * @param altitudeAlpha      weight of the integrated vertical speed against the measured height (0-1)
+     * @param verticalSpeedAlpha weight of the integrated acceleration against the height's derivative (0-1)
+     * @param headingRateAlpha   weight of the newest yaw derivative in the exponential smoothing (0-1)
+     */
+    public TelemetryEstimator(double altitudeAlpha, double verticalSpeedAlpha, double headingRateAlpha) {
+        this.altitudeAlpha      = altitudeAlpha;
+        this.verticalSpeedAlpha = verticalSpeedAlpha;
+        this.headingRateAlpha   = headingRateAlpha;
+    }
+
+    /**
+     * Updates the estimate with a new state and writes the derived values into it.
+     */
+    public void update(TelemetrySnapshot state) {
+        double dt = (state.receivedNanos - lastNanos) / 1e9;
+        double vx = state.vgx * 10.0;
+        double vy = state.vgy * 10.0;
+
+        if (!initialized || dt <= 0 || dt > MAX_STEP_SECONDS) {
+            if (!initialized) {
+                altitude    = state.height;
+                initialized = true;
+            }
+            verticalSpeed = 0;
+            headingRate   = 0;
+        } else {
+            positionX += (lastVx + vx) / 2 * dt;
+            positionY += (lastVy + vy) / 2 * dt;
+
+            // agz ist -1000 im Schwebeflug, die z-Achse des Beschleunigungssensors zeigt nach unten
+            double climbAcceleration = (-state.agz - 1000) * MILLI_G;
+            double measuredSpeed     = (state.height - lastHeight) / dt;
+            verticalSpeed = verticalSpeedAlpha * (verticalSpeed + climbAcceleration * dt)
+                            + (1 - verticalSpeedAlpha) * measuredSpeed;
+            altitude      = altitudeAlpha * (altitude + verticalSpeed * dt) + (1 - altitudeAlpha) * state.height;
+
+            int yawStep = Math.floorMod(state.yaw - lastYaw + 180, 360) - 180;
+            headingRate = headingRateAlpha * (yawStep / dt) + (1 - headingRateAlpha) * headingRate;
+        }
+
+        lastNanos  = state.receivedNanos;
+        lastHeight = state.height;
+        lastYaw    = state.yaw;
+        lastVx     = vx;
+        lastVy     = vy;
+
+        state.positionX     = positionX;
+        state.positionY     = positionY;
+        state.altitude      = altitude;
+        state.verticalSpeed = verticalSpeed;
+        state.headingRate   = headingRate;
+    }
+
+    /**
+     * Sets the position back to the origin, e.g. at takeoff. The filters keep their state.
+     */
+    public void resetPosition() {
+        positionX = 0;
+        positionY = 0;
+    }
+
+    /**
+     * Forgets everything, the next state starts a new estimate.
+     */
+    public void reset() {
+        initialized   = false;
+        positionX     = 0;
+        positionY     = 0;
+        verticalSpeed = 0;
+        headingRate   = 0;
+    }
+}
@@ -0,0 +1,45 @@
+package tello.models.telemetry;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Die Felder eines {@link TelemetrySnapshot}, die in der {@link TelemetryHistory} als eigene Spalte gespeichert
+ * werden.
+ */
+public enum TelemetryField {
+    MID(TelemetrySnapshot::mid),
+    X(TelemetrySnapshot::x),
+    Y(TelemetrySnapshot::y),
+    Z(TelemetrySnapshot::z),
+    PITCH(TelemetrySnapshot::pitch),
+    ROLL(TelemetrySnapshot::roll),
+    YAW(TelemetrySnapshot::yaw),
+    VGX(TelemetrySnapshot::vgx),
+    VGY(TelemetrySnapshot::vgy),
+    VGZ(TelemetrySnapshot::vgz),
+    TEMPL(TelemetrySnapshot::templ),
+    TEMPH(TelemetrySnapshot::temph),
+    TOF(TelemetrySnapshot::tof),
+    HEIGHT(TelemetrySnapshot::height),
+    BATTERY(TelemetrySnapshot::battery),
+    BAROMETER(TelemetrySnapshot::barometer),
+    FLIGHT_TIME(TelemetrySnapshot::flightTime),
+    AGX(TelemetrySnapshot::agx),
+    AGY(TelemetrySnapshot::agy),
+    AGZ(TelemetrySnapshot::agz),
+    POSITION_X(TelemetrySnapshot::positionX),
+    POSITION_Y(TelemetrySnapshot::positionY),
+    ALTITUDE(TelemetrySnapshot::altitude),
+    VERTICAL_SPEED(TelemetrySnapshot::verticalSpeed),
+    HEADING_RATE(TelemetrySnapshot::headingRate);
+
+    private final ToDoubleFunction<TelemetrySnapshot> getter;
+
+    TelemetryField(ToDoubleFunction<TelemetrySnapshot> getter) {
+        this.getter = getter;
+    }
+
+    public double of(TelemetrySnapshot snapshot) {
+        return getter.applyAsDouble(snapshot);
+    }
+}
@@ -0,0 +1,221 @@
+package tello.models.telemetry;
+
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Die letzten Minuten Telemetrie einer Drohne, z.B. fuer Plots, Auswertungen nach dem Flug oder Regel-Algorithmen.
+ * <p>
+ * Ein Ringpuffer fester Groesse mit einem primitiven Array pro {@link TelemetryField} (spaltenweise) und einem
+ * Array fuer die Empfangszeit. Der Speicherbedarf steht beim Erzeugen fest: pro Status-Paket 8 Byte Zeit und 4 Byte
+ * pro Feld ({@code float}), bei {@link #DEFAULT_CAPACITY} (30 Minuten mit 10 Hz) rund 2 MB pro Drohne.
+ * <p>
+ * Geschrieben wird nur vom Empfangs-Thread und ohne Allokation. Abfragen duerfen aus beliebigen Threads kommen und
+ * blockieren den Empfangs-Thread nicht: Sie kopieren den gewuenschten Bereich und verwerfen danach alle Eintraege,
+ * die waehrenddessen ueberschrieben worden sein koennten.
+ */
+public class TelemetryHistory {
+    public static final int DEFAULT_CAPACITY = 10 * 60 * 30;
+
+    private static final TelemetryField[] FIELDS = TelemetryField.values();
+
+    /**
+     * Zeitreihe eines Feldes.
+     *
+     * @param timesNanos {@link System#nanoTime()} of each sample, ascending
+     * @param values     the field's value of each sample
+     */
+    public record Series(TelemetryField field, long[] timesNanos, float[] values) {
+
+        public int size() {
+            return timesNanos.length;
+        }
+    }
+
+    /**
+     * Zusammenfassung eines Feldes ueber ein Zeitfenster.
+     *
+     * @param startNanos start of the window, inclusive
+     * @param endNanos   end of the window, exclusive
+     * @param count      number of samples in the window, min, max and mean are NaN if 0
+     */
+    public record Aggregate(TelemetryField field, long startNanos, long endNanos, int count,
+                            double min, double max, double mean) {
+    }
+
+    private final int       capacity;
+    private final long[]    times;
+    private final float[][] columns;
+
+    // Anzahl der bisher geschriebenen Eintraege, Eintrag i liegt im Slot i % capacity
+    private volatile long count;
+
+    public TelemetryHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity number of state packets to keep, e.g. 10 per second
+     */
+    public TelemetryHistory(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2");
+        }
+        this.capacity = capacity;
+        times         = new long[capacity];
+        columns       = new float[FIELDS.length][capacity];
+    }
+
+    /**
+     * Appends a state, overwriting the oldest one if the buffer is full. Must only be called by one thread.
+     */
+    public void record(TelemetrySnapshot snapshot) {
+        long next = count;
+        int  slot = (int) (next % capacity);
+        // Leser muessen 'count' gesehen haben, bevor der aelteste Eintrag ueberschrieben wird
+        VarHandle.storeStoreFence();
+        times[slot] = snapshot.receivedNanos();
+        for (TelemetryField field : FIELDS) {
+            columns[field.ordinal()][slot] = (float) field.of(snapshot);
+        }
+        count = next + 1;
+    }
+
+    /**
+     * @return number of states currently kept
+     */
+    public int size() {
+        return (int) Math.min(count, capacity - 1);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return all samples of {@code field} received in [fromNanos, toNanos)
+     */
+    public Series range(TelemetryField field, long fromNanos, long toNanos) {
+        while (true) {
+            long end   = count;
+            long start = Math.max(0, end - capacity + 1);
+            long first = lowerBound(start, end, fromNanos);
+            long last  = lowerBound(first, end, toNanos);
+
+            int     n      = (int) (last - first);
+            long[]  t      = new long[n];
+            float[] v      = new float[n];
+            float[] column = columns[field.ordinal()];
+            for (int i = 0; i < n; i++) {
+                int slot = (int) ((first + i) % capacity);
+                t[i] = times[slot];
+                v[i] = column[slot];
+            }
+            VarHandle.loadLoadFence();
+            long valid = count - capacity + 1;
+            if (first >= valid) {
+                return new Series(field, t, v);
+            }
+            if (last <= valid) {
+                // der ganze Bereich wurde in der Zwischenzeit ueberschrieben: erneut suchen
+                continue;
+            }
+            int skip = (int) (valid - first);
+            return new Series(field, Arrays.copyOfRange(t, skip, n), Arrays.copyOfRange(v, skip, n));
+        }
+    }
+
+    /**
+     * @return the samples of the last {@code duration}, measured from now
+     */
+    public Series last(TelemetryField field, Duration duration) {
+        long now = System.nanoTime();
+        return range(field, now - duration.toNanos(), Long.MAX_VALUE);
+    }
+
+    /**
+     * @return min, max and mean of {@code field} over [fromNanos, toNanos)
+     */
+    public Aggregate aggregate(TelemetryField field, long fromNanos, long toNanos) {
+        Series series = range(field, fromNanos, toNanos);
+        return aggregate(series, 0, series.size(), fromNanos, toNanos);
+    }
+
+    /**
+     * Splits [fromNanos, toNanos) into consecutive windows and aggregates each one.
+     *
+     * @param window length of each window, the last one may be shorter
+     * @return one aggregate per window, also for windows without samples
+     */
+    public List<Aggregate> aggregate(TelemetryField field, long fromNanos, long toNanos, Duration window) {
+        long windowNanos = window.toNanos();
+        if (windowNanos <= 0) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        Series          series = range(field, fromNanos, toNanos);
+        List<Aggregate> result = new ArrayList<>();
+        int             i      = 0;
+        for (long start = fromNanos; start < toNanos; start += windowNanos) {
+            long end   = Math.min(toNanos, start + windowNanos);
+            int  first = i;
+            while (i < series.size() && series.timesNanos()[i] < end) {
+                i++;
+            }
+            result.add(aggregate(series, first, i, start, end));
+        }
+        return result;
+    }
+
+    /**
+     * Reduces [fromNanos, toNanos) to at most {@code points} samples, e.g. for a plot that is narrower than the
+     * number of samples. Each point is the mean of its window, windows without samples are left out.
+     */
+    public Series downsample(TelemetryField field, long fromNanos, long toNanos, int points) {
+        if (points < 1) {
+            throw new IllegalArgumentException("points must be at least 1");
+        }
+        long            windowNanos = Math.max(1, (toNanos - fromNanos + points - 1) / points);
+        List<Aggregate> windows     = aggregate(field, fromNanos, toNanos, Duration.ofNanos(windowNanos));
+        long[]          t           = new long[windows.size()];
+        float[]         v           = new float[windows.size()];
+        int             n           = 0;
+        for (Aggregate window : windows) {
+            if (window.count() > 0) {
+                t[n] = window.startNanos();
+                v[n] = (float) window.mean();
+                n++;
+            }
+        }
+        return new Series(field, Arrays.copyOf(t, n), Arrays.copyOf(v, n));
+    }
+
+    private static Aggregate aggregate(Series series, int from, int to, long startNanos, long endNanos) {
+        double min = Double.NaN;
+        double max = Double.NaN;
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            double value = series.values()[i];
+            min  = i == from ? value : Math.min(min, value);
+            max  = i == from ? value : Math.max(max, value);
+            sum += value;
+        }
+        int count = to - from;
+        return new Aggregate(series.field(), startNanos, endNanos, count, min, max, count == 0 ? Double.NaN : sum / count);
+    }
+
+    // erster Eintrag in [low, high) mit Zeit >= nanos (die Zeiten sind aufsteigend)
+    private long lowerBound(long low, long high, long nanos) {
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (times[(int) (mid % capacity)] < nanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,270 @@
+package tello.models.telemetry;
+
+import java.time.Duration;
+
+/**
+ * Die Werte eines Status-Pakets der Drohne (SDK 2.0) als primitive Felder.
+ * <p>
+ * Ein Snapshot wird von Paket zu Paket wiederverwendet ({@link StateParser#parse}, {@link #copyFrom}) und ist nicht
+ * thread-safe. Felder, die im Paket fehlen (z.B. 'mid' bei SDK 1.3), sind 0 bzw. -1.
+ * <p>
+ * Neben den Rohwerten enthaelt ein Snapshot die vom {@link TelemetryEstimator} daraus abgeleiteten Werte (Position,
+ * gefilterte Hoehe, Steig- und Drehrate), damit beide zusammen veroeffentlicht werden.
+ */
+public final class TelemetrySnapshot {
+    private static final TelemetrySnapshot EMPTY = new TelemetrySnapshot();
+
+    int    mid = -1;
+    int    x, y, z;
+    int    mpryX, mpryY, mpryZ;
+    int    pitch, roll, yaw;
+    int    vgx, vgy, vgz;
+    int    templ, temph;
+    int    tof;
+    int    height;
+    int    battery;
+    double barometer;
+    int    flightTime;
+    double agx, agy, agz;
+    long   receivedNanos;
+
+    // abgeleitete Werte, siehe TelemetryEstimator
+    double positionX, positionY;
+    double altitude;
+    double verticalSpeed;
+    double headingRate;
+
+    /**
+     * @return id of the detected mission pad, -1 if none (or -2 if mission pad detection is off)
+     */
+    public int mid() {
+        return mid;
+    }
+
+    /**
+     * @return x coordinate relative to the mission pad in cm
+     */
+    public int x() {
+        return x;
+    }
+
+    public int y() {
+        return y;
+    }
+
+    public int z() {
+        return z;
+    }
+
+    /**
+     * @return pitch relative to the mission pad in degree
+     */
+    public int mpryX() {
+        return mpryX;
+    }
+
+    public int mpryY() {
+        return mpryY;
+    }
+
+    public int mpryZ() {
+        return mpryZ;
+    }
+
+    /**
+     * @return attitude in degree
+     */
+    public int pitch() {
+        return pitch;
+    }
+
+    public int roll() {
+        return roll;
+    }
+
+    public int yaw() {
+        return yaw;
+    }
+
+    /**
+     * @return speed along the x axis in dm/s
+     */
+    public int vgx() {
+        return vgx;
+    }
+
+    public int vgy() {
+        return vgy;
+    }
+
+    public int vgz() {
+        return vgz;
+    }
+
+    /**
+     * @return lowest temperature in °C
+     */
+    public int templ() {
+        return templ;
+    }
+
+    /**
+     * @return highest temperature in °C
+     */
+    public int temph() {
+        return temph;
+    }
+
+    /**
+     * @return mean of the lowest and the highest temperature in °C
+     */
+    public int temperature() {
+        return (templ + temph) / 2;
+    }
+
+    /**
+     * @return distance to the ground from the time-of-flight sensor in cm
+     */
+    public int tof() {
+        return tof;
+    }
+
+    /**
+     * @return height in cm
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * @return battery percentage
+     */
+    public int battery() {
+        return battery;
+    }
+
+    /**
+     * @return barometer measurement in cm
+     */
+    public double barometer() {
+        return barometer;
+    }
+
+    /**
+     * @return motor on time in seconds
+     */
+    public int flightTime() {
+        return flightTime;
+    }
+
+    /**
+     * @return acceleration along the x axis in 0.001g
+     */
+    public double agx() {
+        return agx;
+    }
+
+    public double agy() {
+        return agy;
+    }
+
+    public double agz() {
+        return agz;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} when the state packet arrived
+     */
+    public long receivedNanos() {
+        return receivedNanos;
+    }
+
+    /**
+     * @return estimated distance travelled along the x axis since the estimator was reset, in cm
+     */
+    public double positionX() {
+        return positionX;
+    }
+
+    /**
+     * @return estimated distance travelled along the y axis since the estimator was reset, in cm
+     */
+    public double positionY() {
+        return positionY;
+    }
+
+    /**
+     * @return filtered height in cm
+     */
+    public double altitude() {
+        return altitude;
+    }
+
+    /**
+     * @return filtered vertical speed in cm/s, positive when climbing
+     */
+    public double verticalSpeed() {
+        return verticalSpeed;
+    }
+
+    /**
+     * @return filtered rotation speed in degree/s, positive when turning clockwise
+     */
+    public double headingRate() {
+        return headingRate;
+    }
+
+    public Duration age() {
+        return Duration.ofNanos(System.nanoTime() - receivedNanos);
+    }
+
+    public void copyFrom(TelemetrySnapshot other) {
+        mid           = other.mid;
+        x             = other.x;
+        y             = other.y;
+        z             = other.z;
+        mpryX         = other.mpryX;
+        mpryY         = other.mpryY;
+        mpryZ         = other.mpryZ;
+        pitch         = other.pitch;
+        roll          = other.roll;
+        yaw           = other.yaw;
+        vgx           = other.vgx;
+        vgy           = other.vgy;
+        vgz           = other.vgz;
+        templ         = other.templ;
+        temph         = other.temph;
+        tof           = other.tof;
+        height        = other.height;
+        battery       = other.battery;
+        barometer     = other.barometer;
+        flightTime    = other.flightTime;
+        agx           = other.agx;
+        agy           = other.agy;
+        agz           = other.agz;
+        receivedNanos = other.receivedNanos;
+        positionX     = other.positionX;
+        positionY     = other.positionY;
+        altitude      = other.altitude;
+        verticalSpeed = other.verticalSpeed;
+        headingRate   = other.headingRate;
+    }
+
+    public TelemetrySnapshot copy() {
+        TelemetrySnapshot copy = new TelemetrySnapshot();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    void clear() {
+        copyFrom(EMPTY);
+    }
+
+    @Override
+    public String toString() {
+        return "mid:" + mid + ";x:" + x + ";y:" + y + ";z:" + z + ";mpry:" + mpryX + "," + mpryY + "," + mpryZ +
+               ";pitch:" + pitch + ";roll:" + roll + ";yaw:" + yaw + ";vgx:" + vgx + ";vgy:" + vgy + ";vgz:" + vgz +
+               ";templ:" + templ + ";temph:" + temph + ";tof:" + tof + ";h:" + height + ";bat:" + battery +
+               ";baro:" + barometer + ";time:" + flightTime + ";agx:" + agx + ";agy:" + agy + ";agz:" + agz + ";";
+    }
+}
@@ -0,0 +1,46 @@
+package tello.models.telemetry;
+
+import tello.models.util.ObservableDouble;
+
+import java.util.Map;
+
+/**
+ * Ein {@link ObservableDouble} pro {@link TelemetryField}, z.B. um im UI die Hoehe oder die Batterie anzuzeigen.
+ * <p>
+ * {@link #publish} wird vom Empfangs-Thread fuer jedes Status-Paket aufgerufen und alloziert nichts, auch nicht fuer
+ * die Listener. Mit einer Schwelle pro Feld werden die Listener nur bei einer deutlichen Aenderung benachrichtigt.
+ */
+public class TelemetryValues {
+    private static final TelemetryField[] FIELDS = TelemetryField.values();
+
+    private final ObservableDouble[] values = new ObservableDouble[FIELDS.length];
+
+    /**
+     * Notifies the listeners on every change.
+     */
+    public TelemetryValues() {
+        this(Map.of());
+    }
+
+    /**
+     * @param thresholds minimal change per field before its listeners are notified, missing fields notify every change
+     */
+    public TelemetryValues(Map<TelemetryField, Double> thresholds) {
+        for (TelemetryField field : FIELDS) {
+            values[field.ordinal()] = new ObservableDouble(0, thresholds.getOrDefault(field, 0.0));
+        }
+    }
+
+    /**
+     * Called for every state packet, e.g. by the reactor thread.
+     */
+    public void publish(TelemetrySnapshot snapshot) {
+        for (TelemetryField field : FIELDS) {
+            values[field.ordinal()].setValue(field.of(snapshot));
+        }
+    }
+
+    public ObservableDouble get(TelemetryField field) {
+        return values[field.ordinal()];
+    }
+}
@@ -0,0 +1,301 @@
+package tello.models.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Ein {@link Flow.Publisher}, der den Produzenten nie bremst, z.B. fuer Video-Bilder und Status-Pakete.
+ * <p>
+ * Jeder Subscriber bekommt einen eigenen, begrenzten Puffer und wird ueber den {@link Executor} beliefert, nie im
+ * Thread des Produzenten. Ist sein Puffer voll, entscheidet die {@link Overflow}-Policy, welches Element verworfen
+ * wird. So koennen ein langsamer Recorder, ein Detektor und das UI im eigenen Tempo konsumieren, ohne den Decoder oder
+ * sich gegenseitig aufzuhalten.
+ * <p>
+ * Im Unterschied zur {@link java.util.concurrent.SubmissionPublisher} kann auch das aelteste Element verworfen werden.
+ * Die Elemente werden allen Subscribern gemeinsam uebergeben und duerfen deshalb nicht veraendert werden.
+ */
+public class BoundedPublisher<T> implements Flow.Publisher<T>, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    /**
+     * Was mit einem neuen Element passiert, wenn der Puffer eines Subscribers voll ist.
+     */
+    public enum Overflow {
+        /**
+         * das aelteste Element im Puffer verwerfen
+         */
+        DROP_OLDEST,
+        /**
+         * das neue Element verwerfen
+         */
+        DROP_NEWEST,
+        /**
+         * nur das neueste Element behalten, der Puffer hat dann genau einen Platz
+         */
+        LATEST
+    }
+
+    private final Executor executor;
+    private final int      defaultCapacity;
+    private final Overflow defaultOverflow;
+
+    private final List<BufferedSubscription<T>> subscriptions = new CopyOnWriteArrayList<>();
+
+    private volatile boolean   closed;
+    private volatile Throwable closeError;  // vor 'closed' gesetzt
+
+    /**
+     * @param executor        delivers the elements, one task per subscriber at a time
+     * @param defaultCapacity buffer size per subscriber for {@link #subscribe(Flow.Subscriber)}
+     * @param defaultOverflow overflow policy for {@link #subscribe(Flow.Subscriber)}
+     */
+    public BoundedPublisher(Executor executor, int defaultCapacity, Overflow defaultOverflow) {
+        if (defaultCapacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.executor        = executor;
+        this.defaultCapacity = defaultCapacity;
+        this.defaultOverflow = defaultOverflow;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        subscribe(subscriber, defaultCapacity, defaultOverflow);
+    }
+
+    /**
+     * @param capacity buffer size of this subscriber, ignored for {@link Overflow#LATEST}
+     * @param overflow what to drop when this subscriber's buffer is full
+     */
+    public void subscribe(Flow.Subscriber<? super T> subscriber, int capacity, Overflow overflow) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        BufferedSubscription<T> subscription =
+                new BufferedSubscription<>(this, subscriber, overflow == Overflow.LATEST ? 1 : capacity, overflow);
+        if (closed) {
+            subscription.complete(closeError);
+        } else {
+            subscriptions.add(subscription);
+            // ein gleichzeitiges 'close' hat sie vielleicht nicht mehr gesehen: wer sie aus der Liste nimmt, beendet sie
+            if (closed && subscriptions.remove(subscription)) {
+                subscription.complete(closeError);
+            }
+        }
+        subscription.schedule();
+    }
+
+    /**
+     * @return true if anybody is subscribed, e.g. to avoid copying an element nobody will get
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Hands the element to every subscriber's buffer, never blocks.
+     */
+    public void submit(T item) {
+        if (closed) {
+            return;
+        }
+        for (BufferedSubscription<T> subscription : subscriptions) {
+            subscription.offer(item);
+        }
+    }
+
+    /**
+     * @return number of elements dropped because a subscriber's buffer was full, over all current subscribers
+     */
+    public long dropped() {
+        long dropped = 0;
+        for (BufferedSubscription<T> subscription : subscriptions) {
+            dropped += subscription.dropped();
+        }
+        return dropped;
+    }
+
+    /**
+     * Completes every subscriber after it has received its buffered elements.
+     */
+    @Override
+    public void close() {
+        closeExceptionally(null);
+    }
+
+    /**
+     * @param error passed to every subscriber's {@code onError} right away, buffered elements are dropped; null to
+     *              complete every subscriber after it has received its buffered elements
+     */
+    public void closeExceptionally(Throwable error) {
+        closeError = error;
+        closed     = true;
+        for (BufferedSubscription<T> subscription : subscriptions) {
+            if (subscriptions.remove(subscription)) {
+                subscription.complete(error);
+                subscription.schedule();
+            }
+        }
+    }
+
+    /**
+     * Puffer und Nachfrage eines einzelnen Subscribers.
+     * <p>
+     * Es laeuft immer hoechstens ein Auslieferungs-Task pro Subscriber, dadurch werden die Elemente in der richtigen
+     * Reihenfolge und nie gleichzeitig ausgeliefert.
+     */
+    private static final class BufferedSubscription<T> implements Flow.Subscription, Runnable {
+        private final BoundedPublisher<T>        publisher;
+        private final Flow.Subscriber<? super T> subscriber;
+        private final Overflow                   overflow;
+
+        // mit 'this' geschuetzt
+        private final Object[] buffer;
+        private       int      head;
+        private       int      count;
+        private       long     dropped;
+
+        private final AtomicLong    requested = new AtomicLong();
+        private final AtomicInteger pending   = new AtomicInteger();
+
+        private          boolean   subscribed;  // nur im Auslieferungs-Task
+        private volatile boolean   cancelled;
+        private volatile boolean   done;
+        private volatile Throwable error;
+
+        BufferedSubscription(BoundedPublisher<T> publisher, Flow.Subscriber<? super T> subscriber, int capacity,
+                             Overflow overflow) {
+            this.publisher  = publisher;
+            this.subscriber = subscriber;
+            this.overflow   = overflow;
+            this.buffer     = new Object[capacity];
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                complete(new IllegalArgumentException("non-positive request: " + n));  // Reactive Streams Regel 3.9
+                publisher.subscriptions.remove(this);
+            } else {
+                requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            publisher.subscriptions.remove(this);
+            synchronized (this) {
+                Arrays.fill(buffer, null);
+                count = 0;
+            }
+        }
+
+        void offer(T item) {
+            synchronized (this) {
+                if (count == buffer.length) {
+                    dropped++;
+                    if (overflow == Overflow.DROP_NEWEST) {
+                        return;
+                    }
+                    buffer[head] = null;
+                    head = (head + 1) % buffer.length;
+                    count--;
+                }
+                buffer[(head + count) % buffer.length] = item;
+                count++;
+            }
+            schedule();
+        }
+
+        synchronized long dropped() {
+            return dropped;
+        }
+
+        void complete(Throwable failure) {
+            error = failure;
+            done  = true;
+        }
+
+        void schedule() {
+            if (pending.getAndIncrement() == 0) {
+                try {
+                    publisher.executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    LOGGER.severe("can't deliver to subscriber " + e.getMessage());
+                    cancel();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            try {
+                if (!subscribed) {
+                    subscribed = true;
+                    subscriber.onSubscribe(this);
+                }
+                do {
+                    long wanted    = requested.get();
+                    long delivered = 0;
+                    while (delivered != wanted && !cancelled) {
+                        T item = poll();
+                        if (item == null) {
+                            break;
+                        }
+                        subscriber.onNext(item);
+                        delivered++;
+                    }
+                    if (cancelled) {
+                        return;
+                    }
+                    if (done && (isEmpty() || error != null)) {
+                        cancelled = true;
+                        if (error != null) {
+                            subscriber.onError(error);
+                        } else {
+                            subscriber.onComplete();
+                        }
+                        return;
+                    }
+                    if (delivered != 0 && wanted != Long.MAX_VALUE) {
+                        requested.addAndGet(-delivered);
+                    }
+                    missed = pending.addAndGet(-missed);
+                } while (missed != 0);
+            } catch (RuntimeException e) {
+                LOGGER.severe("subscriber failed " + e.getMessage());
+                cancel();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized T poll() {
+            if (count == 0) {
+                return null;
+            }
+            T item = (T) buffer[head];
+            buffer[head] = null;
+            head = (head + 1) % buffer.length;
+            count--;
+            return item;
+        }
+
+        private synchronized boolean isEmpty() {
+            return count == 0;
+        }
+    }
+}
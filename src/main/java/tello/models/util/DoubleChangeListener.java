@@ -0,0 +1,9 @@
+package tello.models.util;
+
+/**
+ * Wie {@link ValueChangeListener}, aber ohne Boxing.
+ */
+@FunctionalInterface
+public interface DoubleChangeListener {
+    void update(double oldValue, double newValue);
+}
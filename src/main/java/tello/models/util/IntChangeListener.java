@@ -0,0 +1,9 @@
+package tello.models.util;
+
+/**
+ * Wie {@link ValueChangeListener}, aber ohne Boxing.
+ */
+@FunctionalInterface
+public interface IntChangeListener {
+    void update(int oldValue, int newValue);
+}
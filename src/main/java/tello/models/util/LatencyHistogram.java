@@ -0,0 +1,120 @@
+package tello.models.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogramm fuer Latenzen mit logarithmisch-linearen Buckets, wie bei HdrHistogram.
+ * <p>
+ * Gezaehlt wird in Mikrosekunden. Jede Zweierpotenz ist in 16 Buckets unterteilt, die relative Abweichung eines
+ * Perzentils ist damit hoechstens 1/16 (ca. 6%). Der Bereich reicht von 1 µs bis ueber einen Tag.
+ * <p>
+ * {@link #record(long)} alloziert nichts und darf aus beliebigen Threads aufgerufen werden.
+ */
+public class LatencyHistogram {
+    private static final int  SUB_BUCKET_BITS = 4;
+    private static final int  SUB_BUCKETS     = 1 << SUB_BUCKET_BITS;
+    private static final int  LINEAR_BUCKETS  = 2 * SUB_BUCKETS;
+    private static final int  MAX_SHIFT       = 33;
+    private static final int  BUCKET_COUNT    = LINEAR_BUCKETS + MAX_SHIFT * SUB_BUCKETS;
+    private static final long MAX_MICROS      = (1L << (MAX_SHIFT + SUB_BUCKET_BITS + 1)) - 1;
+
+    private final AtomicLongArray buckets  = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong      maxNanos = new AtomicLong();
+    private final AtomicLong      timeouts = new AtomicLong();
+    private final AtomicLong      errors   = new AtomicLong();
+
+    /**
+     * Percentiles and counters at one point in time.
+     *
+     * @param count    number of recorded latencies
+     * @param timeouts number of commands without reply
+     * @param errors   number of replies other than "ok" or a value, they are part of {@code count} too
+     */
+    public record Snapshot(long count, long timeouts, long errors, Duration p50, Duration p90, Duration p99, Duration max) {
+
+        @Override
+        public String toString() {
+            return String.format("n=%d p50=%dms p90=%dms p99=%dms max=%dms timeouts=%d errors=%d",
+                                 count, p50.toMillis(), p90.toMillis(), p99.toMillis(), max.toMillis(), timeouts, errors);
+        }
+    }
+
+    public void record(long latencyNanos) {
+        buckets.incrementAndGet(bucketIndex(Math.max(0, latencyNanos) / 1000));
+        maxNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    /**
+     * Records a reply that was an error, e.g. "error Not joystick".
+     */
+    public void recordError(long latencyNanos) {
+        record(latencyNanos);
+        errors.incrementAndGet();
+    }
+
+    public void recordTimeout() {
+        timeouts.incrementAndGet();
+    }
+
+    /**
+     * @return the percentiles, each one rounded up to the upper end of its bucket
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long   total  = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total    += counts[i];
+        }
+        long max = maxNanos.get();
+        return new Snapshot(total, timeouts.get(), errors.get(),
+                            percentile(counts, total, 0.50, max),
+                            percentile(counts, total, 0.90, max),
+                            percentile(counts, total, 0.99, max),
+                            Duration.ofNanos(max));
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        maxNanos.set(0);
+        timeouts.set(0);
+        errors.set(0);
+    }
+
+    static int bucketIndex(long micros) {
+        long value = Math.min(micros, MAX_MICROS);
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    static long bucketUpperMicros(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int shift    = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        int mantissa = (index - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((long) (mantissa + 1) << shift) - 1;
+    }
+
+    private static Duration percentile(long[] counts, long total, double quantile, long maxNanos) {
+        if (total == 0) {
+            return Duration.ZERO;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Duration.ofNanos(Math.min(maxNanos, bucketUpperMicros(i) * 1000 + 999));
+            }
+        }
+        return Duration.ofNanos(maxNanos);
+    }
+}
@@ -0,0 +1,9 @@
+package tello.models.util;
+
+/**
+ * Wie {@link ValueChangeListener}, aber ohne Boxing.
+ */
+@FunctionalInterface
+public interface LongChangeListener {
+    void update(long oldValue, long newValue);
+}
@@ -0,0 +1,75 @@
+package tello.models.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ein {@link ObservableValue} fuer double-Werte, z.B. Hoehe oder Geschwindigkeit, ohne Boxing.
+ * <p>
+ * Mit einer Schwelle (Hysterese) werden die Listener erst benachrichtigt, wenn sich der Wert seit der letzten Meldung
+ * um mindestens die Schwelle veraendert hat, z.B. damit das Rauschen eines Sensors nicht jedes Mal das UI neu
+ * zeichnet. {@link #getValue()} liefert immer den neuesten Wert.
+ */
+public class ObservableDouble extends PrimitiveObservable<DoubleChangeListener> {
+    // die Bits des Werts, wie bei Double.equals ist NaN gleich NaN
+    private final AtomicLong value;
+    private final double     threshold;
+
+    // nur im Thread verwendet, der gerade die Listener aufruft
+    private double delivered;
+
+    public ObservableDouble(double initialValue) {
+        this(initialValue, 0);
+    }
+
+    /**
+     * @param threshold listeners are only notified if the value changed by at least this much since the last
+     *                  notification, 0 to notify every change
+     */
+    public ObservableDouble(double initialValue, double threshold) {
+        if (!(threshold >= 0)) {
+            throw new IllegalArgumentException("threshold must not be negative");
+        }
+        this.value     = new AtomicLong(Double.doubleToLongBits(initialValue));
+        this.threshold = threshold;
+        this.delivered = initialValue;
+    }
+
+    public void setValue(double newValue) {
+        long bits = Double.doubleToLongBits(newValue);
+        if (value.getAndSet(bits) != bits) {
+            dispatch();
+        }
+    }
+
+    public double getValue() {
+        return Double.longBitsToDouble(value.get());
+    }
+
+    @Override
+    void notifyInitial(DoubleChangeListener listener) {
+        listener.update(delivered, delivered);
+    }
+
+    @Override
+    void notifyIfChanged(Object[] listeners) {
+        double current = getValue();
+        if (Double.compare(current, delivered) == 0 || Math.abs(current - delivered) < threshold) {
+            return;
+        }
+        double old = delivered;
+        delivered = current;
+        if (listeners.length == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (Object listener : listeners) {
+            ((DoubleChangeListener) listener).update(old, current);
+        }
+        ObservableValue.dispatchLatency().record(System.nanoTime() - start);
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(getValue());
+    }
+}
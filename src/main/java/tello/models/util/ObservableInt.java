@@ -0,0 +1,72 @@
+package tello.models.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ein {@link ObservableValue} fuer int-Werte, z.B. Batterie oder Hoehe, ohne Boxing.
+ * <p>
+ * Mit einer Schwelle (Hysterese) werden die Listener erst benachrichtigt, wenn sich der Wert seit der letzten Meldung
+ * um mindestens die Schwelle veraendert hat. {@link #getValue()} liefert immer den neuesten Wert.
+ */
+public class ObservableInt extends PrimitiveObservable<IntChangeListener> {
+    private final AtomicInteger value;
+    private final int           threshold;
+
+    // nur im Thread verwendet, der gerade die Listener aufruft
+    private int delivered;
+
+    public ObservableInt(int initialValue) {
+        this(initialValue, 1);
+    }
+
+    /**
+     * @param threshold listeners are only notified if the value changed by at least this much since the last
+     *                  notification, at least 1
+     */
+    public ObservableInt(int initialValue, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("threshold must be at least 1");
+        }
+        this.value     = new AtomicInteger(initialValue);
+        this.threshold = threshold;
+        this.delivered = initialValue;
+    }
+
+    public void setValue(int newValue) {
+        if (value.getAndSet(newValue) != newValue) {
+            dispatch();
+        }
+    }
+
+    public int getValue() {
+        return value.get();
+    }
+
+    @Override
+    void notifyInitial(IntChangeListener listener) {
+        listener.update(delivered, delivered);
+    }
+
+    @Override
+    void notifyIfChanged(Object[] listeners) {
+        int current = value.get();
+        if (Math.abs((long) current - delivered) < threshold) {
+            return;
+        }
+        int old = delivered;
+        delivered = current;
+        if (listeners.length == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (Object listener : listeners) {
+            ((IntChangeListener) listener).update(old, current);
+        }
+        ObservableValue.dispatchLatency().record(System.nanoTime() - start);
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(value.get());
+    }
+}
@@ -0,0 +1,72 @@
+package tello.models.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ein {@link ObservableValue} fuer long-Werte, z.B. Zaehler oder Zeitstempel, ohne Boxing.
+ * <p>
+ * Mit einer Schwelle (Hysterese) werden die Listener erst benachrichtigt, wenn sich der Wert seit der letzten Meldung
+ * um mindestens die Schwelle veraendert hat. {@link #getValue()} liefert immer den neuesten Wert.
+ */
+public class ObservableLong extends PrimitiveObservable<LongChangeListener> {
+    private final AtomicLong value;
+    private final long       threshold;
+
+    // nur im Thread verwendet, der gerade die Listener aufruft
+    private long delivered;
+
+    public ObservableLong(long initialValue) {
+        this(initialValue, 1);
+    }
+
+    /**
+     * @param threshold listeners are only notified if the value changed by at least this much since the last
+     *                  notification, at least 1
+     */
+    public ObservableLong(long initialValue, long threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("threshold must be at least 1");
+        }
+        this.value     = new AtomicLong(initialValue);
+        this.threshold = threshold;
+        this.delivered = initialValue;
+    }
+
+    public void setValue(long newValue) {
+        if (value.getAndSet(newValue) != newValue) {
+            dispatch();
+        }
+    }
+
+    public long getValue() {
+        return value.get();
+    }
+
+    @Override
+    void notifyInitial(LongChangeListener listener) {
+        listener.update(delivered, delivered);
+    }
+
+    @Override
+    void notifyIfChanged(Object[] listeners) {
+        long current = value.get();
+        if (Math.abs(current - delivered) < threshold) {
+            return;
+        }
+        long old = delivered;
+        delivered = current;
+        if (listeners.length == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (Object listener : listeners) {
+            ((LongChangeListener) listener).update(old, current);
+        }
+        ObservableValue.dispatchLatency().record(System.nanoTime() - start);
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(value.get());
+    }
+}
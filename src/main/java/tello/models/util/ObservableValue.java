@@ -1,10 +1,11 @@
 package tello.models.util;
 
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.Set;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Alternative zu JavaFX-Properties.
@@ -13,65 +14,137 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * <p>
  * Oder man entwirft eine leicht zu verwendende API auf Basis von ObservableValue, das z.B. garantiert, dass die Wertänderungen
  * sicher im UI-Thread passieren (via 'Platform.runLater')
+ * <p>
+ * Kommt ohne Lock aus: der Wert liegt in einer {@link AtomicReference}, die Listener in einem Copy-on-Write-Array. Die
+ * Listener werden erst nach dem Veroeffentlichen des neuen Werts aufgerufen, ein langsamer Listener blockiert deshalb
+ * weder {@link #getValue()} noch andere Threads, die {@link #setValue} aufrufen.
+ * <p>
+ * Die Listener werden nie gleichzeitig aufgerufen und sehen die Aenderungen lueckenlos verkettet: der alte Wert einer
+ * Meldung ist immer der neue Wert der vorherigen. Setzen mehrere Threads gleichzeitig Werte, meldet derjenige Thread,
+ * der gerade die Listener aufruft, auch die Aenderungen der anderen; dabei koennen Zwischenwerte zusammengefasst
+ * werden. Dasselbe gilt fuer {@link #onChange} und {@link #removeOnChange}, die waehrenddessen erst danach wirksam werden.
  */
 public class ObservableValue<T> {
-    private final Set<ValueChangeListener<T>> listeners = new HashSet<>();
+    // wie lange die Listener aller ObservableValues fuer eine Wertaenderung brauchen
+    private static final LatencyHistogram DISPATCH = new LatencyHistogram();
 
-    private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
-    private final Lock                   r   = rwl.readLock();
-    private final Lock                   w   = rwl.writeLock();
+    private final AtomicReference<T> value;
 
-    private T value;
+    // Anzahl der Aufrufe, die noch gemeldet werden muessen, nur wer sie von 0 auf 1 erhoeht, ruft die Listener auf
+    private final AtomicInteger   pending         = new AtomicInteger();
+    private final Queue<Runnable> listenerChanges = new ConcurrentLinkedQueue<>();
+
+    // werden nur vom Thread veraendert, der gerade die Listener aufruft
+    private volatile ValueChangeListener<T>[] listeners = newListeners(0);
+    private          T                        delivered;
 
     public ObservableValue(T initialValue) {
-        value = initialValue;
+        value     = new AtomicReference<>(initialValue);
+        delivered = initialValue;
     }
 
+    /**
+     * Adds the listener and calls it once with the current value as old and new value.
+     */
     public void onChange(ValueChangeListener<T> listener) {
-        w.lock();
-        try {
-            listeners.add(listener);
-            listener.update(value, value);
-        } finally {
-            w.unlock();
-        }
+        listenerChanges.add(() -> {
+            ValueChangeListener<T>[] current = listeners;
+            if (indexOf(current, listener) < 0) {
+                ValueChangeListener<T>[] added = Arrays.copyOf(current, current.length + 1);
+                added[current.length] = listener;
+                listeners = added;
+            }
+            listener.update(delivered, delivered);
+        });
+        dispatch();
     }
 
     public void removeOnChange(ValueChangeListener<T> listener) {
-        w.lock();
-        try {
-            listeners.remove(listener);
-        } finally {
-            w.unlock();
-        }
+        listenerChanges.add(() -> {
+            ValueChangeListener<T>[] current = listeners;
+            int                      index   = indexOf(current, listener);
+            if (index >= 0) {
+                ValueChangeListener<T>[] removed = newListeners(current.length - 1);
+                System.arraycopy(current, 0, removed, 0, index);
+                System.arraycopy(current, index + 1, removed, index, current.length - index - 1);
+                listeners = removed;
+            }
+        });
+        dispatch();
     }
 
     public void setValue(T newValue) {
-        w.lock();
-        try {
-            if (Objects.equals(value, newValue)) {
-                return;
-            }
-            T oldValue = value;
-            value = newValue;
-            listeners.forEach(listener -> listener.update(oldValue, newValue));
-        } finally {
-            w.unlock();
+        if (Objects.equals(value.getAndSet(newValue), newValue)) {
+            return;
         }
+        dispatch();
     }
 
     public T getValue() {
-        r.lock();
-        try {
-            return value;
-        } finally {
-            r.unlock();
-        }
+        return value.get();
+    }
+
+    /**
+     * @return time all listeners of any ObservableValue needed per value change, e.g. to find a slow UI listener
+     */
+    public static LatencyHistogram dispatchLatency() {
+        return DISPATCH;
     }
 
     @Override
     public String toString() {
-        return String.valueOf(value);
+        return String.valueOf(value.get());
     }
 
+    private void dispatch() {
+        if (pending.getAndIncrement() != 0) {
+            return;  // ein anderer Thread ruft gerade die Listener auf und meldet auch diese Aenderung
+        }
+        int missed = 1;
+        try {
+            do {
+                Runnable change;
+                while ((change = listenerChanges.poll()) != null) {
+                    change.run();
+                }
+                T current = value.get();
+                if (!Objects.equals(delivered, current)) {
+                    T old = delivered;
+                    delivered = current;
+                    notifyListeners(old, current);
+                }
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        } catch (RuntimeException | Error e) {
+            // die Exception geht wie bisher an den Aufrufer, die naechste Aenderung wird wieder gemeldet
+            pending.set(0);
+            throw e;
+        }
+    }
+
+    private void notifyListeners(T oldValue, T newValue) {
+        ValueChangeListener<T>[] current = listeners;
+        if (current.length == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (ValueChangeListener<T> listener : current) {
+            listener.update(oldValue, newValue);
+        }
+        DISPATCH.record(System.nanoTime() - start);
+    }
+
+    private static <T> int indexOf(ValueChangeListener<T>[] listeners, ValueChangeListener<T> listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].equals(listener)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ValueChangeListener<T>[] newListeners(int length) {
+        return (ValueChangeListener<T>[]) new ValueChangeListener<?>[length];
+    }
 }
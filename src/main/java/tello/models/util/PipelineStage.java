@@ -0,0 +1,204 @@
+package tello.models.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Eine Stufe einer Verarbeitungs-Pipeline mit eigenem Thread, z.B. Gesichtserkennung, Aufnahme oder Anzeige der
+ * Video-Bilder.
+ * <p>
+ * Der vorherige Thread (z.B. der Decoder) uebergibt die Elemente mit {@link #offer}. Das blockiert nie: ist die Stufe
+ * zu langsam, verwirft sie Elemente gemaess ihrer {@link DropPolicy}. Eine langsame Stufe haelt deshalb weder den
+ * Decoder noch die anderen Stufen auf.
+ * <p>
+ * Bei {@link DropPolicy#DROP_NEWEST} liegen die Elemente in einem {@link SpscRing}. Bei {@link DropPolicy#LATEST}
+ * genuegt ein einzelner Platz, den jedes neue Element ueberschreibt, damit die Stufe nach einer Pause sofort beim
+ * neuesten Element weitermacht.
+ */
+public class PipelineStage<T> {
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    // so lange schlaeft die Stufe hoechstens, falls ein unpark verpasst wurde
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * Was passiert, wenn die Stufe nicht nachkommt.
+     */
+    public enum DropPolicy {
+        /**
+         * neue Elemente werden verworfen, solange der Puffer voll ist; fuer Stufen, die keine Luecken im Puffer
+         * vertragen, z.B. die Aufnahme
+         */
+        DROP_NEWEST,
+        /**
+         * nur das neueste Element wird verarbeitet, ein noch wartendes wird ersetzt; z.B. fuer Anzeige und Analyse
+         */
+        LATEST
+    }
+
+    private final String             name;
+    private final SpscRing<T>        ring;
+    private final AtomicReference<T> slot      = new AtomicReference<>();
+    private final Consumer<T>        handler;
+    private final Consumer<T>        onDrop;
+    private final AtomicLong         dropped   = new AtomicLong();
+    private final AtomicLong         processed = new AtomicLong();
+
+    private volatile Thread  thread;
+    private volatile boolean running;
+    private volatile boolean waiting;
+
+    /**
+     * @param capacity how many elements may wait for the stage, ignored for {@link DropPolicy#LATEST}
+     * @param handler  processes the elements in the stage's thread
+     * @param onDrop   called with every dropped element, e.g. to count it; in the producer's or the stage's thread
+     */
+    public PipelineStage(String name, int capacity, DropPolicy policy, Consumer<T> handler, Consumer<T> onDrop) {
+        this.name    = name;
+        this.ring    = policy == DropPolicy.DROP_NEWEST ? new SpscRing<>(capacity) : null;
+        this.handler = handler;
+        this.onDrop  = onDrop;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread  = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the thread after the current element, elements still waiting are dropped.
+     */
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = thread;
+            thread  = null;
+        }
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            // nie gestartet, niemand sonst leert den Puffer
+            dropWaiting();
+        }
+    }
+
+    /**
+     * Only called by the producer thread, never blocks.
+     *
+     * @return false if the element was dropped, with {@link DropPolicy#LATEST} the replaced element is dropped instead
+     */
+    public boolean offer(T item) {
+        if (ring == null) {
+            T replaced = slot.getAndSet(item);
+            if (replaced != null) {
+                drop(replaced);
+            }
+        } else if (!ring.offer(item)) {
+            drop(item);
+            return false;
+        }
+        wakeUp();
+        return true;
+    }
+
+    /**
+     * Like {@link #offer}, but a full buffer keeps the element, e.g. to let the producer wait instead of dropping.
+     * Only called by the producer thread.
+     *
+     * @return false if the buffer is full, the element is neither queued nor dropped
+     */
+    public boolean tryOffer(T item) {
+        if (ring == null) {
+            return offer(item);
+        }
+        if (!ring.offer(item)) {
+            return false;
+        }
+        wakeUp();
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return number of elements waiting for the stage
+     */
+    public int size() {
+        return ring == null ? (slot.get() == null ? 0 : 1) : ring.size();
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public long processed() {
+        return processed.get();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    private void run() {
+        while (running) {
+            T item = poll();
+            if (item == null) {
+                waiting = true;
+                if (size() == 0 && running) {  // nochmals pruefen, der Produzent sieht 'waiting' evtl. noch nicht
+                    LockSupport.parkNanos(this, MAX_PARK_NANOS);
+                }
+                waiting = false;
+                continue;
+            }
+            try {
+                handler.accept(item);
+            } catch (RuntimeException e) {
+                LOGGER.severe(name + " failed " + e.getMessage());
+            }
+            processed.incrementAndGet();
+        }
+        dropWaiting();
+    }
+
+    private void dropWaiting() {
+        T left;
+        while ((left = poll()) != null) {
+            drop(left);
+        }
+    }
+
+    private void wakeUp() {
+        if (waiting) {
+            Thread current = thread;
+            if (current != null) {
+                LockSupport.unpark(current);
+            }
+        }
+    }
+
+    private T poll() {
+        return ring == null ? slot.getAndSet(null) : ring.poll();
+    }
+
+    private void drop(T item) {
+        dropped.incrementAndGet();
+        onDrop.accept(item);
+    }
+}
@@ -0,0 +1,94 @@
+package tello.models.util;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gemeinsame Basis von {@link ObservableInt}, {@link ObservableLong} und {@link ObservableDouble}.
+ * <p>
+ * Die Listener werden wie bei {@link ObservableValue} ohne Lock und nie gleichzeitig aufgerufen. Das Setzen eines
+ * Werts alloziert nichts.
+ *
+ * @param <L> the primitive listener type
+ */
+abstract class PrimitiveObservable<L> {
+    private static final Object[] NO_LISTENERS = new Object[0];
+
+    private final AtomicInteger   pending         = new AtomicInteger();
+    private final Queue<Runnable> listenerChanges = new ConcurrentLinkedQueue<>();
+
+    // wird nur vom Thread veraendert, der gerade die Listener aufruft
+    private volatile Object[] listeners = NO_LISTENERS;
+
+    /**
+     * Adds the listener and calls it once with the last notified value as old and new value.
+     */
+    public void onChange(L listener) {
+        listenerChanges.add(() -> {
+            Object[] current = listeners;
+            if (indexOf(current, listener) < 0) {
+                Object[] added = Arrays.copyOf(current, current.length + 1);
+                added[current.length] = listener;
+                listeners = added;
+            }
+            notifyInitial(listener);
+        });
+        dispatch();
+    }
+
+    public void removeOnChange(L listener) {
+        listenerChanges.add(() -> {
+            Object[] current = listeners;
+            int      index   = indexOf(current, listener);
+            if (index >= 0) {
+                Object[] removed = new Object[current.length - 1];
+                System.arraycopy(current, 0, removed, 0, index);
+                System.arraycopy(current, index + 1, removed, index, current.length - index - 1);
+                listeners = removed;
+            }
+        });
+        dispatch();
+    }
+
+    /**
+     * Calls the listener with the last notified value, only in the dispatching thread.
+     */
+    abstract void notifyInitial(L listener);
+
+    /**
+     * Notifies all listeners if the current value differs enough from the last notified one, only in the dispatching
+     * thread.
+     */
+    abstract void notifyIfChanged(Object[] listeners);
+
+    final void dispatch() {
+        if (pending.getAndIncrement() != 0) {
+            return;  // ein anderer Thread ruft gerade die Listener auf und meldet auch diese Aenderung
+        }
+        int missed = 1;
+        try {
+            do {
+                Runnable change;
+                while ((change = listenerChanges.poll()) != null) {
+                    change.run();
+                }
+                notifyIfChanged(listeners);
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        } catch (RuntimeException | Error e) {
+            pending.set(0);
+            throw e;
+        }
+    }
+
+    private static int indexOf(Object[] listeners, Object listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].equals(listener)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
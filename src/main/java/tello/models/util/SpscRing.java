@@ -0,0 +1,92 @@
+package tello.models.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Begrenzter Ringpuffer fuer genau einen Produzenten- und genau einen Konsumenten-Thread, z.B. zwischen dem
+ * Video-Decoder und einer Verarbeitungs-Stufe.
+ * <p>
+ * Ohne Lock und ohne Allokation: jeder Index wird nur von einer Seite geschrieben und mit Release/Acquire
+ * veroeffentlicht. Jede Seite merkt sich den zuletzt gelesenen Index der anderen Seite und liest ihn erst wieder,
+ * wenn der Puffer danach voll bzw. leer scheint.
+ */
+public final class SpscRing<T> {
+    private final Object[] buffer;
+    private final int      mask;
+
+    private final AtomicLong head = new AtomicLong();  // naechste Lese-Position, nur vom Konsumenten geschrieben
+    private final AtomicLong tail = new AtomicLong();  // naechste Schreib-Position, nur vom Produzenten geschrieben
+
+    private long headCache;  // nur vom Produzenten verwendet
+    private long tailCache;  // nur vom Konsumenten verwendet
+
+    /**
+     * @param capacity rounded up to the next power of two
+     */
+    public SpscRing(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        buffer = new Object[size];
+        mask   = size - 1;
+    }
+
+    /**
+     * Only called by the producer thread.
+     *
+     * @return false if the ring is full
+     */
+    public boolean offer(T item) {
+        long t = tail.getPlain();
+        if (t - headCache == buffer.length) {
+            headCache = head.getAcquire();
+            if (t - headCache == buffer.length) {
+                return false;
+            }
+        }
+        buffer[(int) t & mask] = item;
+        tail.setRelease(t + 1);
+        return true;
+    }
+
+    /**
+     * Only called by the consumer thread.
+     *
+     * @return the oldest item or null if the ring is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long h = head.getPlain();
+        if (h == tailCache) {
+            tailCache = tail.getAcquire();
+            if (h == tailCache) {
+                return null;
+            }
+        }
+        int index = (int) h & mask;
+        T   item  = (T) buffer[index];
+        buffer[index] = null;
+        head.setRelease(h + 1);
+        return item;
+    }
+
+    /**
+     * @return the number of items, only a snapshot if called while the other side is active
+     */
+    public int size() {
+        long h = head.getAcquire();
+        return (int) (tail.getAcquire() - h);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+}
@@ -6,6 +6,8 @@ import javafx.scene.layout.GridPane;
 
 import javafx.scene.text.Text;
 import tello.models.Tello;
+import tello.models.util.ValueChangeListener;
+import tello.views.util.FxValueChangeListener;
 import tello.views.util.ViewMixin;
 
 
@@ -52,7 +54,7 @@ public class TelloUI extends GridPane implements ViewMixin {
         landButton = new Button("Land");
         flyUpButton = new Button("Up");
         emergencyButton = new Button("Panic !");
-        batteryLevel = new Text("Batterylevel: " + tello.getBatteryLevel());
+        batteryLevel = new Text("Batterylevel: -");
         yawLeftButton = new Button("Yaw Left");
         yawRightButton = new Button("Yaw Right");
         flyDownButton = new Button("Down");
@@ -98,4 +100,13 @@ public class TelloUI extends GridPane implements ViewMixin {
 
         emergencyButton.setOnAction(event -> tello.emergency());
     }
+
+    @Override
+    public void setupValueChangedListeners() {
+        // der Wert kommt aus dem Status-Kanal, ohne Round-Trip zur Drohne
+        // geboxt wird erst hier und nur, wenn sich die Batterie aendert
+        ValueChangeListener<Integer> battery = FxValueChangeListener.latest((oldValue, newValue) ->
+                batteryLevel.setText("Batterylevel: " + newValue));
+        tello.batteryLevel.onChange(battery::update);
+    }
 }
@@ -0,0 +1,77 @@
+package tello.views.util;
+
+import javafx.application.Platform;
+import tello.models.util.ValueChangeListener;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Leitet die Aenderungen eines {@link tello.models.util.ObservableValue} in den UI-Thread weiter und fasst sie dabei
+ * zusammen.
+ * <p>
+ * Statt fuer jede Aenderung ein eigenes 'Platform.runLater' einzuplanen, wird nur der neueste Wert gemerkt und
+ * hoechstens eine Auslieferung gleichzeitig eingeplant. Kommt der UI-Thread nicht nach (z.B. waehrend eines Resize
+ * oder einer GC-Pause), stauen sich keine Runnables mehr auf: der Speicher bleibt beschraenkt und angezeigt wird immer
+ * das neueste Video-Bild. Zwischenwerte werden dabei uebersprungen, der alte Wert ist jeweils der zuletzt gemeldete.
+ * <p>
+ * Verwendung: {@code tello.currentFrameValue().onChange(FxValueChangeListener.latest((oldValue, newValue) -> ...))}
+ */
+public final class FxValueChangeListener<T> implements ValueChangeListener<T> {
+    private final ValueChangeListener<T> uiListener;
+    private final Executor               uiThread;
+
+    private final AtomicReference<T> latest    = new AtomicReference<>();
+    private final AtomicBoolean      scheduled = new AtomicBoolean();
+    private final Runnable           deliver   = this::deliver;
+
+    // wird vor der ersten Auslieferung gesetzt und danach nur noch im UI-Thread verwendet
+    private boolean initialized;
+    private T       delivered;
+
+    private FxValueChangeListener(ValueChangeListener<T> uiListener, Executor uiThread) {
+        this.uiListener = uiListener;
+        this.uiThread   = uiThread;
+    }
+
+    /**
+     * @param uiListener called in the JavaFX application thread with the newest value only
+     */
+    public static <T> FxValueChangeListener<T> latest(ValueChangeListener<T> uiListener) {
+        return latest(uiListener, Platform::runLater);
+    }
+
+    /**
+     * Z.B. fuer Tests, die ohne JavaFX-Toolkit laufen.
+     *
+     * @param uiThread runs the deliveries instead of 'Platform.runLater'
+     */
+    static <T> FxValueChangeListener<T> latest(ValueChangeListener<T> uiListener, Executor uiThread) {
+        return new FxValueChangeListener<>(uiListener, uiThread);
+    }
+
+    /**
+     * Called in the model's thread, e.g. for every decoded video frame; never blocks.
+     */
+    @Override
+    public void update(T oldValue, T newValue) {
+        if (!initialized) {
+            initialized = true;
+            delivered   = oldValue;
+        }
+        latest.set(newValue);
+        if (scheduled.compareAndSet(false, true)) {
+            uiThread.execute(deliver);
+        }
+    }
+
+    private void deliver() {
+        // zuerst zuruecksetzen, damit ein Wert, der waehrenddessen kommt, wieder eingeplant wird
+        scheduled.set(false);
+        T newValue = latest.get();
+        T oldValue = delivered;
+        delivered = newValue;
+        uiListener.update(oldValue, newValue);
+    }
+}
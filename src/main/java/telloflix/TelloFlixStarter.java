@@ -5,6 +5,7 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import telloflix.model.TelloFlix;
+import telloflix.model.VideoMode;
 import telloflix.views.TelloFlixUI;
 
 import java.util.logging.Level;
@@ -38,6 +39,7 @@ public class TelloFlixStarter extends Application {
         tello = new TelloFlix();
         tello.connect();
         tello.startStateListener();
+        tello.setVideoMode(VideoMode.LOW_LATENCY);  // zum Steuern zaehlt jede Millisekunde, siehe VideoLatencyMeter
         tello.startVideoListener();
     }
 
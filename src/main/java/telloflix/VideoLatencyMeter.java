@@ -0,0 +1,48 @@
+package telloflix;
+
+import tello.models.net.CommandTransport;
+import telloflix.model.TelloFlix;
+import telloflix.model.VideoLatencyProbe;
+import telloflix.model.VideoMode;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+/**
+ * Vergleicht die Verzoegerung der {@link VideoMode}s mit der echten Drohne.
+ * <p>
+ * Die Drohne muss eingeschaltet und per WLAN verbunden sein, sie startet nicht. Optional wird die Dauer pro Modus in
+ * Sekunden angegeben, z.B. {@code VideoLatencyMeter 30}.
+ */
+public class VideoLatencyMeter {
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        LogManager.getLogManager().getLogger(Logger.GLOBAL_LOGGER_NAME).setLevel(Level.INFO);
+
+        Duration duration = Duration.ofSeconds(args.length > 0 ? Integer.parseInt(args[0]) : 10);
+
+        // die Antworten interessieren hier nicht, 'streamon' wirkt erst im SDK-Mode
+        try (CommandTransport transport = CommandTransport.open(
+                new InetSocketAddress(TelloFlix.REAL_TELLO_IP_ADDRESS, TelloFlix.COMMAND_PORT))) {
+            transport.send("command");
+            Thread.sleep(500);
+
+            List<VideoLatencyProbe.Result> results = new ArrayList<>();
+            for (VideoMode mode : VideoMode.values()) {
+                // jeder Modus beginnt mit einem frischen Stream und wartet damit auf das naechste Keyframe
+                transport.send("streamon");
+                results.add(new VideoLatencyProbe(TelloFlix.VIDEO_PORT, mode).measure(duration));
+                transport.send("streamoff");
+                Thread.sleep(1000);
+            }
+            results.forEach(result -> LOGGER.info(result.toString()));
+        }
+    }
+}
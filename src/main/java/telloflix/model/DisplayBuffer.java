@@ -0,0 +1,124 @@
+package telloflix.model;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import org.bytedeco.javacv.Frame;
+import org.bytedeco.javacv.OpenCVFrameConverter;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.Rect;
+import org.bytedeco.opencv.opencv_core.Scalar;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.bytedeco.opencv.global.opencv_imgproc.COLOR_BGR2BGRA;
+import static org.bytedeco.opencv.global.opencv_imgproc.cvtColor;
+import static org.bytedeco.opencv.global.opencv_imgproc.rectangle;
+
+/**
+ * Uebergibt das angezeigte Bild ohne Allokation von der Anzeige-Stufe an den FX-Thread (Triple-Buffer).
+ * <p>
+ * Die Anzeige-Stufe kopiert jedes Bild als BGRA in den hinteren von drei Puffern, zeichnet dort die Gesichter ein und
+ * tauscht ihn mit dem mittleren. Der FX-Thread tauscht den mittleren mit dem vorderen, wenn dort ein neues Bild liegt,
+ * und schreibt ihn in sein eigenes {@link WritableImage}. Keiner der beiden wartet je auf den anderen, jeder Puffer
+ * gehoert immer genau einer Seite: die Anzeige-Stufe schreibt nie in das Bild, das der FX-Thread gerade liest, und
+ * ein Bild, das der FX-Thread nicht abholt, wird einfach ueberschrieben. Neuer Speicher entsteht nur, wenn sich die
+ * Bildgroesse aendert.
+ */
+public final class DisplayBuffer {
+    private static final Scalar FACE_COLOR = new Scalar(0, 255, 0, 255);
+
+    // Bits 0-1: Index des mittleren Puffers, Bit 2: der mittlere Puffer enthaelt ein noch nicht abgeholtes Bild
+    private static final int INDEX = 3;
+    private static final int FRESH = 4;
+
+    /**
+     * Einer der drei Puffer.
+     */
+    public static final class Slot {
+        private final Mat        pixels = new Mat();
+        private       ByteBuffer bytes;
+        private       int        width;
+        private       int        height;
+
+        private Slot() {
+        }
+
+        private void fill(Mat bgr, List<Rect> faces) {
+            cvtColor(bgr, pixels, COLOR_BGR2BGRA);
+            for (Rect face : faces) {
+                rectangle(pixels, face, FACE_COLOR, 3, 0, 0);
+            }
+            if (bytes == null || width != pixels.cols() || height != pixels.rows()) {
+                // 'cvtColor' hat neuen Speicher angelegt
+                width  = pixels.cols();
+                height = pixels.rows();
+                bytes  = pixels.createBuffer();
+            }
+        }
+    }
+
+    private final Slot[]        slots  = {new Slot(), new Slot(), new Slot()};
+    private final AtomicInteger middle = new AtomicInteger(1);
+
+    // nur in der Anzeige-Stufe verwendet
+    private final OpenCVFrameConverter.ToMat converter = new OpenCVFrameConverter.ToMat();
+    private       int                        back      = 0;
+
+    // nur im FX-Thread verwendet
+    private int           front = 2;
+    private WritableImage image;
+    private boolean       copied;
+
+    /**
+     * Called by the display stage: copies the frame and draws the faces into the copy.
+     *
+     * @return the buffer now holding the newest frame, e.g. to notify the UI
+     */
+    public Slot write(Frame frame, List<Rect> faces) {
+        Slot slot = slots[back];
+        slot.fill(converter.convert(frame), faces);
+        back = middle.getAndSet(back | FRESH) & INDEX;
+        return slot;
+    }
+
+    /**
+     * Called in the JavaFX application thread.
+     *
+     * @return the newest frame in an image that is reused as long as the size doesn't change, null before the first
+     *         frame; only valid until the next call
+     */
+    public Image image() {
+        Slot slot = read();
+        if (slot == null) {
+            return null;
+        }
+        if (image == null || image.getWidth() != slot.width || image.getHeight() != slot.height) {
+            image  = new WritableImage(slot.width, slot.height);
+            copied = false;
+        }
+        if (!copied) {
+            image.getPixelWriter().setPixels(0, 0, slot.width, slot.height, PixelFormat.getByteBgraInstance(),
+                                             slot.bytes, slot.width * 4);
+            copied = true;
+        }
+        return image;
+    }
+
+    // holt das neueste Bild, falls eines da ist, und liefert den vorderen Puffer
+    Slot read() {
+        if ((middle.get() & FRESH) != 0) {
+            front  = middle.getAndSet(front) & INDEX;
+            copied = false;
+        }
+        Slot slot = slots[front];
+        return slot.bytes == null ? null : slot;
+    }
+
+    // die Pixel als BGRA, Zeile fuer Zeile
+    static ByteBuffer bytes(Slot slot) {
+        return slot.bytes;
+    }
+}
@@ -0,0 +1,101 @@
+package telloflix.model;
+
+import org.bytedeco.javacv.Frame;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ein Video-Bild aus dem {@link FramePool} mit Referenzzaehler.
+ * <p>
+ * Jeder, der das Bild weitergibt, ruft vorher {@link #retain()} auf, jeder Empfaenger ruft nach der Verarbeitung
+ * {@link #release()} auf. Gibt der letzte es frei, geht der Puffer zurueck in den Pool und wird fuer ein spaeteres Bild
+ * wiederverwendet. Das Bild darf deshalb nach dem eigenen {@code release()} nicht mehr gelesen und nie veraendert
+ * werden.
+ */
+public final class PooledFrame {
+    private final FramePool     pool;
+    private final AtomicInteger references = new AtomicInteger();
+
+    // wird nur vom Decoder veraendert, solange das Bild nicht in Verwendung ist
+    private Frame frame;
+
+    PooledFrame(FramePool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @return the pixels, valid until this frame's last reference is released
+     */
+    public Frame frame() {
+        return frame;
+    }
+
+    /**
+     * Adds a reference, e.g. before handing the frame to another stage.
+     *
+     * @return this frame
+     */
+    public PooledFrame retain() {
+        if (references.getAndIncrement() <= 0) {
+            throw new IllegalStateException("frame was already released");
+        }
+        return this;
+    }
+
+    /**
+     * Removes a reference, the last one returns the buffer to the pool.
+     */
+    public void release() {
+        int left = references.decrementAndGet();
+        if (left == 0) {
+            pool.recycle(this);
+        } else if (left < 0) {
+            references.incrementAndGet();
+            throw new IllegalStateException("frame released too often");
+        }
+    }
+
+    /**
+     * @return number of references, 0 if the buffer is in the pool
+     */
+    public int references() {
+        return references.get();
+    }
+
+    /**
+     * Copies the pixels of a decoded frame into this buffer and takes the first reference.
+     */
+    void copyFrom(Frame source) {
+        if (frame == null || frame.imageWidth != source.imageWidth || frame.imageHeight != source.imageHeight
+            || frame.imageDepth != source.imageDepth || frame.imageChannels != source.imageChannels
+            || frame.imageStride != source.imageStride) {
+            // erstes Bild oder die Aufloesung hat geaendert
+            close();
+            frame = new Frame(source.imageWidth, source.imageHeight, source.imageDepth, source.imageChannels,
+                              source.imageStride);
+        }
+        if (!(source.image[0] instanceof ByteBuffer pixels)) {
+            throw new IllegalArgumentException("unsupported image buffer " + source.image[0].getClass());
+        }
+        ByteBuffer target = (ByteBuffer) frame.image[0];
+        int        length = Math.min(Math.min(pixels.capacity(), target.capacity()),
+                                     source.imageStride * source.imageHeight * Math.abs(Frame.pixelSize(source.imageDepth)));
+        target.put(0, pixels, 0, length);
+
+        frame.timestamp = source.timestamp;
+        frame.keyFrame  = source.keyFrame;
+        frame.pictType  = source.pictType;
+        references.set(1);
+    }
+
+    /**
+     * Frees the native memory.
+     */
+    void close() {
+        if (frame != null) {
+            frame.close();
+            frame = null;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package telloflix.model;
+
+import tello.models.net.CommandTransport;
+import tello.models.net.IoReactor;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Verschickt die vier 'rc'-Kanaele mit einer festen Rate an die Drohne.
+ * <p>
+ * Das UI schreibt die Kanalwerte beliebig oft (der neueste Wert gewinnt), die Werte liegen gepackt in einem einzigen
+ * {@link AtomicLong}. Pro Tick wird genau ein 'rc'-Paket verschickt, unabhaengig davon wie schnell ein Slider bewegt
+ * wird. Damit bleibt sowohl die Paketrate als auch die Latenz konstant.
+ * <p>
+ * Stehen alle Kanaele wieder auf 0, wird das neutrale Paket noch einige Ticks wiederholt (falls eines verloren geht)
+ * und der Loop pausiert, damit er z.B. ein laufendes 'forward 50' nicht stoert.
+ * <p>
+ * Die Ticks laufen als Timer im {@link IoReactor}, es wird also kein eigener Thread benoetigt.
+ */
+public class RcControlLoop {
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    public static final int DEFAULT_RATE_HZ = 25;
+
+    // so oft wird das neutrale 'rc 0 0 0 0' nach dem Loslassen noch wiederholt
+    private static final int NEUTRAL_REPEAT = 5;
+
+    // je 16 Bit pro Kanal: left/right | forward/backward | up/down | yaw
+    private static final int  LEFT_RIGHT   = 48;
+    private static final int  FORWARD_BACK = 32;
+    private static final int  UP_DOWN      = 16;
+    private static final int  YAW          = 0;
+    private static final long LANE_MASK    = 0xFFFFL;
+    private static final long NEUTRAL      = 0L;
+
+    private final IoReactor        reactor;
+    private final CommandTransport transport;
+    private final AtomicLong       channels = new AtomicLong(NEUTRAL);
+
+    private IoReactor.ScheduledTask ticker;
+
+    // werden nur im Reactor-Thread veraendert
+    private          int  neutralTicksLeft;
+    private volatile long packetsSent;
+
+    public RcControlLoop(IoReactor reactor, CommandTransport transport) {
+        this.reactor   = reactor;
+        this.transport = transport;
+    }
+
+    /**
+     * Starts (or restarts) the loop.
+     *
+     * @param rateHz rc packets per second while a channel is deflected, e.g. 20-50
+     */
+    public synchronized void start(int rateHz) {
+        if (rateHz < 1 || rateHz > 1000) {
+            throw new IllegalArgumentException("rate must be between 1 and 1000 Hz");
+        }
+        if (ticker != null) {
+            ticker.cancel();
+        }
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / rateHz;
+        ticker = reactor.scheduleAtFixedRate(this::tick, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops the loop. The channels are reset to 0 and 'rc 0 0 0 0' is sent once.
+     */
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.cancel();
+            ticker = null;
+        }
+        channels.set(NEUTRAL);
+        try {
+            transport.sendRc(0, 0, 0, 0);
+        } catch (IOException e) {
+            LOGGER.severe("can't send rc command");
+        }
+    }
+
+    /**
+     * @param value a: left/right (-100~100)
+     */
+    public void setLeftRight(int value) {
+        setLane(LEFT_RIGHT, value);
+    }
+
+    /**
+     * @param value b: forward/backward (-100~100)
+     */
+    public void setForwardBack(int value) {
+        setLane(FORWARD_BACK, value);
+    }
+
+    /**
+     * @param value c: up/down (-100~100)
+     */
+    public void setUpDown(int value) {
+        setLane(UP_DOWN, value);
+    }
+
+    /**
+     * @param value d: yaw (-100~100)
+     */
+    public void setYaw(int value) {
+        setLane(YAW, value);
+    }
+
+    /**
+     * Sets all four channels at once.
+     */
+    public void set(int leftRight, int forwardBack, int upDown, int yaw) {
+        channels.set(pack(leftRight, LEFT_RIGHT) | pack(forwardBack, FORWARD_BACK) | pack(upDown, UP_DOWN) | pack(yaw, YAW));
+    }
+
+    /**
+     * @return number of rc packets sent by the loop so far
+     */
+    public long packetsSent() {
+        return packetsSent;
+    }
+
+    private void setLane(int shift, int value) {
+        long lane = pack(value, shift);
+        long clear = ~(LANE_MASK << shift);
+        long current;
+        do {
+            current = channels.get();
+        } while (!channels.compareAndSet(current, (current & clear) | lane));
+    }
+
+    private void tick() {
+        long word = channels.get();
+        if (word != NEUTRAL) {
+            neutralTicksLeft = NEUTRAL_REPEAT;
+        } else if (neutralTicksLeft > 0) {
+            neutralTicksLeft--;
+        } else {
+            return;
+        }
+        send(word);
+    }
+
+    private void send(long word) {
+        try {
+            transport.sendRc(unpack(word, LEFT_RIGHT), unpack(word, FORWARD_BACK), unpack(word, UP_DOWN), unpack(word, YAW));
+            packetsSent++;
+        } catch (IOException e) {
+            LOGGER.severe("can't send rc command");
+        }
+    }
+
+    private static long pack(int value, int shift) {
+        int clamped = Math.min(100, Math.max(-100, value));
+        return ((long) clamped & LANE_MASK) << shift;
+    }
+
+    private static int unpack(long word, int shift) {
+        return (short) (word >>> shift);
+    }
+}
@@ -1,26 +1,35 @@
 package telloflix.model;
 
-import org.bytedeco.ffmpeg.global.avcodec;
 import org.bytedeco.javacv.*;
 import org.bytedeco.opencv.opencv_core.Mat;
 import org.bytedeco.opencv.opencv_core.Rect;
+import tello.models.DroneLink;
+import tello.models.metrics.DroneMetrics;
+import tello.models.net.CommandLatencies;
+import tello.models.net.IoReactor;
+import tello.models.net.LinkLossAction;
+import tello.models.net.LinkMonitor;
+import tello.models.net.LinkWatchdog;
+import tello.models.net.Response;
+import tello.models.telemetry.TelemetryCache;
+import tello.models.telemetry.TelemetryHistory;
+import tello.models.telemetry.TelemetrySnapshot;
+import tello.models.telemetry.TelemetryValues;
+import tello.models.util.BoundedPublisher;
+import tello.models.util.ObservableInt;
 import tello.models.util.ObservableValue;
+import tello.models.util.PipelineStage;
 
-import java.io.IOException;
-import java.net.*;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 import static tello.DeepLearningFaceDetection.detect;
-import static tello.DeepLearningFaceDetection.draw;
 
 
 /**
@@ -45,7 +54,7 @@ public class TelloFlix {
 
     // ueber diesen Port werden die Kommandos verschickt
     //todo: überprüfen, ob das in TelloCamp auch so gesetzt ist
-    private static final int COMMAND_PORT = 8889;
+    public static final int  COMMAND_PORT = 8889;
 
     // wird für den Video-Kanal benötigt
     private static final String LOCAL_IP_ADDRESS = "0.0.0.0";
@@ -58,31 +67,83 @@ public class TelloFlix {
     public static final int VIDEO_WIDTH  = 1280;
     public static final int VIDEO_HEIGHT = 960;
 
-    public InetAddress    telloAddress = null;
-    private DatagramSocket commandSocket;
+    // Takt der Video-Bilder (30 fps), das Dekodieren schwankt staerker, deshalb mehr Toleranz
+    private static final Duration VIDEO_INTERVAL       = Duration.ofMillis(33);
+    private static final int      VIDEO_DEGRADED_AFTER = 6;
+    private static final int      VIDEO_STALLED_AFTER  = 30;
 
-    private DatagramSocket statusSocket;
+    // nur auf jedem 15. Bild werden Gesichter gesucht
+    private static final int ANALYSIS_INTERVAL = 15;
 
-    private boolean connected = false;
+    // so viele Bilder darf der Encoder zurueckliegen, Anzeige und Analyse nehmen immer das neueste
+    private static final int RECORD_QUEUE = 8;
 
-    private final ObservableValue<Frame> currentFrame = new ObservableValue<>(null);
+    // Aufnahme, Anzeige, Analyse und ihre Warteschlangen, dazu Reserve
+    private static final int FRAME_POOL_SIZE = 16;
+
+    // Kommando- und Status-Kanal, Telemetrie, Flugschreiber, Watchdog und Metriken
+    private final DroneLink   link;
+    private final LinkMonitor videoLink;
+
+    // die Anzeige-Stufe schreibt in 'displayBuffer', 'currentFrame' meldet dem UI jedes neue Bild
+    private final DisplayBuffer                       displayBuffer = new DisplayBuffer();
+    private final ObservableValue<DisplayBuffer.Slot> currentFrame  = new ObservableValue<>(null);
 
     private FFmpegFrameGrabber grabber;
-    private FFmpegFrameRecorder recorder;
-    public boolean videoStreamOn = false;
+    private volatile VideoMode videoMode = VideoMode.STANDARD;
+
+    // die Stufen der Video-Pipeline, der Decoder-Thread 'tello-video' verteilt die Bilder an sie
+    private PipelineStage<PooledFrame> displayStage;
+    private PipelineStage<PooledFrame> analysisStage;
+
+    // die Aufnahme laeuft mit der Pipeline, Bilder bekommt sie nur zwischen 'startRecorder' und 'stopRecorder'
+    private final VideoRecorder videoRecorder = new VideoRecorder(RECORD_QUEUE, VideoRecorder.Overflow.DROP, this::drop);
+
+    // die Bilder der Pipeline, das UI bekommt nie eines davon
+    private final FramePool framePool = new FramePool(FRAME_POOL_SIZE);
+
+    // die Analyse-Stufe ersetzt die Liste, die Anzeige-Stufe zeichnet sie in jedes Bild bis zur naechsten Analyse
+    private volatile List<Rect> detectedFaces = List.of();
 
-    private ExecutorService executor = Executors.newSingleThreadExecutor();
+    // wird nur von der Analyse-Stufe verwendet
+    private boolean hasDetectedOnce = false;
 
 
+    // wird im Reactor-Thread veraendert, das UI muss selbst in den FX-Thread wechseln
+    public final ObservableInt batteryLevel;
 
-    public ObservableValue<String> batteryLevel = new ObservableValue<>("bat: 0%");
-    private int fwd_bk;
-    private int left_right;
+    // die Bilder werden allen Subscribern gemeinsam uebergeben und duerfen nicht veraendert werden, nur die Kopien
+    // fuer den Publisher liegen nicht im Pool; einer pro Verbindung wie der Publisher fuer den Status
+    private volatile BoundedPublisher<Frame> framePublisher;
 
-    private int up_down;
+    private RcControlLoop rcLoop;
+    private int           rcRateHz = RcControlLoop.DEFAULT_RATE_HZ;
 
-    private int yaw;
+    public TelloFlix() {
+        this(null, REAL_TELLO_IP_ADDRESS, COMMAND_PORT, STATE_PORT);
+    }
+
+    /**
+     * Mehrere Drohnen koennen sich denselben Reactor (und damit denselben I/O-Thread) teilen.
+     *
+     * @param reactor the reactor serving this drone's sockets, it is not closed on 'disconnect'
+     */
+    public TelloFlix(IoReactor reactor) {
+        this(reactor, REAL_TELLO_IP_ADDRESS, COMMAND_PORT, STATE_PORT);
+    }
 
+    /**
+     * @param reactor     the reactor serving this drone's sockets or null to let the drone create its own
+     * @param ipAddress   the drone's IP address
+     * @param commandPort the drone's command port
+     * @param statePort   the local port the drone sends its state to
+     */
+    public TelloFlix(IoReactor reactor, String ipAddress, int commandPort, int statePort) {
+        link           = new DroneLink(reactor, ipAddress, commandPort, statePort);
+        batteryLevel   = link.batteryLevel();
+        videoLink      = link.monitorVideo(VIDEO_INTERVAL, VIDEO_DEGRADED_AFTER, VIDEO_STALLED_AFTER);
+        framePublisher = newFramePublisher();
+    }
 
     /**
      * Verbindung zur Drohne (oder TelloCamp) aufbauen
@@ -90,53 +151,46 @@ public class TelloFlix {
      * @return true, falls der Verbindungsaufbau geklappt hat
      */
     public boolean connect() {
-        try {
-            telloAddress = InetAddress.getByName(REAL_TELLO_IP_ADDRESS);
-
-            commandSocket = new DatagramSocket();
-            commandSocket.connect(telloAddress, COMMAND_PORT);
-
-            boolean response = sendCommandAndWait("command");
-            connected = response;
-
-            return response;
-        } catch (UnknownHostException e) {
-            LOGGER.severe("unknown Host");
-            return false;
-        } catch (SocketException e) {
-            LOGGER.severe("cannot connect");
-            return false;
+        boolean response = link.connect();
+        if (response) {
+            rcLoop = new RcControlLoop(link.reactor(), link.commandTransport());
+            rcLoop.start(rcRateHz);
         }
+        return response;
     }
 
     /**
      * Alle Verbindungen zur Drohne trennen und alle laufenden Threads beenden
      */
     public void disconnect() {
-        connected = false; //this will terminate the "listenToStatus-Thread"
-        if (commandSocket != null) {
-            commandSocket.close();
-        }
-        if (statusSocket != null) {
-            statusSocket.close();
+        if (rcLoop != null) {
+            rcLoop.stop();
         }
+        link.disconnect();  // beendet auch den "listenToVideo-Thread"
+        // die Subscriber bekommen noch, was in ihrem Puffer liegt, danach onComplete
+        BoundedPublisher<Frame> completed = framePublisher;
+        framePublisher = newFramePublisher();
+        completed.close();
+    }
+
+    private BoundedPublisher<Frame> newFramePublisher() {
+        return new BoundedPublisher<>(link.flowExecutor(), 4, BoundedPublisher.Overflow.DROP_OLDEST);
+    }
+
+    /**
+     * Darf erst nach einem 'connect' aufgerufen werden
+     *
+     * @return latency histograms per command of the current connection, e.g. {@code commandLatencies().snapshot()}
+     */
+    public CommandLatencies commandLatencies() {
+        return link.commandLatencies();
     }
 
     /**
      * Darf erst nach einem 'connect' aufgerufen werden
      */
     public void startStateListener(){
-        try {
-            statusSocket = new DatagramSocket(STATE_PORT);
-
-            // der Status soll kontinuierlich empfangen und weiterverarbeitet werden.
-            // am einfachsten erreicht man das mit einem separaten Thread
-            Thread statusThread = new Thread(this::listenToState);
-            statusThread.setDaemon(true);
-            statusThread.start();
-        } catch (SocketException e) {
-            LOGGER.severe("cannot connect to status port");
-        }
+        link.startStateListener();
     }
 
     /**
@@ -145,63 +199,62 @@ public class TelloFlix {
     public void startVideoListener() {
         sendCommandAndWait("streamon");
 
-        new Thread(() -> {
+        // das Dekodieren blockiert in FFmpeg und laeuft deshalb als einziger Teil in einem eigenen Thread
+        Thread videoThread = new Thread(() -> {
             String videoAddress = "udp://" + LOCAL_IP_ADDRESS + ":" + VIDEO_PORT;
-            grabber = new FFmpegFrameGrabber(videoAddress);
-            grabber.setImageMode(FrameGrabber.ImageMode.COLOR);
-            grabber.setFormat("h264");
-            grabber.setVideoCodec(avcodec.AV_CODEC_ID_H264);
-            grabber.setImageWidth(VIDEO_WIDTH);
-            grabber.setImageHeight(VIDEO_HEIGHT);
-
-            //recorder = new FFmpegFrameRecorder("recorded_" + timeNow +".mp4", grabber.getImageWidth(), grabber.getImageHeight(), 0);
-            //recorder.setFormat("mp4");
-            //recorder.setVideoCodec(avcodec.AV_CODEC_ID_H264);
+            grabber = videoMode.grabber(videoAddress, VIDEO_WIDTH, VIDEO_HEIGHT);
 
             try {
                 grabber.start();
-                recorder.start();
             } catch (Exception e) {
                 LOGGER.severe("can't start FrameGrabber " + e.getMessage());
             }
 
-            Thread videoThread = new Thread(this::listenToVideo);
-            videoThread.setDaemon(true);
-            videoThread.start();
-        }).start();
+            videoLink.start();
+            listenToVideo();
+        }, "tello-video");
+        videoThread.setDaemon(true);
+        videoThread.start();
 
     }
 
     /**
      * Stop motors immediately.
+     *
+     * @return completes with Tello's reply, the futures of all waiting and running moves are cancelled
      */
-    public void emergency() {
-        sendFireAndForgetCommand("emergency");
+    public CompletableFuture<Response> emergency() {
+        // durch die Queue: wartende und laufende Bewegungen werden abgebrochen statt danach noch verschickt
+        return sendCommandAsync("emergency");
     }
 
     /**
-     * Auto takeoff.
+     * Auto takeoff. The position estimate starts again at the origin.
      *
+     * @return completes with Tello's reply
      */
-    public void takeOff() {
-        sendCommandAsync("takeoff");
+    public CompletableFuture<Response> takeOff() {
+        link.resetPosition();
+        return sendCommandAsync("takeoff");
     }
 
     /**
      * Auto landing.
      *
+     * @return completes with Tello's reply
      */
-    public void land() {
-        sendCommandAsync("land");
+    public CompletableFuture<Response> land() {
+        return sendCommandAsync("land");
     }
 
     /**
      * Fly up.
      *
      * @param z distance in cm
+     * @return completes with Tello's reply
      */
-    public void up(int z) {
-        sendCommandAsync("up " + z);
+    public CompletableFuture<Response> up(int z) {
+        return sendCommandAsync("up " + z);
     }
 
 
@@ -210,22 +263,131 @@ public class TelloFlix {
      * Set speed to “x” cm/s. x = 10-100
      *
      * @param speed
+     * @return completes with Tello's reply
      */
-    public void setSpeed(int speed) {
-         sendFireAndForgetCommand("speed " + assureRange(speed, 10, 100));
+    public CompletableFuture<Response> setSpeed(int speed) {
+        // die Drohne beantwortet 'speed', deshalb durch die Queue wie jedes andere Kommando
+        return sendCommandAsync("speed " + assureRange(speed, 10, 100));
     }
 
     /**
-     * Obtain current battery percentage.
+     * Obtain current battery percentage. Taken from the state if it is recent, otherwise 'battery?' is sent.
      *
      * @return battery level 0-100
      */
     public int getBatteryLevel(){
-        try {
-            return Integer.parseInt(sendReadCommand("battery?"));
-        } catch (NumberFormatException e) {
-            return 0;
-        }
+        return link.getBatteryLevel();
+    }
+
+    /**
+     * Obtain current height. Taken from the state if it is recent, otherwise 'height?' is sent.
+     *
+     * @return height in cm
+     */
+    public int getHeight() {
+        return link.getHeight();
+    }
+
+    /**
+     * Obtain current flight time. Taken from the state if it is recent, otherwise 'time?' is sent.
+     *
+     * @return motor on time in seconds
+     */
+    public int getFlightTime() {
+        return link.getFlightTime();
+    }
+
+    /**
+     * Obtain distance to the ground. Taken from the state if it is recent, otherwise 'tof?' is sent.
+     *
+     * @return distance measured by the time-of-flight sensor in cm
+     */
+    public int getTof() {
+        return link.getTof();
+    }
+
+    /**
+     * Zeichnet ab jetzt alle Kommandos, Antworten und Status-Pakete in einer Datei auf, die mit
+     * {@link tello.models.recorder.FlightLog} gelesen und abgespielt werden kann.
+     *
+     * @return true if the flight log could be created
+     */
+    public boolean startRecording(Path file) {
+        return link.startRecording(file);
+    }
+
+    public void stopRecording() {
+        link.stopRecording();
+    }
+
+    /**
+     * @return the latest state received on the state port, e.g. for values without getter
+     */
+    public TelemetryCache telemetry() {
+        return link.telemetry();
+    }
+
+    /**
+     * @return one observable per telemetry field, updated with every state packet without allocation
+     */
+    public TelemetryValues telemetryValues() {
+        return link.telemetryValues();
+    }
+
+    /**
+     * Every subscriber gets a copy of each state packet through its own bounded buffer, in its own thread.
+     * {@code telemetryPublisher().subscribe(subscriber, capacity, overflow)} chooses another buffer size or policy.
+     *
+     * @return the states as they arrive, completed by {@link #disconnect()}; subscribe again after that for the states
+     *         of the next connection
+     */
+    public BoundedPublisher<TelemetrySnapshot> telemetryPublisher() {
+        return link.telemetryPublisher();
+    }
+
+    /**
+     * @return the states of the last 30 minutes, e.g. for plots or post-flight analysis
+     */
+    public TelemetryHistory history() {
+        return link.history();
+    }
+
+    /**
+     * Makes the current position the origin of the estimated position, e.g. before a mission. {@link #takeOff()}
+     * does this, too.
+     */
+    public void resetPosition() {
+        link.resetPosition();
+    }
+
+    /**
+     * @param maxAge getters send a read command instead if the latest state is older than this
+     */
+    public void setMaxTelemetryAge(Duration maxAge) {
+        link.setMaxTelemetryAge(maxAge);
+    }
+
+    /**
+     * Darf erst nach einem 'connect' aufgerufen werden
+     *
+     * @return the counters that are also published over JMX
+     */
+    public DroneMetrics metrics() {
+        return link.metrics();
+    }
+
+    /**
+     * @return watches the state and the video stream, e.g. {@code linkWatchdog().addListener(...)} to show a warning
+     */
+    public LinkWatchdog linkWatchdog() {
+        return link.linkWatchdog();
+    }
+
+    /**
+     * @param action what to do when the state or the video stream stalls, default is {@link LinkLossAction#NONE}
+     */
+    public void setLinkLossAction(LinkLossAction action) {
+        link.setLinkLossAction(action);
     }
 
     /**
@@ -241,29 +403,29 @@ public class TelloFlix {
         }
     }
 
-    public void down(int z) {
-        sendCommandAsync("down " + z);
+    public CompletableFuture<Response> down(int z) {
+        return sendCommandAsync("down " + z);
     }
-    public void ccw(int z) {
-        sendCommandAsync("ccw " + z);
+    public CompletableFuture<Response> ccw(int z) {
+        return sendCommandAsync("ccw " + z);
     }
-    public void cw(int z) {
-        sendCommandAsync("cw " + z);
+    public CompletableFuture<Response> cw(int z) {
+        return sendCommandAsync("cw " + z);
     }
-    public void left(int z) {
-        sendCommandAsync("left " + z);
+    public CompletableFuture<Response> left(int z) {
+        return sendCommandAsync("left " + z);
     }
-    public void right(int z) {
-        sendCommandAsync("right " + z);
+    public CompletableFuture<Response> right(int z) {
+        return sendCommandAsync("right " + z);
     }
-    public void forward(int z) {
-        sendCommandAsync("forward " + z);
+    public CompletableFuture<Response> forward(int z) {
+        return sendCommandAsync("forward " + z);
     }
-    public void back(int z) {
-        sendCommandAsync("back " + z);
+    public CompletableFuture<Response> back(int z) {
+        return sendCommandAsync("back " + z);
     }
-    public void flip(String direction) {
-        sendCommandAsync("flip " + direction);
+    public CompletableFuture<Response> flip(String direction) {
+        return sendCommandAsync("flip " + direction);
     }
 
 
@@ -308,235 +470,255 @@ public class TelloFlix {
      * @return true if command was successful otherwise false
      */
     private boolean sendCommandAndWait(final String command) {
-        sendFireAndForgetCommand(command);
-
-        final String response = getResponse().trim();
-
-        return "ok".equals(response);
+        return link.sendAndWait(command);
     }
 
-    private void sendCommandAsync(final String command) {
-        executor.execute(() -> sendCommandAndWait(command));
+    /**
+     * Queue a control command without blocking the caller. The command is sent as soon as the previous one
+     * has been answered by Tello.
+     *
+     * @param command this command will be sent to Tello
+     * @return completes with Tello's reply, or exceptionally if there was none
+     */
+    private CompletableFuture<Response> sendCommandAsync(final String command) {
+        return link.send(command);
     }
 
     /**
-     * Send command to Tello without expecting a response.
-     * Use this method when you want to send a command continuously
-     * <p>
-     * - rc a b c d: Send RC control via four channels.
-     *   a: left/right (-100~100)
-     *   b: forward/backward (-100~100)
-     *   c: up/down (-100~100)
-     *   d: yaw (-100~100)
+     * Der Decoder: holt die Bilder so schnell wie sie ankommen und verteilt sie an die Stufen der Pipeline.
      * <p>
-     * - streamon:       Set video stream on
-     * - streamoff:      Set video stream off
-     * - emergency:      Stop all motors immediately
-     * - stop:           Hovers in the air. Works at any time.
-     * - speed x:        Set speed to x cm/s. x: 10-100
-     * - wifi ssid pass: Set Wi-Fi with SSID password
-     *
-     * @param command  this command will be sent to Tello
+     * Das Verteilen blockiert nie, eine langsame Stufe (z.B. die Gesichtserkennung) verliert Bilder, statt den
+     * Decoder aufzuhalten. Sonst laeuft der UDP-Puffer ueber und das H.264-Bild wird fehlerhaft.
      */
-    private void sendFireAndForgetCommand(String command) {
+    private void listenToVideo() {
+        int counter = 0;
+
+        startPipeline();
+        while (link.isConnected()) {
+            try {
+                Frame frame = grabber.grabImage();
+                if (frame == null || frame.image == null) {
+                    link.metrics().frameDropped();
+                    continue;
+                }
+                videoLink.onArrival(System.nanoTime());
+
+                // der Grabber ueberschreibt sein Bild beim naechsten Aufruf, die Stufen teilen sich die Kopie
+                PooledFrame pooled = framePool.acquire(frame);
+                if (pooled == null) {
+                    link.metrics().frameDropped();
+                    continue;
+                }
+                offer(displayStage, pooled);
+                if (videoRecorder.isRecording()) {
+                    videoRecorder.offer(pooled.retain());
+                }
+                if (++counter == ANALYSIS_INTERVAL) {
+                    offer(analysisStage, pooled);
+                    counter = 0;
+                }
+                pooled.release();
+            } catch (Exception e) {
+                LOGGER.severe(e.getMessage());
+            }
+        }
+        stopPipeline();
         try {
-            final byte[]         sendData   = command.getBytes();
-            final DatagramPacket sendPacket = new DatagramPacket(sendData, sendData.length, telloAddress, COMMAND_PORT);
-            commandSocket.send(sendPacket);
-            LOGGER.info("Command : " + command);
-        } catch (IOException e) {
-            LOGGER.severe("can't send command : " + command);
+            grabber.stop();
+        } catch (Exception e) {
+            LOGGER.severe(e.getMessage());
         }
     }
 
-    /**
-     * Send read command to Tello and wait for its response. Possible read commands:
-     *   - speed?:    obtain current speed (cm/s): x: 1-100
-     *   - battery?:  obtain current battery percentage: x: 0-100
-     *   - time?:     obtain current flight time (s): time
-     *   - wifi?:     obtain Wi-Fi SNR: snr
-     *   - sdk?:      obtain the Tello SDK version
-     *   - sn?:       get obtain the Tello serial number
-     *
-     * Please notice: In most cases it's more appropriate to use the status listener
-     *
-     * @param command the read command to be sent
-     * @return the value as String
-     */
-    private String sendReadCommand(String command) {
-        sendFireAndForgetCommand(command);
-        return getResponse();
+    private static void offer(PipelineStage<PooledFrame> stage, PooledFrame frame) {
+        // die Stufe gibt das Bild frei, nach der Verarbeitung oder wenn sie es verwirft
+        stage.offer(frame.retain());
+    }
+
+    private void startPipeline() {
+        displayStage  = new PipelineStage<>("tello-video-display", 1, PipelineStage.DropPolicy.LATEST,
+                                            this::display, this::drop);
+        analysisStage = new PipelineStage<>("tello-video-analysis", 1, PipelineStage.DropPolicy.LATEST,
+                                            this::analyze, this::drop);
+        link.metrics().setRecorderQueueDepth(videoRecorder::queued);
+
+        displayStage.start();
+        analysisStage.start();
+        videoRecorder.start();
+    }
+
+    private void stopPipeline() {
+        displayStage.stop();
+        analysisStage.stop();
+        videoRecorder.stop();
+        detectedFaces = List.of();
     }
 
+    private void drop(PooledFrame frame) {
+        link.metrics().frameDropped();
+        frame.release();
+    }
 
     /**
-     * Wartet auf die Antwort der Drohne auf ein ihr geschicktes Kommando.
+     * Anzeige-Stufe: jedes Bild, das sie rechtzeitig erreicht, mit den zuletzt erkannten Gesichtern. Sie ist die
+     * einzige, die 'currentFrame' setzt, das Video springt also nie auf ein aelteres Bild zurueck.
      * <p>
-     * Achtung: Auf manche Kommandos wie 'rc' schickt die Drohne keine Response.
-     *
-     * @return the drone's response to a command
+     * Das UI zeichnet im FX-Thread, irgendwann spaeter: das Bild wird deshalb in den {@link DisplayBuffer} kopiert, die
+     * Gesichter werden in die Kopie gezeichnet, und es geht sofort zurueck in den Pool.
      */
-    private String getResponse() {
+    private void display(PooledFrame frame) {
         try {
-            byte[]               receiveData   = new byte[1024];
-            final DatagramPacket receivePacket = new DatagramPacket(receiveData, receiveData.length);
-            commandSocket.receive(receivePacket);
-            String received = trimResponse(receivePacket);
-            LOGGER.info("Received : " + received);
+            currentFrame.setValue(displayBuffer.write(frame.frame(), detectedFaces));
 
-            return received;
-        } catch (Exception e) {
-            LOGGER.severe("can't receive data " + e.getLocalizedMessage());
-            return "error";
+            // die Subscriber behalten die Bilder beliebig lange, sie bekommen eine eigene Kopie
+            BoundedPublisher<Frame> publisher = framePublisher;
+            if (publisher.hasSubscribers()) {
+                publisher.submit(frame.frame().clone());
+            }
+        } finally {
+            frame.release();
         }
     }
 
     /**
-     * Nimmt die von der Drohne geschickten Status-Meldungen entgegen und verarbeitet sie.
-     * <p>
-     * Aktuell wird der Status einfach nur auf die Konsole geloggt.
+     * Analyse-Stufe: Gesichtserkennung auf jedem {@value #ANALYSIS_INTERVAL}. Bild, die Gesichter zeichnet die
+     * Anzeige-Stufe in die folgenden Bilder.
      */
-    private void listenToState() {
-        byte[]               receiveData   = new byte[1024];
-        final DatagramPacket receivePacket = new DatagramPacket(receiveData, receiveData.length);
-        while (connected) {
-            try {
-                statusSocket.receive(receivePacket);
-                String received = trimResponse(receivePacket);
-                // todo: hier den empfangenen String so weiterverarbeiten, dass die Informationen anschliessend z.B. im UI angezeigt werden koennen
-                Arrays.stream(received.split(";")).anyMatch(s -> {
-                    if (s.startsWith("bat")) {
-                        batteryLevel.setValue("bat: "+ s.substring(4) + "%");
-                        return true;
-                    }
-                    return false;
-                });
-
-                //LOGGER.info("state : " + received);
-            } catch (Exception e) {
-                LOGGER.severe("can't receive state " + e.getLocalizedMessage());
-            }
+    private void analyze(PooledFrame frame) {
+        // das Netz rechnet auf einer verkleinerten Kopie, das gemeinsame Bild geht sofort zurueck in den Pool
+        OpenCVFrameConverter.ToMat converter = new OpenCVFrameConverter.ToMat();
+        int width  = frame.frame().imageWidth;
+        int height = frame.frame().imageHeight;
+        Mat colorimg;
+        try {
+            colorimg = converter.convert(frame.frame()).clone();
+        } finally {
+            frame.release();
         }
-    }
-
-    private void listenToVideo() {
-        int counter = 0;
-
-        int lastDetectedX = -1;
-        int lastDetectedY = -1;
-        int lastDetectedWidth = -1;
-        int lastDetectedHeight = -1;
 
-        List<Rect> lastDetectedRects = new ArrayList<>();
+        long detectionStart = System.nanoTime();
+        List<Rect> detectedRects = detect(colorimg);
+        link.metrics().inference(System.nanoTime() - detectionStart);
 
-        boolean hasDetectedOnce = false;
+        detectedFaces = scale(detectedRects, width / (double) colorimg.cols(), height / (double) colorimg.rows());
 
-        while (connected) {
-            try {
-                Frame frame = grabber.grabImage();
-                //hier frame verarbeiten
-                if (frame.image != null ) {
-                    Frame clone = frame.clone();
-                    if(counter == 15){
-                        OpenCVFrameConverter.ToMat converter = new OpenCVFrameConverter.ToMat();
-                        Mat colorimg = converter.convert(clone);
-
-                        lastDetectedRects = detect(colorimg);
-
-                        draw(colorimg, lastDetectedRects);
-
-
-                        currentFrame.setValue(converter.convert(colorimg));
-                        counter = 0;
-                    }
-                    else {
-                        currentFrame.setValue(clone);
-                        counter++;
-                    }
-
-
-                   //
-                   // currentFrame.setValue(clone);
-                    if(videoStreamOn){
-                        recorder.record(clone);
-                        if(lastDetectedRects.size() > 0 && !hasDetectedOnce){
-                            flip("f");
-                            hasDetectedOnce = true;
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                LOGGER.severe(e.getMessage());
-            }
-        }
-        try {
-            recorder.stop();
-            grabber.stop();
-        } catch (Exception e) {
-            LOGGER.severe(e.getMessage());
+        if (videoRecorder.isRecording() && !detectedRects.isEmpty() && !hasDetectedOnce) {
+            flip("f");
+            hasDetectedOnce = true;
         }
     }
 
-    private String trimResponse(DatagramPacket receivePacket) {
-        byte[] response = Arrays.copyOf(receivePacket.getData(), receivePacket.getLength());
-        return new String(response, StandardCharsets.UTF_8).trim();
+    // 'detect' liefert die Gesichter im verkleinerten Bild, gezeichnet werden sie im Original
+    private static List<Rect> scale(List<Rect> rects, double sx, double sy) {
+        List<Rect> scaled = new ArrayList<>(rects.size());
+        for (Rect r : rects) {
+            scaled.add(new Rect((int) (r.x() * sx), (int) (r.y() * sy), (int) (r.width() * sx), (int) (r.height() * sy)));
+        }
+        return List.copyOf(scaled);
     }
 
     private int assureRange(int value, int min, int max) {
         return Math.min(max, Math.max(min, value));
     }
 
-    public ObservableValue<Frame> currentFrameValue() {
+    /**
+     * @param mode how the video is decoded, used by the next {@link #startVideoListener()}
+     */
+    public void setVideoMode(VideoMode mode) {
+        videoMode = mode;
+    }
+
+    /**
+     * @return changes with every frame to show, the pixels are read in the FX thread with {@link #displayBuffer()}
+     */
+    public ObservableValue<DisplayBuffer.Slot> currentFrameValue() {
         return currentFrame;
     }
 
+    /**
+     * @return the frames to show, {@code displayBuffer().image()} in the FX thread returns the newest one
+     */
+    public DisplayBuffer displayBuffer() {
+        return displayBuffer;
+    }
+
+    /**
+     * Every subscriber gets the decoded frames through its own bounded buffer, in its own thread, so a slow
+     * subscriber never throttles the decoder. The frames are shared and must not be modified.
+     * {@code framePublisher().subscribe(subscriber, 1, BoundedPublisher.Overflow.LATEST)} e.g. only gets the newest.
+     *
+     * @return the frames as they are decoded, completed by {@link #disconnect()}; subscribe again after that for the
+     *         frames of the next connection
+     */
+    public BoundedPublisher<Frame> framePublisher() {
+        return framePublisher;
+    }
+
+    /**
+     * Finishes the video file in the background, can be called at any time.
+     */
     public void stopRecorder() {
-            try {
-                videoStreamOn = false;
-                recorder.stop();
-                recorder.release();
-            } catch (FFmpegFrameRecorder.Exception e) {
-                throw new RuntimeException(e);
-            }
+        videoRecorder.end();
     }
 
+    /**
+     * Records the video into 'recorded_yyyyMMdd_HHmmss.mp4' in its own thread, can be called at any time.
+     */
     public void startRecorder(){
-
         LocalDateTime now = LocalDateTime.now();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
         String formattedDateTime = now.format(formatter);
 
-        recorder = new FFmpegFrameRecorder("recorded_" + formattedDateTime +".mp4", grabber.getImageWidth(), grabber.getImageHeight(), 0);
-        recorder.setFormat("mp4");
-        recorder.setVideoCodec(avcodec.AV_CODEC_ID_H264);
+        videoRecorder.begin(Path.of("recorded_" + formattedDateTime +".mp4"));
+    }
 
-        videoStreamOn = true;
+    public boolean isRecording() {
+        return videoRecorder.isRecording();
+    }
 
+    /**
+     * @param overflow what happens if the encoder can't keep up, {@link VideoRecorder.Overflow#BLOCK} slows down the
+     *                 live video
+     */
+    public void setRecorderOverflow(VideoRecorder.Overflow overflow) {
+        videoRecorder.setOverflow(overflow);
+    }
 
-        try {
-             recorder.start();
-        } catch (Exception e) {
-            LOGGER.severe("can't start FrameGrabber " + e.getMessage());
+    /**
+     * Sets how often the rc channels are sent to Tello.
+     *
+     * @param rateHz rc packets per second, e.g. 20-50
+     */
+    public void setRcRate(int rateHz) {
+        rcRateHz = rateHz;
+        if (rcLoop != null) {
+            rcLoop.start(rateHz);
         }
     }
 
+    // die rc-Werte werden nicht sofort verschickt, sondern beim naechsten Tick des RcControlLoop
+
     public void rcFrwd(int newValue) {
-        fwd_bk = newValue;
-        sendFireAndForgetCommand("rc " + left_right + " " + fwd_bk + " " +  up_down + " " + yaw);
+        if (rcLoop != null) {
+            rcLoop.setForwardBack(newValue);
+        }
     }
 
     public void rcLeftRight(int newValue) {
-        left_right = newValue;
-        sendFireAndForgetCommand("rc " + left_right + " " + fwd_bk + " " +  up_down + " " + yaw);
+        if (rcLoop != null) {
+            rcLoop.setLeftRight(newValue);
+        }
     }
 
     public void rcUpDown(int newValue) {
-        up_down = newValue;
-        sendFireAndForgetCommand("rc " + left_right + " " + fwd_bk + " " + up_down + " " + yaw);
+        if (rcLoop != null) {
+            rcLoop.setUpDown(newValue);
+        }
     }
 
     public void rcYaw(int newValue) {
-        yaw = newValue;
-        sendFireAndForgetCommand("rc " + left_right + " " + fwd_bk + " " + up_down + " " + yaw);
+        if (rcLoop != null) {
+            rcLoop.setYaw(newValue);
+        }
     }
 }
@@ -0,0 +1,199 @@
+package telloflix.model;
+
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import org.bytedeco.javacv.Frame;
+import tello.models.util.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.DatagramChannel;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Logger;
+
+/**
+ * Misst, wie lange es vom Eintreffen eines Video-Pakets bis zum dekodierten Bild dauert.
+ * <p>
+ * FFmpeg liest den UDP-Stream selbst, deshalb empfaengt die Probe die Pakete der Drohne, merkt sich die Ankunftszeit
+ * und reicht sie sofort ueber Loopback an den Grabber weiter. Was ankommt, bevor FFmpeg seinen Socket geoeffnet hat,
+ * geht verloren, wie in der App, in die die Drohne ebenfalls schon vor dem Start des Grabbers sendet. Gemessen werden
+ * <ul>
+ *     <li>die Zeit vom ersten Paket bis zum ersten Bild, also Oeffnen des Grabbers, Analyse, Puffer und das Warten
+ *     auf ein Keyframe,</li>
+ *     <li>fuer jedes weitere Bild die Zeit vom ersten Paket dieses Bildes bis es dekodiert ist.</li>
+ * </ul>
+ * Das erste Bild des Decoders gehoert zum letzten Keyframe, das vor ihm angekommen ist, fruehere hat FFmpeg nicht
+ * bekommen oder nicht dekodieren koennen. Fuer die Zuordnung der weiteren Pakete zu Bildern wird angenommen, dass
+ * jedes Bild im Stream ein Bild im Grabber ergibt. Das gilt fuer den Baseline-Stream der Tello (keine B-Frames),
+ * solange keine Pakete verloren gehen.
+ */
+public class VideoLatencyProbe {
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    // die Tello schickt Pakete mit hoechstens 1460 Bytes
+    private static final int MAX_DATAGRAM = 2048;
+
+    // NAL-Typen einer Bild-Slice (normal und IDR)
+    private static final int NAL_SLICE     = 1;
+    private static final int NAL_IDR_SLICE = 5;
+
+    private final int       videoPort;
+    private final VideoMode mode;
+
+    /**
+     * The result of one measurement.
+     *
+     * @param firstFrame from the first packet to the first decoded frame, null if no frame was decoded
+     * @param frames     number of decoded frames
+     * @param latency    from the first packet of a frame until it is decoded, without the first frame
+     */
+    public record Result(VideoMode mode, Duration firstFrame, long frames, LatencyHistogram.Snapshot latency) {
+
+        @Override
+        public String toString() {
+            return mode + ": first frame " + (firstFrame == null ? "-" : firstFrame.toMillis() + "ms")
+                   + ", frames " + frames + ", packet to frame " + latency;
+        }
+    }
+
+    /**
+     * @param videoPort the local port the drone sends its video to, e.g. {@link TelloFlix#VIDEO_PORT}
+     */
+    public VideoLatencyProbe(int videoPort, VideoMode mode) {
+        this.videoPort = videoPort;
+        this.mode      = mode;
+    }
+
+    /**
+     * Decodes the stream for {@code duration}. The drone has to send video already ('streamon').
+     */
+    public Result measure(Duration duration) throws IOException {
+        int              relayPort  = freePort();
+        LatencyHistogram latency    = new LatencyHistogram();
+        long             firstFrame = -1;
+        long             frames     = 0;
+
+        try (Relay relay = new Relay(new InetSocketAddress(InetAddress.getLoopbackAddress(), relayPort))) {
+            relay.start();
+
+            FFmpegFrameGrabber grabber = mode.grabber("udp://127.0.0.1:" + relayPort,
+                                                      TelloFlix.VIDEO_WIDTH, TelloFlix.VIDEO_HEIGHT);
+            try {
+                grabber.start();
+                long deadline = System.nanoTime() + duration.toNanos();
+                while (System.nanoTime() < deadline) {
+                    Frame frame = grabber.grabImage();
+                    long  now   = System.nanoTime();
+                    if (frame == null || frame.image == null) {
+                        continue;
+                    }
+                    if (frames++ == 0) {
+                        firstFrame = now - relay.firstPacket;
+                        // alles bis zum Keyframe dieses Bildes hat der Decoder nicht bekommen oder verworfen
+                        FrameStart keyFrame = null;
+                        for (FrameStart start : relay.frameStarts) {
+                            if (start.keyFrame()) {
+                                keyFrame = start;
+                            }
+                        }
+                        if (keyFrame != null) {
+                            while (relay.frameStarts.poll() != keyFrame) {
+                                // verwerfen
+                            }
+                        }
+                    } else {
+                        FrameStart start = relay.frameStarts.poll();
+                        if (start != null) {
+                            latency.record(now - start.nanos());
+                        }
+                    }
+                }
+                grabber.stop();
+            } finally {
+                grabber.release();
+            }
+        }
+        return new Result(mode, firstFrame < 0 ? null : Duration.ofNanos(firstFrame), frames, latency.snapshot());
+    }
+
+    /**
+     * @return the type of the first slice NAL unit in the datagram, i.e. the start of a picture, or 0 if there is none
+     */
+    static int sliceType(ByteBuffer datagram) {
+        for (int i = datagram.position(); i + 3 < datagram.limit(); i++) {
+            if (datagram.get(i) == 0 && datagram.get(i + 1) == 0 && datagram.get(i + 2) == 1) {
+                int nalType = datagram.get(i + 3) & 0x1F;
+                if (nalType == NAL_SLICE || nalType == NAL_IDR_SLICE) {
+                    return nalType;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static int freePort() throws IOException {
+        try (DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private record FrameStart(long nanos, boolean keyFrame) {
+    }
+
+    /**
+     * Empfaengt die Pakete der Drohne und reicht sie an den Grabber weiter.
+     */
+    private final class Relay implements AutoCloseable {
+        final ConcurrentLinkedQueue<FrameStart> frameStarts = new ConcurrentLinkedQueue<>();
+
+        volatile long firstPacket;
+
+        private final DatagramChannel   channel;
+        private final InetSocketAddress target;
+        private final Thread            thread;
+
+        Relay(InetSocketAddress target) throws IOException {
+            this.channel = DatagramChannel.open().bind(new InetSocketAddress(videoPort));
+            this.target  = target;
+            this.thread  = new Thread(this::relay, "tello-video-relay");
+            thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        private void relay() {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_DATAGRAM);
+            try {
+                while (true) {
+                    buffer.clear();
+                    channel.receive(buffer);
+                    long now = System.nanoTime();
+                    buffer.flip();
+                    if (firstPacket == 0) {
+                        firstPacket = now;
+                    }
+                    int sliceType = sliceType(buffer);
+                    if (sliceType != 0) {
+                        frameStarts.add(new FrameStart(now, sliceType == NAL_IDR_SLICE));
+                    }
+                    channel.send(buffer, target);
+                }
+            } catch (AsynchronousCloseException e) {
+                // beendet
+            } catch (IOException e) {
+                LOGGER.severe("video relay stopped " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package telloflix.model;
+
+import org.bytedeco.ffmpeg.global.avcodec;
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import org.bytedeco.javacv.FrameGrabber;
+
+/**
+ * Wie FFmpeg den H.264-Stream der Drohne dekodiert.
+ * <p>
+ * {@link #STANDARD} verwendet die Voreinstellungen von FFmpeg: vor dem ersten Bild wird bis zu 5 Sekunden bzw. 5 MB
+ * des Streams analysiert, der Demuxer puffert Pakete und der Decoder arbeitet mit mehreren Threads, von denen jeder
+ * ein eigenes Bild dekodiert. Das kostet pro Thread ein Bild Verzoegerung.
+ * <p>
+ * {@link #LOW_LATENCY} ist fuer das Steuern nach Kamerabild gedacht: Format und Codec sind bekannt, also wird kaum
+ * analysiert, Pakete werden sofort weitergereicht und ein einziger Thread dekodiert jedes Bild, sobald es vollstaendig
+ * ist. Bilder, die der Decoder nicht rechtzeitig schafft, verwirft die Video-Pipeline, nicht FFmpeg.
+ * <p>
+ * Mit {@link VideoLatencyProbe} lassen sich die beiden Modi vergleichen.
+ */
+public enum VideoMode {
+    STANDARD {
+        @Override
+        void configure(FFmpegFrameGrabber grabber) {
+        }
+    },
+
+    LOW_LATENCY {
+        @Override
+        void configure(FFmpegFrameGrabber grabber) {
+            // Demuxer: nicht auf Stream-Informationen warten, die schon feststehen, und nichts puffern
+            grabber.setOption("probesize", "32");
+            grabber.setOption("analyzeduration", "0");
+            grabber.setOption("fpsprobesize", "0");
+            grabber.setOption("fflags", "nobuffer");
+            grabber.setOption("max_delay", "0");
+
+            // UDP: ein voller Puffer verliert Pakete, statt den Stream abzubrechen
+            grabber.setOption("overrun_nonfatal", "1");
+
+            // Decoder: Frame-Threading haelt pro Thread ein Bild zurueck, Slice-Threading nicht
+            grabber.setVideoOption("threads", "1");
+            grabber.setVideoOption("flags", "low_delay");
+            grabber.setVideoOption("flags2", "fast");
+        }
+    };
+
+    /**
+     * Creates a grabber for the drone's H.264 stream.
+     *
+     * @param address e.g. 'udp://0.0.0.0:11111'
+     */
+    public FFmpegFrameGrabber grabber(String address, int width, int height) {
+        FFmpegFrameGrabber grabber = new FFmpegFrameGrabber(address);
+        grabber.setImageMode(FrameGrabber.ImageMode.COLOR);
+        grabber.setFormat("h264");
+        grabber.setVideoCodec(avcodec.AV_CODEC_ID_H264);
+        grabber.setImageWidth(width);
+        grabber.setImageHeight(height);
+        configure(grabber);
+        return grabber;
+    }
+
+    abstract void configure(FFmpegFrameGrabber grabber);
+}
@@ -0,0 +1,239 @@
+package telloflix.model;
+
+import org.bytedeco.ffmpeg.global.avcodec;
+import org.bytedeco.javacv.FFmpegFrameRecorder;
+import org.bytedeco.javacv.Frame;
+import tello.models.util.PipelineStage;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Die Aufnahme-Stufe der Video-Pipeline: kodiert die Bilder in einem eigenen Thread als H.264 in eine MP4-Datei.
+ * <p>
+ * Der Decoder uebergibt die Bilder nur waehrend einer Aufnahme, sie warten in einer beschraenkten Warteschlange. Kommt
+ * der Encoder nicht nach, entscheidet der {@link Overflow}: verwerfen und zaehlen (die Anzeige bleibt fluessig, das
+ * Video hat Luecken) oder den Decoder warten lassen (das Video ist vollstaendig, die Anzeige stockt).
+ * <p>
+ * {@link #begin} und {@link #end} sind billig und duerfen jederzeit aus jedem Thread aufgerufen werden, z.B. im
+ * FX-Thread. Der Encoder wird erst mit dem ersten Bild in der Aufnahme-Stufe geoeffnet, damit passt die Aufloesung
+ * immer zum Stream. Abgeschlossen wird die Datei in einem eigenen Thread, weil der Encoder dabei noch die
+ * zurueckgehaltenen Bilder kodiert.
+ */
+public class VideoRecorder {
+    private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    // so lange wartet der Decoder bei Overflow.BLOCK zwischen zwei Versuchen
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Was passiert, wenn der Encoder nicht nachkommt und die Warteschlange voll ist.
+     */
+    public enum Overflow {
+        /**
+         * das Bild wird verworfen und gezaehlt, der Decoder wird nie aufgehalten
+         */
+        DROP,
+        /**
+         * der Decoder wartet, bis wieder Platz ist; alle Bilder landen in der Datei
+         */
+        BLOCK
+    }
+
+    private final PipelineStage<PooledFrame> stage;
+    private final Consumer<PooledFrame>      onDrop;
+    private final AtomicReference<Recording> active   = new AtomicReference<>();
+    private final AtomicLong                 recorded = new AtomicLong();
+    private final AtomicLong                 dropped  = new AtomicLong();
+
+    private volatile Overflow overflow;
+
+    /**
+     * @param capacity how many frames may wait for the encoder
+     * @param onDrop   called with every frame that is not recorded, has to release it
+     */
+    public VideoRecorder(int capacity, Overflow overflow, Consumer<PooledFrame> onDrop) {
+        this.overflow = overflow;
+        this.onDrop   = onDrop;
+        this.stage    = new PipelineStage<>("tello-video-record", capacity, PipelineStage.DropPolicy.DROP_NEWEST,
+                                            this::record, this::drop);
+    }
+
+    /**
+     * Starts the encoder thread, frames are only recorded between {@link #begin} and {@link #end}.
+     */
+    public void start() {
+        stage.start();
+    }
+
+    /**
+     * Stops the encoder thread and finishes a running recording. Only called by the decoder thread.
+     */
+    public void stop() {
+        stage.stop();
+        Recording recording = active.getAndSet(null);
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    /**
+     * Starts recording into {@code file}, a running recording is finished.
+     */
+    public void begin(Path file) {
+        finish(active.getAndSet(new Recording(file)));
+    }
+
+    /**
+     * Finishes the running recording, if any. Frames still waiting for the encoder are not recorded.
+     */
+    public void end() {
+        finish(active.getAndSet(null));
+    }
+
+    public boolean isRecording() {
+        return active.get() != null;
+    }
+
+    public void setOverflow(Overflow overflow) {
+        this.overflow = overflow;
+    }
+
+    /**
+     * Hands a frame to the encoder thread, only called by the decoder thread. Takes over one reference.
+     *
+     * @return false if the frame was dropped
+     */
+    public boolean offer(PooledFrame frame) {
+        if (active.get() == null) {
+            // keine Aufnahme, also auch kein verlorenes Bild
+            frame.release();
+            return false;
+        }
+        if (overflow == Overflow.DROP) {
+            return stage.offer(frame);
+        }
+        while (!stage.tryOffer(frame)) {
+            if (!stage.isRunning() || active.get() == null) {
+                drop(frame);
+                return false;
+            }
+            LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * @return number of frames waiting for the encoder
+     */
+    public int queued() {
+        return stage.size();
+    }
+
+    public long recorded() {
+        return recorded.get();
+    }
+
+    /**
+     * @return number of frames that were offered during a recording but are missing in the file
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    private void record(PooledFrame frame) {
+        try {
+            Recording recording = active.get();
+            if (recording != null && recording.record(frame.frame())) {
+                recorded.incrementAndGet();
+            }
+        } finally {
+            frame.release();
+        }
+    }
+
+    private void drop(PooledFrame frame) {
+        if (active.get() != null) {
+            dropped.incrementAndGet();
+        }
+        onDrop.accept(frame);
+    }
+
+    private static void finish(Recording recording) {
+        if (recording != null) {
+            // nicht daemon: die Datei soll auch beim Beenden der Applikation vollstaendig geschrieben werden
+            new Thread(recording::close, "tello-video-record-close").start();
+        }
+    }
+
+    /**
+     * Eine Aufnahme in eine Datei. Kodiert wird im Thread der Aufnahme-Stufe, abgeschlossen evtl. in einem anderen.
+     */
+    private static final class Recording {
+        private final Path file;
+
+        private FFmpegFrameRecorder recorder;
+        private boolean             closed;
+
+        Recording(Path file) {
+            this.file = file;
+        }
+
+        synchronized boolean record(Frame frame) {
+            if (closed) {
+                return false;
+            }
+            if (recorder == null && !open(frame)) {
+                return false;
+            }
+            try {
+                recorder.record(frame);
+                return true;
+            } catch (FFmpegFrameRecorder.Exception e) {
+                LOGGER.severe("can't record video to " + file + " " + e.getMessage());
+                return false;
+            }
+        }
+
+        private boolean open(Frame frame) {
+            recorder = new FFmpegFrameRecorder(file.toString(), frame.imageWidth, frame.imageHeight, 0);
+            recorder.setFormat("mp4");
+            recorder.setVideoCodec(avcodec.AV_CODEC_ID_H264);
+            try {
+                recorder.start();
+                LOGGER.info("recording video to " + file);
+                return true;
+            } catch (FFmpegFrameRecorder.Exception e) {
+                LOGGER.severe("can't start recording " + file + " " + e.getMessage());
+                closed = true;
+                try {
+                    recorder.release();
+                } catch (FFmpegFrameRecorder.Exception ignored) {
+                    // war nie offen
+                }
+                recorder = null;
+                return false;
+            }
+        }
+
+        synchronized void close() {
+            closed = true;
+            if (recorder == null) {
+                return;
+            }
+            try {
+                recorder.stop();
+                recorder.release();
+                LOGGER.info("video recorded to " + file);
+            } catch (FFmpegFrameRecorder.Exception e) {
+                LOGGER.severe("can't finish video " + file + " " + e.getMessage());
+            }
+            recorder = null;
+        }
+    }
+}
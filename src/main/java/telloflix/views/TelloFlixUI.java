@@ -1,6 +1,5 @@
 package telloflix.views;
 
-import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.geometry.Insets;
 import javafx.geometry.Orientation;
@@ -13,7 +12,8 @@ import javafx.scene.image.Image;
 import javafx.scene.layout.GridPane;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
-import org.bytedeco.javacv.JavaFXFrameConverter;
+import tello.models.util.ValueChangeListener;
+import tello.views.util.FxValueChangeListener;
 import telloflix.model.TelloFlix;
 import telloflix.views.utils.ViewMixin;
 
@@ -59,7 +59,6 @@ public class TelloFlixUI extends GridPane implements ViewMixin {
 
     private Button resetSlidersButton;
 
-    private final JavaFXFrameConverter frameConverter = new JavaFXFrameConverter();
 
     /**
      * Jeder UI-Teil benoetigt die darzustellenden Informationen.
@@ -191,7 +190,7 @@ public class TelloFlixUI extends GridPane implements ViewMixin {
         flipForwardButton.setOnAction(event-> tello.flip("f"));
         flipBackwardButton.setOnAction(event-> tello.flip("b"));
         recordButton.setOnAction(event -> {
-            if (tello.videoStreamOn) {
+            if (tello.isRecording()) {
                 recordButton.setStyle("-fx-background-color: white");
                 recordButton.setText("Record");
 
@@ -217,18 +216,18 @@ public class TelloFlixUI extends GridPane implements ViewMixin {
         //Wie würde ein "besseres" API, das hier im View genutzt werden kann, aussehen?
         //Was ist die geeignete Klasse/Interface, die das bessere API bereitstellt?
         //todo: Entwerfen Sie das aus ihrer Sicht optimale API um auf Änderungen eines ObservableValue adäquat im View reagieren zu können
-        tello.currentFrameValue().onChange(((oldValue, newValue) ->
-                Platform.runLater(() -> {  //Änderungen im UI sollten immer im UI-Thread passieren
-                    GraphicsContext ctx = frameCanvas.getGraphicsContext2D();
-
-                    if (newValue == null || newValue.image == null) {
-                        ctx.setFill(Color.PAPAYAWHIP);
-                        ctx.fillRect(0, 0, frameCanvas.getWidth(), frameCanvas.getHeight());
-                    } else {
-                        Image image = frameConverter.convert(newValue);
-                        ctx.drawImage(image, 0, 0, frameCanvas.getWidth(), frameCanvas.getHeight());
-                    }
-                })));
+        //Änderungen im UI sollten immer im UI-Thread passieren, kommt er nicht nach, wird nur das neueste Bild gezeigt
+        tello.currentFrameValue().onChange(FxValueChangeListener.latest((oldValue, newValue) -> {
+            GraphicsContext ctx   = frameCanvas.getGraphicsContext2D();
+            Image           image = newValue == null ? null : tello.displayBuffer().image();
+
+            if (image == null) {
+                ctx.setFill(Color.PAPAYAWHIP);
+                ctx.fillRect(0, 0, frameCanvas.getWidth(), frameCanvas.getHeight());
+            } else {
+                ctx.drawImage(image, 0, 0, frameCanvas.getWidth(), frameCanvas.getHeight());
+            }
+        }));
         forward_backward_slider.valueProperty().addListener((observable, oldValue, newValue) -> {
             tello.rcFrwd(newValue.intValue());
         });
@@ -253,8 +252,10 @@ public class TelloFlixUI extends GridPane implements ViewMixin {
     public void setupBindings() {
         ViewMixin.super.setupBindings();
         batteryLabel.textProperty().bind(batteryLevel);
-        tello.batteryLevel.onChange((oldValue, newValue) -> {
-            batteryLevel.setValue(newValue.toString());
+        // der Wert kommt aus dem Reactor-Thread, die gebundene Property darf nur im UI-Thread veraendert werden
+        ValueChangeListener<Integer> battery = FxValueChangeListener.latest((oldValue, newValue) -> {
+            batteryLevel.setValue("bat: " + newValue + "%");
         });
+        tello.batteryLevel.onChange(battery::update);
     }
 }
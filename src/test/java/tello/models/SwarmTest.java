@@ -0,0 +1,102 @@
+package tello.models;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tello.models.telemetry.TelemetrySnapshot;
+import tello.simulator.TelloSimulator;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SwarmTest {
+    private TelloSimulator    first;
+    private TelloSimulator    second;
+    private InetSocketAddress firstDrone;
+    private InetSocketAddress secondDrone;
+    private Swarm             swarm;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        int statePort = TelloTest.freePort();
+        // zwei Absender-Adressen, sonst koennten die Status-Pakete nicht unterschieden werden
+        first  = simulator(InetAddress.getByName("127.0.0.1"), statePort);
+        second = simulator(InetAddress.getByName("127.0.0.2"), statePort);
+
+        firstDrone  = first.commandAddress();
+        secondDrone = second.commandAddress();
+        swarm       = new Swarm(List.of(firstDrone, secondDrone), statePort);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        swarm.close();
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void testEveryDroneGetsItsOwnReply() {
+        assertTrue(swarm.connect().join().allOk());
+        assertTrue(swarm.send("takeoff", List.of(firstDrone)).join().allOk());
+
+        SwarmResult heights = swarm.sendAll("height?").join();
+
+        assertEquals(List.of(firstDrone, secondDrone), List.copyOf(heights.results().keySet()));
+        assertEquals("8dm", heights.result(firstDrone).response().value());
+        assertEquals("0dm", heights.result(secondDrone).response().value());
+    }
+
+    @Test
+    public void testUnknownDroneSendsNothing() {
+        InetSocketAddress unknown = new InetSocketAddress("127.0.0.3", TelloSimulator.COMMAND_PORT);
+
+        assertThrows(IllegalArgumentException.class, () -> swarm.send("takeoff", List.of(firstDrone, unknown)));
+
+        assertTrue(first.receivedCommands().isEmpty());
+    }
+
+    @Test
+    public void testStateIsRoutedBySourceAddress() throws InterruptedException {
+        assertTrue(swarm.sendAll("command").join().allOk());
+        assertTrue(swarm.send("takeoff", List.of(secondDrone)).join().allOk());
+
+        TelemetrySnapshot flying = awaitState(secondDrone, 0);
+        // ein Paket der ersten Drohne, das erst danach kam: es darf nicht die Hoehe der zweiten haben
+        TelemetrySnapshot landed = awaitState(firstDrone, flying.receivedNanos());
+
+        assertEquals(80, flying.height());
+        assertEquals(0, landed.height());
+        assertFalse(first.isFlying());
+    }
+
+    // wartet auf einen Status, der nach 'afterNanos' empfangen wurde, die zweite Drohne muss schon fliegen
+    private TelemetrySnapshot awaitState(InetSocketAddress drone, long afterNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        TelemetrySnapshot state;
+        while ((state = swarm.state(drone).latest()) == null || state.receivedNanos() <= afterNanos
+               || drone.equals(secondDrone) && state.height() == 0) {
+            assertTrue(System.nanoTime() < deadline, "no state received from " + drone);
+            Thread.sleep(10);
+        }
+        return state;
+    }
+
+    private static TelloSimulator simulator(InetAddress host, int statePort) throws IOException {
+        return TelloSimulator.builder()
+                             .host(host)
+                             .commandPort(0)
+                             .statePort(statePort)
+                             .stateRate(20)
+                             .delay(Duration.ofMillis(5))
+                             .start();
+    }
+}
@@ -0,0 +1,248 @@
+package tello.models;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tello.models.telemetry.TelemetrySnapshot;
+import tello.models.util.LatencyHistogram;
+import tello.simulator.TelloSimulator;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TelloTest {
+    private TelloSimulator simulator;
+    private Tello          tello;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        int statePort = freePort();
+        simulator = TelloSimulator.builder()
+                                  .commandPort(0)
+                                  .statePort(statePort)
+                                  .delay(Duration.ofMillis(5))
+                                  .start();
+        tello = new Tello("127.0.0.1", simulator.commandAddress().getPort(), statePort);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tello.disconnect();
+        simulator.close();
+    }
+
+    @Test
+    public void testFlightPlan() {
+        assertTrue(tello.connect());
+        tello.startStateListener();
+
+        assertTrue(tello.takeOff());
+        assertTrue(simulator.isFlying());
+        assertTrue(tello.up(50));
+        assertEquals(130, simulator.height());
+        assertTrue(tello.land());
+        assertFalse(simulator.isFlying());
+    }
+
+    @Test
+    public void testFailedHandshakeClosesEverything() throws Exception {
+        try (DatagramSocket drone = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            // antwortet auf 'command' mit 'error', z.B. weil eine andere App die Drohne steuert
+            Thread replier = new Thread(() -> {
+                try {
+                    DatagramPacket packet = new DatagramPacket(new byte[64], 64);
+                    drone.receive(packet);
+                    byte[] error = "error".getBytes(StandardCharsets.US_ASCII);
+                    drone.send(new DatagramPacket(error, error.length, packet.getSocketAddress()));
+                } catch (IOException e) {
+                    // der Test schlaegt dann beim 'connect' fehl
+                }
+            });
+            replier.start();
+            Tello busy = new Tello("127.0.0.1", drone.getLocalPort(), freePort());
+
+            assertFalse(busy.connect());
+
+            replier.join(2000);
+            ObjectName name = new ObjectName("tello:type=Drone,name=" + ObjectName.quote("127.0.0.1:" + drone.getLocalPort()));
+            assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+            assertTrue(Thread.getAllStackTraces().keySet().stream()
+                             .noneMatch(thread -> thread.getName().equals("tello-reactor")));
+        }
+    }
+
+    @Test
+    public void testInvalidCommandIsRejected() {
+        assertTrue(tello.connect());
+
+        assertFalse(tello.forward(50));  // noch nicht gestartet
+    }
+
+    @Test
+    public void testLatenciesArePerCommand() {
+        assertTrue(tello.connect());
+        tello.forward(50);
+        tello.getBatteryLevel();
+        tello.getBatteryLevel();
+
+        Map<String, LatencyHistogram.Snapshot> latencies = tello.commandLatencies().snapshot();
+
+        assertEquals(List.of("battery?", "command", "forward"), List.copyOf(latencies.keySet()));
+        assertEquals(2, latencies.get("battery?").count());
+        assertEquals(1, latencies.get("forward").errors());
+        assertTrue(latencies.get("command").p99().toNanos() >= Duration.ofMillis(5).toNanos());
+    }
+
+    @Test
+    public void testSpeedReplyIsNotTakenForTheNextCommand() {
+        assertTrue(tello.connect());
+        tello.setSpeed(50);
+        assertTrue(tello.takeOff());
+
+        Map<String, LatencyHistogram.Snapshot> latencies = tello.commandLatencies().snapshot();
+        assertEquals(1, latencies.get("speed").count());
+        assertEquals(1, latencies.get("takeoff").count());
+        assertEquals(List.of("command", "speed 50", "takeoff"), simulator.receivedCommands());
+    }
+
+    @Test
+    public void testBatteryLevel() {
+        assertTrue(tello.connect());
+
+        assertEquals(87, tello.getBatteryLevel());
+    }
+
+    @Test
+    public void testGettersUseRecentStateInsteadOfQueries() throws InterruptedException {
+        assertTrue(tello.connect());
+        assertEquals(0, tello.getHeight());  // noch kein Status: 'height?'
+        tello.startStateListener();
+        assertTrue(tello.takeOff());
+        awaitState(() -> tello.telemetry().latest() != null && tello.telemetry().latest().height() == 80);
+
+        assertEquals(80, tello.getHeight());
+        assertEquals(90, tello.getTof());
+        assertEquals(87, tello.getBatteryLevel());
+        assertEquals(List.of("command", "height?", "takeoff"), simulator.receivedCommands());
+    }
+
+    @Test
+    public void testMetricsArePublishedOverJmx() throws Exception {
+        assertTrue(tello.connect());
+        tello.startStateListener();
+        tello.getBatteryLevel();
+        awaitState(() -> tello.metrics().getStatePackets() > 0);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName  name   = tello.metrics().name();
+        assertEquals(2L, server.getAttribute(name, "CommandsSent"));
+        assertEquals(2L, server.getAttribute(name, "RepliesReceived"));
+        assertEquals(0L, server.getAttribute(name, "Timeouts"));
+        assertTrue((Long) server.getAttribute(name, "StatePackets") > 0);
+
+        tello.disconnect();
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void testTelemetryPublisherDeliversStates() throws Exception {
+        CompletableFuture<TelemetrySnapshot> first     = new CompletableFuture<>();
+        CompletableFuture<Void>              completed = new CompletableFuture<>();
+        tello.telemetryPublisher().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(TelemetrySnapshot state) {
+                first.complete(state);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                first.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completed.complete(null);
+            }
+        });
+        assertTrue(tello.connect());
+        tello.startStateListener();
+
+        TelemetrySnapshot state = first.get(2, TimeUnit.SECONDS);
+        assertEquals(87, state.battery());
+
+        tello.disconnect();
+        completed.get(2, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testReconnectGetsANewTelemetryPublisher() throws Exception {
+        assertTrue(tello.connect());
+        tello.disconnect();
+        assertTrue(tello.connect());
+        tello.startStateListener();
+
+        CompletableFuture<Flow.Subscription> subscribed = new CompletableFuture<>();
+        CompletableFuture<TelemetrySnapshot> first      = new CompletableFuture<>();
+        tello.telemetryPublisher().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscribed.complete(subscription);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(TelemetrySnapshot state) {
+                first.complete(state);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                first.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                first.completeExceptionally(new AssertionError("completed by the previous connection"));
+            }
+        });
+
+        subscribed.get(2, TimeUnit.SECONDS);
+        assertEquals(87, first.get(2, TimeUnit.SECONDS).battery());
+    }
+
+    private static void awaitState(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "no state received");
+            Thread.sleep(10);
+        }
+    }
+
+    static int freePort() throws IOException {
+        try (DatagramSocket socket = new DatagramSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package tello.models.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tello.models.net.CommandChannel;
+import tello.models.net.CommandTransport;
+import tello.models.net.IoReactor;
+import tello.models.net.LinkMonitor;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DroneMetricsTest {
+    private IoReactor      reactor;
+    private CommandChannel commands;
+    private LinkMonitor    stateLink;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        // es wird nichts gesendet, eine Drohne braucht es nicht
+        reactor   = new IoReactor("test-reactor");
+        commands  = new CommandChannel(reactor, CommandTransport.open(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 8889)), 1);
+        stateLink = new LinkMonitor("state", Duration.ofMillis(100), 3, 10);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        commands.close();
+        reactor.close();
+    }
+
+    @Test
+    public void testAttributesAreReadThroughTheMBeanServer() throws Exception {
+        DroneMetrics metrics = new DroneMetrics(commands, stateLink, null);
+        assertTrue(metrics.register("test-drone"));
+        assertFalse(new DroneMetrics(commands, stateLink, null).register("test-drone"));
+
+        stateLink.start();
+        long now = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            stateLink.onArrival(now + i);
+        }
+        metrics.frameDropped();
+        metrics.frameDropped();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName  name   = metrics.name();
+        assertEquals(new ObjectName("tello:type=Drone,name=\"test-drone\""), name);
+        assertEquals(0L, server.getAttribute(name, "CommandsSent"));
+        assertEquals(5L, server.getAttribute(name, "StatePackets"));
+        assertEquals(2L, server.getAttribute(name, "FramesDropped"));
+        assertEquals("-", server.getAttribute(name, "VideoLink"));
+        // schon in der ersten Sekunde, gemittelt seit dem Start
+        assertTrue((Double) server.getAttribute(name, "StatePacketsPerSecond") > 0);
+        server.invoke(name, "resetStatistics", null, null);
+
+        metrics.unregister();
+        assertFalse(server.isRegistered(name));
+        assertNull(metrics.name());
+    }
+}
@@ -0,0 +1,170 @@
+package tello.models.net;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import tello.simulator.TelloSimulator;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandChannelTest {
+    private TelloSimulator simulator;
+    private IoReactor      reactor;
+    private CommandChannel channel;
+
+    @AfterEach
+    public void tearDown() {
+        channel.close();
+        reactor.close();
+        simulator.close();
+    }
+
+    @Test
+    public void testQueuedCommandsAreAnsweredInOrder() throws IOException {
+        open(TelloSimulator.builder().delay(Duration.ofMillis(20)));
+
+        CompletableFuture<Response> command = channel.send("command");
+        CompletableFuture<Response> takeoff = channel.send("takeoff");
+        CompletableFuture<Response> battery = channel.send("battery?");
+
+        assertEquals("ok", command.join().value());
+        assertEquals("ok", takeoff.join().value());
+        assertEquals("87", battery.join().value());
+        assertEquals(List.of("command", "takeoff", "battery?"), simulator.receivedCommands());
+    }
+
+    @Test
+    public void testNonAsciiCommandIsRejected() throws IOException {
+        open(TelloSimulator.builder());
+
+        CompletableFuture<Response> rejected = channel.send("höher 50");
+        CompletableFuture<Response> command  = channel.send("command");
+
+        CompletionException failure = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+        assertEquals("ok", command.join().value());
+        assertEquals(List.of("command"), simulator.receivedCommands());
+        assertThrows(IllegalArgumentException.class, () -> channel.sendNoReply("rc 0 0 0 0 ö"));
+    }
+
+    @Test
+    public void testEmergencyDoesNotWaitForTheReplyOfTheAbortedMove() throws Exception {
+        // die Antwort auf die abgebrochene Bewegung kommt nie an
+        open(TelloSimulator.builder().delay(Duration.ofMillis(20)).dropReplies(1));
+
+        CompletableFuture<Response> forward   = channel.send("forward 50");
+        CompletableFuture<Response> emergency = channel.send("emergency");
+        CompletableFuture<Response> battery   = channel.send("battery?");
+
+        assertEquals("ok", emergency.get(1, TimeUnit.SECONDS).value());
+        assertThrows(CancellationException.class, forward::join);
+        // hoechstens eine Round-Trip-Time (anfangs 1 s) fuer die fehlende Antwort, nicht das Timeout von 20 s
+        assertEquals("87", battery.get(3, TimeUnit.SECONDS).value());
+        assertEquals(List.of("forward 50", "emergency", "battery?"), simulator.receivedCommands());
+    }
+
+    @Test
+    public void testLostReplyTimesOutAndFreesTheChannel() throws IOException {
+        open(TelloSimulator.builder().lossRate(1.0));
+
+        CompletableFuture<Response> lost = channel.send("command", Duration.ofMillis(100));
+        CompletableFuture<Response> next = channel.send("takeoff", Duration.ofMillis(100));
+
+        CompletionException failure = assertThrows(CompletionException.class, lost::join);
+        assertInstanceOf(TimeoutException.class, failure.getCause());
+        assertThrows(CompletionException.class, next::join);
+        assertEquals(List.of("command", "takeoff"), simulator.receivedCommands());
+    }
+
+    @Test
+    public void testLostReplyToQueryIsRetransmitted() throws IOException {
+        open(TelloSimulator.builder().dropReplies(2));
+
+        Response battery = channel.send("battery?", Duration.ofSeconds(10)).join();
+
+        assertEquals("87", battery.value());
+        assertEquals(List.of("battery?", "battery?", "battery?"), simulator.receivedCommands());
+    }
+
+    @Test
+    public void testDuplicateReplyToRetransmissionIsNotTakenForTheNextCommand() throws IOException {
+        // langsamer als das erste RTO (1 s): 'command' und 'battery?' werden wiederholt und zweimal beantwortet
+        Duration delay = Duration.ofMillis(1200);
+        open(TelloSimulator.builder().delay(delay));
+
+        List<CompletableFuture<Response>> replies = List.of(channel.send("command"), channel.send("takeoff"),
+                                                            channel.send("battery?"), channel.send("forward 50"));
+
+        List<String> values = new ArrayList<>();
+        for (CompletableFuture<Response> reply : replies) {
+            Response response = reply.join();
+            values.add(response.value());
+            // eine fremde Antwort waere frueher da als die Verzoegerung des Simulators
+            assertTrue(response.latency().compareTo(delay.minusMillis(50)) >= 0,
+                       response.command() + " completed after " + response.latency().toMillis() + "ms");
+        }
+        assertEquals(List.of("ok", "ok", "87", "ok"), values);
+        // Bewegungen vor Abfragen, siehe CommandPriority
+        assertEquals(List.of("command", "command", "takeoff", "forward 50", "battery?", "battery?"),
+                     simulator.receivedCommands());
+    }
+
+    @Test
+    public void testLostReplyToMoveIsIndeterminate() throws IOException {
+        open(TelloSimulator.builder().dropReplies(1));
+
+        CompletableFuture<Response> takeoff = channel.send("takeoff", Duration.ofMillis(300));
+
+        CompletionException failure = assertThrows(CompletionException.class, takeoff::join);
+        assertInstanceOf(IndeterminateCommandException.class, failure.getCause());
+        assertEquals(List.of("takeoff"), simulator.receivedCommands());
+    }
+
+    @Test
+    public void testLandPreemptsQueuedMoves() throws IOException {
+        open(TelloSimulator.builder().delay(Duration.ofMillis(50)));
+        channel.send("command").join();
+        channel.send("takeoff").join();
+
+        CompletableFuture<Response> up      = channel.send("up 50");
+        CompletableFuture<Response> forward = channel.send("forward 50");
+        CompletableFuture<Response> land    = channel.send("land");
+
+        assertTrue(land.join().isOk());
+        assertThrows(CancellationException.class, up::join);  // war schon unterwegs
+        assertThrows(CancellationException.class, forward::join);
+    }
+
+    @Test
+    public void testSafetyCommandAbortsCommandInFlight() throws IOException {
+        open(TelloSimulator.builder().delay(Duration.ofMillis(100)));
+        channel.send("command").join();
+
+        CompletableFuture<Response> forward = channel.send("forward 50");  // nicht gestartet: 'error'
+        CompletableFuture<Response> land    = channel.send("land");
+        CompletableFuture<Response> battery = channel.send("battery?");
+
+        assertThrows(CancellationException.class, forward::join);
+        assertEquals("ok", land.join().value());  // die Antwort 'error' auf 'forward 50' wird uebersprungen
+        assertEquals("87", battery.join().value());
+        assertEquals(List.of("command", "forward 50", "land", "battery?"), simulator.receivedCommands());
+    }
+
+    private void open(TelloSimulator.Builder builder) throws IOException {
+        simulator = builder.commandPort(0).stateRate(0).start();
+        reactor   = new IoReactor("test-reactor");
+        channel   = new CommandChannel(reactor, CommandTransport.open(simulator.commandAddress()), 1);
+    }
+}
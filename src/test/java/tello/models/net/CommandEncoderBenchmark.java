@@ -0,0 +1,111 @@
+package tello.models.net;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht das bisherige Versenden von 'rc'-Kommandos (String-Verkettung, getBytes, neues DatagramPacket) mit
+ * {@link CommandTransport}.
+ * <p>
+ * Mit dem GC-Profiler zeigt 'gc.alloc.rate.norm' die pro Kommando allozierten Bytes. Starten via {@link #main}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandEncoderBenchmark {
+
+    private DatagramChannel  sink;
+    private DatagramSocket   legacySocket;
+    private CommandTransport transport;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // nimmt die Pakete entgegen, ohne sie je zu lesen; der Kernel verwirft sie, sobald sein Puffer voll ist
+        sink = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        InetSocketAddress target = (InetSocketAddress) sink.getLocalAddress();
+
+        legacySocket = new DatagramSocket();
+        legacySocket.connect(target);
+        transport = CommandTransport.open(target);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        transport.close();
+        legacySocket.close();
+        sink.close();
+    }
+
+    @Benchmark
+    public byte[] legacyEncodeRc() {
+        int v = nextValue();
+        String command = "rc " + v + " " + -v + " " + v / 2 + " " + 0;
+        return command.getBytes();
+    }
+
+    @Benchmark
+    public ByteBuffer encodeRc() {
+        int v = nextValue();
+        buffer.clear();
+        CommandEncoder.putRc(buffer, v, -v, v / 2, 0);
+        return buffer;
+    }
+
+    @Benchmark
+    public void legacySendRc() throws IOException {
+        int v = nextValue();
+        String command = "rc " + v + " " + -v + " " + v / 2 + " " + 0;
+        final byte[]         sendData   = command.getBytes();
+        final DatagramPacket sendPacket = new DatagramPacket(sendData, sendData.length);
+        legacySocket.send(sendPacket);
+    }
+
+    @Benchmark
+    public void transportSendRc() throws IOException {
+        int v = nextValue();
+        transport.sendRc(v, -v, v / 2, 0);
+    }
+
+    private int nextValue() {
+        tick = tick == 100 ? -100 : tick + 1;
+        return tick;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CommandEncoderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,72 @@
+package tello.models.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandSchedulerTest {
+    private static final long TIMEOUT = 1_000_000_000L;
+
+    @Test
+    public void testHigherClassIsSentFirst() {
+        CommandScheduler     scheduler = new CommandScheduler();
+        List<PendingCommand> dropped   = new ArrayList<>();
+
+        scheduler.enqueue(new PendingCommand("battery?", TIMEOUT), dropped);
+        scheduler.enqueue(new PendingCommand("forward 50", TIMEOUT), dropped);
+        scheduler.enqueue(new PendingCommand("flip f", TIMEOUT), dropped);
+
+        assertEquals("forward 50", scheduler.poll().command);
+        assertEquals("flip f", scheduler.poll().command);
+        assertEquals("battery?", scheduler.poll().command);
+        assertNull(scheduler.poll());
+    }
+
+    @Test
+    public void testSafetyDropsQueuedMoves() {
+        CommandScheduler     scheduler = new CommandScheduler();
+        List<PendingCommand> dropped   = new ArrayList<>();
+
+        scheduler.enqueue(new PendingCommand("forward 50", TIMEOUT), dropped);
+        scheduler.enqueue(new PendingCommand("up 50", TIMEOUT), dropped);
+        scheduler.enqueue(new PendingCommand("battery?", TIMEOUT), dropped);
+        scheduler.enqueue(new PendingCommand("land", TIMEOUT), dropped);
+
+        assertEquals(2, dropped.size());
+        assertEquals(CommandPriority.SAFETY, scheduler.peekPriority());
+        assertEquals("land", scheduler.poll().command);
+        assertEquals("battery?", scheduler.poll().command);
+        assertTrue(scheduler.isEmpty());
+    }
+
+    @Test
+    public void testDuplicateQueriesCollapse() {
+        CommandScheduler     scheduler = new CommandScheduler();
+        List<PendingCommand> dropped   = new ArrayList<>();
+
+        PendingCommand first  = scheduler.enqueue(new PendingCommand("battery?", TIMEOUT), dropped);
+        PendingCommand second = scheduler.enqueue(new PendingCommand("battery?", TIMEOUT), dropped);
+
+        assertSame(first, second);
+        assertEquals(1, scheduler.size());
+    }
+
+    @Test
+    public void testReplacedCommandFollowsItsReplacement() {
+        CommandScheduler     scheduler = new CommandScheduler();
+        List<PendingCommand> dropped   = new ArrayList<>();
+
+        PendingCommand old   = scheduler.enqueue(new PendingCommand("rc 10 0 0 0", TIMEOUT), dropped);
+        PendingCommand fresh = scheduler.enqueue(new PendingCommand("rc 20 0 0 0", TIMEOUT), dropped);
+
+        assertEquals(1, scheduler.size());
+        fresh.future.complete(new Response(fresh.command, "ok", 0, 1));
+        assertEquals("rc 20 0 0 0", old.future.join().command());
+    }
+}
@@ -0,0 +1,34 @@
+package tello.models.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DatagramRouterTest {
+
+    @Test
+    public void testSocketAddressWinsOverHost() throws Exception {
+        InetAddress       drone   = InetAddress.getByName("192.168.10.11");
+        InetSocketAddress replies = new InetSocketAddress(drone, 8889);
+        InetSocketAddress state   = new InetSocketAddress(drone, 41234);
+        List<String>      routed  = new ArrayList<>();
+
+        DatagramRouter router = new DatagramRouter();
+        router.route(replies, (datagram, source) -> routed.add("reply"));
+        router.route(drone, (datagram, source) -> routed.add("state"));
+
+        router.onDatagram(ByteBuffer.allocate(0), replies);
+        router.onDatagram(ByteBuffer.allocate(0), state);
+        router.onDatagram(ByteBuffer.allocate(0), new InetSocketAddress("192.168.10.12", 8889));
+        router.remove(drone);
+        router.onDatagram(ByteBuffer.allocate(0), state);
+
+        assertEquals(List.of("reply", "state"), routed);
+    }
+}
@@ -0,0 +1,103 @@
+package tello.models.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IoReactorTest {
+
+    @Test
+    public void testDatagramsAreHandledInTheReactorThread() throws IOException, InterruptedException {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        InetSocketAddress     loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+
+        try (IoReactor reactor = new IoReactor("test-reactor");
+             DatagramChannel channel = DatagramChannel.open().bind(loopback);
+             DatagramSocket sender = new DatagramSocket()) {
+            reactor.register(channel, (datagram, source) ->
+                    received.add(reactor.inReactorThread() + " " + StandardCharsets.US_ASCII.decode(datagram)));
+
+            for (String text : new String[]{"ok", "87"}) {
+                byte[] data = text.getBytes(StandardCharsets.US_ASCII);
+                sender.send(new DatagramPacket(data, data.length, channel.getLocalAddress()));
+            }
+
+            assertEquals("true ok", received.poll(2, TimeUnit.SECONDS));
+            assertEquals("true 87", received.poll(2, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testCancelledTimerStopsRunning() throws IOException, InterruptedException {
+        AtomicInteger  runs  = new AtomicInteger();
+        CountDownLatch three = new CountDownLatch(3);
+
+        try (IoReactor reactor = new IoReactor("test-reactor")) {
+            IoReactor.ScheduledTask timer = reactor.scheduleAtFixedRate(() -> {
+                runs.incrementAndGet();
+                three.countDown();
+            }, 10, TimeUnit.MILLISECONDS);
+            assertTrue(three.await(2, TimeUnit.SECONDS));
+
+            CountDownLatch cancelled = new CountDownLatch(1);
+            reactor.execute(() -> {
+                timer.cancel();
+                cancelled.countDown();
+            });
+            assertTrue(cancelled.await(2, TimeUnit.SECONDS));
+            int stopped = runs.get();
+            Thread.sleep(100);
+            assertEquals(stopped, runs.get());
+        }
+    }
+
+    @Test
+    public void testLateTimerSkipsMissedPeriods() throws IOException, InterruptedException {
+        long           period = TimeUnit.MILLISECONDS.toNanos(20);
+        List<Long>     runs   = new ArrayList<>();  // nur im Reactor-Thread veraendert
+        CountDownLatch done   = new CountDownLatch(1);
+
+        try (IoReactor reactor = new IoReactor("test-reactor")) {
+            reactor.scheduleAtFixedRate(() -> {
+                runs.add(System.nanoTime());
+                if (runs.size() == 1) {
+                    sleep(200);  // der Reactor verpasst rund 10 Perioden
+                } else if (runs.size() == 4) {
+                    done.countDown();
+                }
+            }, 20, TimeUnit.MILLISECONDS);
+
+            assertTrue(done.await(2, TimeUnit.SECONDS));
+        }
+
+        // ohne Ueberspringen kaemen die verpassten Laeufe direkt hintereinander
+        for (int i = 2; i < 4; i++) {
+            long gap = runs.get(i) - runs.get(i - 1);
+            assertTrue(gap > period / 4, "run " + i + " only " + gap / 1000 + " us after the previous one");
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package tello.models.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LinkWatchdogTest {
+    private static final long INTERVAL = Duration.ofMillis(100).toNanos();
+
+    @Test
+    public void testMissedIntervalsDegradeStallAndRecover() {
+        LinkWatchdog watchdog = new LinkWatchdog();
+        LinkMonitor  state    = watchdog.monitor("state", Duration.ofNanos(INTERVAL));
+        List<String> changes  = new ArrayList<>();
+        watchdog.addListener((link, from, to) -> changes.add(from + "->" + to));
+
+        state.start();
+        long now = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            now += INTERVAL;
+            state.onArrival(now);
+            state.check(now);
+        }
+        assertEquals(LinkHealth.HEALTHY, state.health().getValue());
+
+        state.check(now + 3 * INTERVAL);
+        assertEquals(LinkHealth.DEGRADED, state.health().getValue());
+
+        now += 10 * INTERVAL;
+        state.check(now);
+        assertEquals(LinkHealth.STALLED, state.health().getValue());
+
+        // nach der Luecke wird wieder im Takt empfangen, die Verlustrate sinkt langsam
+        for (int i = 0; i < 50; i++) {
+            now += INTERVAL;
+            state.onArrival(now);
+            state.check(now);
+        }
+        assertEquals(LinkHealth.HEALTHY, state.health().getValue());
+        assertEquals(List.of("IDLE->HEALTHY", "HEALTHY->DEGRADED", "DEGRADED->STALLED", "STALLED->DEGRADED",
+                             "DEGRADED->HEALTHY"), changes);
+
+        LinkMonitor.Stats stats = state.stats();
+        assertEquals(60, stats.packets());
+        assertEquals(10, stats.missed());
+        assertTrue(stats.lossRate() < 0.25);
+    }
+
+    @Test
+    public void testSilentLinkStallsWithoutAnyPacket() {
+        LinkWatchdog watchdog = new LinkWatchdog();
+        LinkMonitor  video    = watchdog.monitor("video", Duration.ofNanos(INTERVAL));
+
+        long start = System.nanoTime();
+        video.check(start + 20 * INTERVAL);
+        assertEquals(LinkHealth.IDLE, video.health().getValue());
+
+        video.start();
+        video.check(System.nanoTime() + 10 * INTERVAL);
+        assertEquals(LinkHealth.STALLED, video.health().getValue());
+
+        video.stop();
+        assertEquals(LinkHealth.IDLE, video.health().getValue());
+    }
+}
@@ -0,0 +1,133 @@
+package tello.models.recorder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tello.models.telemetry.TelemetrySnapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FlightRecorderTest {
+    private static final String STATE = "mid:-1;x:0;y:0;z:0;mpry:0,0,0;pitch:0;roll:0;yaw:12;vgx:0;vgy:0;vgz:0;" +
+                                        "templ:60;temph:62;tof:90;h:80;bat:%d;baro:300.81;time:3;agx:0.00;agy:0.00;" +
+                                        "agz:-1000.00;\r\n";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testReplayReturnsTheRecordedBytes() throws IOException {
+        Path file = directory.resolve("flight.tlfr");
+        try (FlightRecorder recorder = FlightRecorder.create(file)) {
+            recorder.append(FlightRecorder.RecordType.COMMAND, 100, "takeoff");
+            recorder.append(FlightRecorder.RecordType.REPLY, 200, ascii("ok"));
+            recorder.append(FlightRecorder.RecordType.STATE, 300, ascii(String.format(STATE, 87)));
+        }
+
+        List<String> entries = new ArrayList<>();
+        try (FlightLog log = FlightLog.open(file)) {
+            log.replay((type, nanos, payload) ->
+                    entries.add(type + "@" + nanos + " " + StandardCharsets.US_ASCII.decode(payload).toString().trim()), 0);
+        }
+
+        assertEquals(List.of("COMMAND@100 takeoff", "REPLY@200 ok", "STATE@300 " + String.format(STATE, 87).trim()), entries);
+    }
+
+    @Test
+    public void testTruncatedLogReplaysTheCompleteEntries() throws IOException {
+        Path file = directory.resolve("flight.tlfr");
+        long size;
+        try (FlightRecorder recorder = FlightRecorder.create(file)) {
+            recorder.append(FlightRecorder.RecordType.COMMAND, 100, "takeoff");
+            recorder.append(FlightRecorder.RecordType.REPLY, 200, ascii("ok"));
+            recorder.append(FlightRecorder.RecordType.STATE, 300, ascii(String.format(STATE, 87)));
+            size = recorder.size();
+        }
+        assertEquals(size, Files.size(file));  // ohne den gemappten, leeren Rest
+
+        // z.B. beim Kopieren abgebrochen: der letzte Eintrag ist unvollstaendig
+        Path   cut   = directory.resolve("cut.tlfr");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(cut, Arrays.copyOf(bytes, bytes.length - 10));
+
+        List<String> entries = new ArrayList<>();
+        try (FlightLog log = FlightLog.open(cut)) {
+            log.replay((type, nanos, payload) -> entries.add(type + "@" + nanos), 0);
+        }
+
+        assertEquals(List.of("COMMAND@100", "REPLY@200"), entries);
+    }
+
+    @Test
+    public void testStateReplayAcrossSegments() throws IOException {
+        Path file   = directory.resolve("long-flight.tlfr");
+        int  states = 50_000;  // ca. 11 MB, also mehrere gemappte Abschnitte
+        try (FlightRecorder recorder = FlightRecorder.create(file)) {
+            for (int i = 0; i < states; i++) {
+                recorder.append(FlightRecorder.RecordType.STATE, i, ascii(String.format(STATE, i % 100)));
+            }
+        }
+
+        List<Integer> batteries = new ArrayList<>();
+        try (FlightLog log = FlightLog.open(file)) {
+            log.replayState((TelemetrySnapshot snapshot) -> {
+                if (snapshot.receivedNanos() % 100 != snapshot.battery()) {
+                    throw new AssertionError("wrong state at " + snapshot.receivedNanos());
+                }
+                batteries.add(snapshot.battery());
+            }, 0);
+        }
+
+        assertEquals(states, batteries.size());
+    }
+
+    @Test
+    public void testEntriesReachingIntoTheNextSegment() throws IOException {
+        Path file = directory.resolve("large-entries.tlfr");
+        long size;
+        try (FlightRecorder recorder = FlightRecorder.create(file)) {
+            for (int i = 1; i <= 5; i++) {
+                byte[] payload = new byte[3 * 1024 * 1024];
+                Arrays.fill(payload, (byte) i);
+                recorder.append(FlightRecorder.RecordType.REPLY, i, ByteBuffer.wrap(payload));
+                recorder.append(FlightRecorder.RecordType.COMMAND, i, "command " + i);
+            }
+            size = recorder.size();
+        }
+        assertEquals(size, Files.size(file));
+
+        List<String> entries = new ArrayList<>();
+        try (FlightLog log = FlightLog.open(file)) {
+            log.replay((type, nanos, payload) -> {
+                if (type == FlightRecorder.RecordType.REPLY) {
+                    byte[] bytes = new byte[payload.remaining()];
+                    payload.get(bytes);
+                    byte[] expected = new byte[bytes.length];
+                    Arrays.fill(expected, (byte) nanos);
+                    entries.add(type + "@" + nanos + " " + bytes.length + " " + Arrays.equals(expected, bytes));
+                } else {
+                    entries.add(type + "@" + nanos + " " + StandardCharsets.US_ASCII.decode(payload));
+                }
+            }, 0);
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            expected.add("REPLY@" + i + " " + 3 * 1024 * 1024 + " true");
+            expected.add("COMMAND@" + i + " command " + i);
+        }
+        assertEquals(expected, entries);
+    }
+
+    private static ByteBuffer ascii(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,80 @@
+package tello.models.telemetry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.net.DatagramPacket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht das bisherige Verarbeiten eines Status-Pakets ('listenToState': copyOf, new String, trim, split, Stream)
+ * mit dem {@link StateParser}.
+ * <p>
+ * Der bisherige Weg liest nur die Batterie, der StateParser alle Felder. Mit dem GC-Profiler zeigt
+ * 'gc.alloc.rate.norm' die pro Paket allozierten Bytes. Starten via {@link #main}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateParserBenchmark {
+    private static final byte[] STATE = ("mid:-1;x:0;y:0;z:0;mpry:0,0,0;pitch:2;roll:-1;yaw:-93;vgx:0;vgy:0;vgz:0;" +
+                                         "templ:60;temph:62;tof:95;h:80;bat:87;baro:300.21;time:42;agx:-5.00;" +
+                                         "agy:17.00;agz:-1000.00;\r\n").getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[]            receiveData   = Arrays.copyOf(STATE, 1024);
+    private final DatagramPacket    receivePacket = new DatagramPacket(receiveData, STATE.length);
+    private final ByteBuffer        direct        = ByteBuffer.allocateDirect(1024).put(STATE).flip();
+    private final StateParser       parser        = new StateParser();
+    private final TelemetrySnapshot snapshot      = new TelemetrySnapshot();
+
+    @Benchmark
+    public String legacySplit() {
+        String received = new String(Arrays.copyOf(receivePacket.getData(), receivePacket.getLength())).trim();
+        String[] battery = new String[1];
+        Arrays.stream(received.split(";")).anyMatch(s -> {
+            if (s.startsWith("bat")) {
+                battery[0] = s.substring(4);
+                return true;
+            }
+            return false;
+        });
+        return battery[0];
+    }
+
+    @Benchmark
+    public TelemetrySnapshot parsePacket() {
+        parser.parse(receivePacket.getData(), receivePacket.getOffset(), receivePacket.getLength(), 0, snapshot);
+        return snapshot;
+    }
+
+    @Benchmark
+    public TelemetrySnapshot parseDirectBuffer() {
+        parser.parse(direct, 0, snapshot);
+        return snapshot;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StateParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
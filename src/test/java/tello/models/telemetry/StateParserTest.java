@@ -0,0 +1,61 @@
+package tello.models.telemetry;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StateParserTest {
+    private static final String STATE = "mid:-1;x:1;y:-2;z:3;mpry:4,-5,6;pitch:-7;roll:8;yaw:-179;vgx:10;vgy:-11;vgz:12;" +
+                                        "templ:60;temph:62;tof:95;h:80;bat:87;baro:300.21;time:42;agx:-5.00;agy:17.50;" +
+                                        "agz:-1000.00;\r\n";
+
+    private final StateParser       parser   = new StateParser();
+    private final TelemetrySnapshot snapshot = new TelemetrySnapshot();
+
+    @Test
+    public void testAllSdk20Fields() {
+        assertEquals(21, parser.parse(ByteBuffer.wrap(STATE.getBytes(StandardCharsets.US_ASCII)), 7, snapshot));
+
+        assertEquals(-1, snapshot.mid());
+        assertEquals(1, snapshot.x());
+        assertEquals(-2, snapshot.y());
+        assertEquals(3, snapshot.z());
+        assertEquals(4, snapshot.mpryX());
+        assertEquals(-5, snapshot.mpryY());
+        assertEquals(6, snapshot.mpryZ());
+        assertEquals(-7, snapshot.pitch());
+        assertEquals(8, snapshot.roll());
+        assertEquals(-179, snapshot.yaw());
+        assertEquals(10, snapshot.vgx());
+        assertEquals(-11, snapshot.vgy());
+        assertEquals(12, snapshot.vgz());
+        assertEquals(61, snapshot.temperature());
+        assertEquals(95, snapshot.tof());
+        assertEquals(80, snapshot.height());
+        assertEquals(87, snapshot.battery());
+        assertEquals(300.21, snapshot.barometer(), 1e-9);
+        assertEquals(42, snapshot.flightTime());
+        assertEquals(-5.0, snapshot.agx(), 1e-9);
+        assertEquals(17.5, snapshot.agy(), 1e-9);
+        assertEquals(-1000.0, snapshot.agz(), 1e-9);
+        assertEquals(7, snapshot.receivedNanos());
+    }
+
+    @Test
+    public void testSdk13PacketClearsMissingFields() {
+        parser.parse(ByteBuffer.wrap(STATE.getBytes(StandardCharsets.US_ASCII)), 0, snapshot);
+        byte[] sdk13 = "xx pitch:1;roll:2;yaw:3;vgx:0;vgy:0;vgz:0;templ:50;temph:52;tof:10;h:0;bat:55;baro:1.5;time:0;agx:1;agy:2;agz:3;"
+                .getBytes(StandardCharsets.US_ASCII);
+
+        assertEquals(16, parser.parse(sdk13, 3, sdk13.length - 3, 0, snapshot));
+
+        assertEquals(55, snapshot.battery());
+        assertEquals(3, snapshot.yaw());
+        assertEquals(-1, snapshot.mid());
+        assertEquals(0, snapshot.x());
+        assertEquals(0, snapshot.mpryY());
+    }
+}
@@ -0,0 +1,69 @@
+package tello.models.telemetry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TelemetryCacheTest {
+
+    @Test
+    public void testEmptyCache() {
+        TelemetryCache cache = new TelemetryCache();
+
+        assertNull(cache.latest());
+        assertFalse(cache.read(new TelemetrySnapshot()));
+        assertEquals(0, cache.version());
+    }
+
+    @Test
+    public void testReadersNeverSeeHalfWrittenSnapshots() throws InterruptedException {
+        TelemetryCache            cache    = new TelemetryCache();
+        AtomicBoolean             running  = new AtomicBoolean(true);
+        AtomicReference<String>   mismatch = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            TelemetrySnapshot snapshot = new TelemetrySnapshot();
+            for (int i = 1; running.get(); i++) {
+                snapshot.height        = i;
+                snapshot.vgx           = i;
+                snapshot.yaw           = i;
+                snapshot.agz           = i;
+                snapshot.receivedNanos = i;
+                cache.publish(snapshot);
+            }
+        });
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                TelemetrySnapshot snapshot = new TelemetrySnapshot();
+                while (running.get()) {
+                    if (cache.read(snapshot)) {
+                        long i = snapshot.receivedNanos();
+                        if (snapshot.height() != i || snapshot.vgx() != i || snapshot.yaw() != i || snapshot.agz() != i) {
+                            mismatch.set(snapshot.toString());
+                        }
+                    }
+                }
+            });
+        }
+        writer.start();
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        Thread.sleep(300);
+        running.set(false);
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(mismatch.get());
+        assertTrue(cache.version() > 0);
+    }
+}
@@ -0,0 +1,70 @@
+package tello.models.telemetry;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TelemetryEstimatorTest {
+    private static final long TICK = Duration.ofMillis(100).toNanos();
+
+    private final TelemetryEstimator estimator = new TelemetryEstimator();
+    private final TelemetrySnapshot  state     = new TelemetrySnapshot();
+
+    @Test
+    public void testDeadReckoning() {
+        // 2 Sekunden mit 3 dm/s vorwaerts und 1 dm/s nach links
+        for (int i = 0; i <= 20; i++) {
+            update(i, 3, -1, 100, 0);
+        }
+
+        assertEquals(60, state.positionX(), 1e-6);
+        assertEquals(-20, state.positionY(), 1e-6);
+    }
+
+    @Test
+    public void testResetPositionMakesTheCurrentPositionTheOrigin() {
+        for (int i = 0; i <= 10; i++) {
+            update(i, 3, 0, 100, 0);
+        }
+        estimator.resetPosition();
+        for (int i = 11; i <= 20; i++) {
+            update(i, 3, 0, 100, 0);
+        }
+
+        assertEquals(30, state.positionX(), 1e-6);
+        assertEquals(0, state.positionY(), 1e-6);
+    }
+
+    @Test
+    public void testVerticalSpeedFollowsTheHeight() {
+        // steigt 5 Sekunden mit 40 cm/s
+        for (int i = 0; i <= 50; i++) {
+            update(i, 0, 0, 100 + 4 * i, 0);
+        }
+
+        assertEquals(40, state.verticalSpeed(), 1);
+        assertEquals(300, state.altitude(), 5);
+    }
+
+    @Test
+    public void testHeadingRateAcrossTheYawWrap() {
+        // dreht mit 90 Grad/s im Uhrzeigersinn ueber 180/-180 hinweg
+        for (int i = 0; i <= 30; i++) {
+            update(i, 0, 0, 100, Math.floorMod(150 + 9 * i + 180, 360) - 180);
+        }
+
+        assertEquals(90, state.headingRate(), 0.5);
+    }
+
+    private void update(int tick, int vgx, int vgy, int height, int yaw) {
+        state.receivedNanos = tick * TICK;
+        state.vgx           = vgx;
+        state.vgy           = vgy;
+        state.height        = height;
+        state.yaw           = yaw;
+        state.agz           = -1000;
+        estimator.update(state);
+    }
+}
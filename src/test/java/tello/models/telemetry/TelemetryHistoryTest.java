@@ -0,0 +1,65 @@
+package tello.models.telemetry;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TelemetryHistoryTest {
+    private static final long MS = Duration.ofMillis(1).toNanos();
+
+    @Test
+    public void testRangeOnlyKeepsTheLatestStates() {
+        TelemetryHistory history = filled(10, 25);  // Zeit 0..24 x 100ms, Hoehe = Index
+
+        TelemetryHistory.Series all = history.range(TelemetryField.HEIGHT, 0, Long.MAX_VALUE);
+        assertEquals(9, all.size());
+        assertEquals(16, all.values()[0]);
+        assertEquals(24, all.values()[8]);
+
+        TelemetryHistory.Series range = history.range(TelemetryField.HEIGHT, 1800 * MS, 2100 * MS);
+        assertArrayEquals(new float[]{18, 19, 20}, range.values());
+        assertArrayEquals(new long[]{1800 * MS, 1900 * MS, 2000 * MS}, range.timesNanos());
+    }
+
+    @Test
+    public void testAggregateWindows() {
+        TelemetryHistory history = filled(100, 20);
+
+        List<TelemetryHistory.Aggregate> windows =
+                history.aggregate(TelemetryField.HEIGHT, 0, 2500 * MS, Duration.ofSeconds(1));
+
+        assertEquals(3, windows.size());
+        assertEquals(10, windows.get(0).count());
+        assertEquals(0, windows.get(0).min());
+        assertEquals(9, windows.get(0).max());
+        assertEquals(4.5, windows.get(0).mean(), 1e-9);
+        assertEquals(14.5, windows.get(1).mean(), 1e-9);
+        assertEquals(0, windows.get(2).count());
+        assertTrue(Double.isNaN(windows.get(2).mean()));
+    }
+
+    @Test
+    public void testDownsample() {
+        TelemetryHistory history = filled(100, 20);
+
+        TelemetryHistory.Series points = history.downsample(TelemetryField.HEIGHT, 0, 2000 * MS, 4);
+
+        assertArrayEquals(new float[]{2, 7, 12, 17}, points.values());
+    }
+
+    private static TelemetryHistory filled(int capacity, int states) {
+        TelemetryHistory  history  = new TelemetryHistory(capacity);
+        TelemetrySnapshot snapshot = new TelemetrySnapshot();
+        for (int i = 0; i < states; i++) {
+            snapshot.height        = i;
+            snapshot.receivedNanos = i * 100 * MS;
+            history.record(snapshot);
+        }
+        return history;
+    }
+}
@@ -0,0 +1,94 @@
+package tello.models.telemetry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tello.models.util.ObservableValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verteilt ein Status-Paket an einen Listener pro {@link TelemetryField}: einmal ueber geboxte
+ * {@code ObservableValue<Double>}, einmal ueber {@link TelemetryValues}.
+ * <p>
+ * Zwei Pakete wechseln sich ab, damit sich jedes Feld jedes Mal aendert. Mit dem GC-Profiler zeigt
+ * 'gc.alloc.rate.norm' die pro Paket allozierten Bytes. Starten via {@link #main}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TelemetryValuesBenchmark {
+    private static final TelemetryField[] FIELDS = TelemetryField.values();
+
+    private final TelemetrySnapshot[] states = {
+            parse("mid:1;x:10;y:20;z:30;mpry:0,0,0;pitch:2;roll:-1;yaw:-93;vgx:1;vgy:2;vgz:3;templ:60;temph:62;" +
+                  "tof:95;h:80;bat:87;baro:300.21;time:42;agx:-5.00;agy:17.00;agz:-1000.00;\r\n"),
+            parse("mid:2;x:11;y:21;z:31;mpry:0,0,0;pitch:3;roll:-2;yaw:-94;vgx:2;vgy:3;vgz:4;templ:61;temph:63;" +
+                  "tof:96;h:81;bat:86;baro:300.45;time:43;agx:-6.00;agy:18.00;agz:-1001.00;\r\n")
+    };
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final ObservableValue<Double>[] boxed     = new ObservableValue[FIELDS.length];
+    private final TelemetryValues           primitive = new TelemetryValues();
+
+    private final TelemetryEstimator estimator = new TelemetryEstimator();
+
+    private int tick;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        for (TelemetryField field : FIELDS) {
+            boxed[field.ordinal()] = new ObservableValue<>(0.0);
+            boxed[field.ordinal()].onChange((oldValue, newValue) -> blackhole.consume(newValue));
+            primitive.get(field).onChange((oldValue, newValue) -> blackhole.consume(newValue));
+        }
+    }
+
+    @Benchmark
+    public void boxedFanOut() {
+        TelemetrySnapshot state = next();
+        for (TelemetryField field : FIELDS) {
+            boxed[field.ordinal()].setValue(field.of(state));
+        }
+    }
+
+    @Benchmark
+    public void primitiveFanOut() {
+        primitive.publish(next());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TelemetryValuesBenchmark.class.getSimpleName())
+                                       .addProfiler(GCProfiler.class)
+                                       .build()).run();
+    }
+
+    private TelemetrySnapshot next() {
+        TelemetrySnapshot state = states[tick++ & 1];
+        estimator.update(state);
+        return state;
+    }
+
+    private static TelemetrySnapshot parse(String state) {
+        TelemetrySnapshot snapshot = new TelemetrySnapshot();
+        byte[]            bytes    = state.getBytes(StandardCharsets.US_ASCII);
+        new StateParser().parse(bytes, 0, bytes.length, System.nanoTime(), snapshot);
+        return snapshot;
+    }
+}
@@ -0,0 +1,141 @@
+package tello.models.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BoundedPublisherTest {
+    // liefert direkt im aufrufenden Thread aus, damit der Test deterministisch ist
+    private static final Executor DIRECT = Runnable::run;
+
+    @Test
+    public void testEachSubscriberDropsAccordingToItsPolicy() {
+        BoundedPublisher<Integer> publisher = new BoundedPublisher<>(DIRECT, 3, BoundedPublisher.Overflow.DROP_OLDEST);
+        Recorder                  oldest    = new Recorder();
+        Recorder                  newest    = new Recorder();
+        Recorder                  latest    = new Recorder();
+        Recorder                  fast      = new Recorder();
+        publisher.subscribe(oldest);
+        publisher.subscribe(newest, 3, BoundedPublisher.Overflow.DROP_NEWEST);
+        publisher.subscribe(latest, 3, BoundedPublisher.Overflow.LATEST);
+        publisher.subscribe(fast);
+        fast.subscription.request(Long.MAX_VALUE);
+
+        for (int i = 1; i <= 10; i++) {
+            publisher.submit(i);
+        }
+        oldest.subscription.request(10);
+        newest.subscription.request(10);
+        latest.subscription.request(10);
+
+        assertEquals(List.of(8, 9, 10), oldest.items);
+        assertEquals(List.of(1, 2, 3), newest.items);
+        assertEquals(List.of(10), latest.items);
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), fast.items);
+        assertEquals(7 + 7 + 9, publisher.dropped());
+    }
+
+    @Test
+    public void testDemandCancelAndCompletion() {
+        BoundedPublisher<Integer> publisher = new BoundedPublisher<>(DIRECT, 8, BoundedPublisher.Overflow.DROP_OLDEST);
+        Recorder                  limited   = new Recorder();
+        Recorder                  cancelled = new Recorder();
+        Recorder                  invalid   = new Recorder();
+        publisher.subscribe(limited);
+        publisher.subscribe(cancelled);
+        publisher.subscribe(invalid);
+
+        limited.subscription.request(2);
+        cancelled.subscription.cancel();
+        invalid.subscription.request(0);
+        publisher.submit(1);
+        publisher.submit(2);
+        publisher.submit(3);
+        assertEquals(List.of(1, 2), limited.items);
+        assertEquals(1, publisher.subscriberCount());
+
+        publisher.close();
+        assertFalse(limited.completed);  // das dritte Element wurde noch nicht abgeholt
+        limited.subscription.request(1);
+        assertEquals(List.of(1, 2, 3), limited.items);
+        assertTrue(limited.completed);
+        assertTrue(cancelled.items.isEmpty());
+        assertInstanceOf(IllegalArgumentException.class, invalid.error);
+    }
+
+    @Test
+    public void testSubscriberRacingWithCloseIsTerminated() throws Exception {
+        IllegalStateException failure = new IllegalStateException("decoder failed");
+        for (int i = 0; i < 2_000; i++) {
+            BoundedPublisher<Integer> publisher  =
+                    new BoundedPublisher<>(DIRECT, 8, BoundedPublisher.Overflow.DROP_OLDEST);
+            Recorder                  subscriber = new Recorder();
+            CyclicBarrier             start      = new CyclicBarrier(2);
+            Thread closer = new Thread(() -> {
+                await(start);
+                publisher.closeExceptionally(failure);
+            });
+            closer.start();
+            await(start);
+            publisher.subscribe(subscriber);
+            closer.join();
+
+            assertSame(failure, subscriber.error, "subscriber " + i + " was not terminated");
+            assertEquals(0, publisher.subscriberCount());
+        }
+
+        // nach dem Schliessen bekommt ein neuer Subscriber denselben Fehler
+        BoundedPublisher<Integer> closed = new BoundedPublisher<>(DIRECT, 8, BoundedPublisher.Overflow.DROP_OLDEST);
+        Recorder                  late   = new Recorder();
+        closed.closeExceptionally(failure);
+        closed.subscribe(late);
+        assertSame(failure, late.error);
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (InterruptedException | BrokenBarrierException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static final class Recorder implements Flow.Subscriber<Integer> {
+        final List<Integer> items = new ArrayList<>();
+
+        Flow.Subscription subscription;
+        Throwable         error;
+        boolean           completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
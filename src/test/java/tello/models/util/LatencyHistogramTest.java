@@ -0,0 +1,44 @@
+package tello.models.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsCoverEveryValue() {
+        for (long micros = 0; micros < 1_000_000; micros += 7) {
+            int index = LatencyHistogram.bucketIndex(micros);
+            assertTrue(LatencyHistogram.bucketUpperMicros(index) >= micros);
+            assertTrue(index == 0 || LatencyHistogram.bucketUpperMicros(index - 1) < micros);
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(Duration.ofMillis(millis).toNanos());
+        }
+        histogram.recordTimeout();
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(100, snapshot.count());
+        assertEquals(1, snapshot.timeouts());
+        assertEquals(Duration.ofMillis(100), snapshot.max());
+        assertWithin(Duration.ofMillis(50), snapshot.p50());
+        assertWithin(Duration.ofMillis(90), snapshot.p90());
+        assertWithin(Duration.ofMillis(99), snapshot.p99());
+    }
+
+    // die Buckets sind hoechstens 1/16 breit
+    private static void assertWithin(Duration expected, Duration actual) {
+        assertTrue(actual.compareTo(expected) >= 0, actual + " < " + expected);
+        assertTrue(actual.toNanos() <= expected.toNanos() * 17 / 16, actual + " >> " + expected);
+    }
+}
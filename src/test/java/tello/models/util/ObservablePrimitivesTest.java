@@ -0,0 +1,56 @@
+package tello.models.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ObservablePrimitivesTest {
+
+    @Test
+    public void testIntThresholdSuppressesSmallChanges() {
+        ObservableInt height = new ObservableInt(100, 5);
+        List<String>  seen   = new ArrayList<>();
+        height.onChange((oldValue, newValue) -> seen.add(oldValue + "->" + newValue));
+
+        height.setValue(102);
+        height.setValue(104);
+        assertEquals(104, height.getValue());  // der Wert ist immer aktuell, nur gemeldet wird er nicht
+        height.setValue(105);
+        height.setValue(101);
+        height.setValue(100);
+
+        assertEquals(List.of("100->100", "100->105", "105->100"), seen);
+    }
+
+    @Test
+    public void testDoubleNotifiesEveryChangeWithoutThreshold() {
+        ObservableDouble speed = new ObservableDouble(0);
+        List<String>     seen  = new ArrayList<>();
+        speed.onChange((oldValue, newValue) -> seen.add(oldValue + "->" + newValue));
+
+        speed.setValue(0.5);
+        speed.setValue(0.5);
+        speed.setValue(Double.NaN);
+        speed.setValue(Double.NaN);
+        speed.setValue(-0.0);
+
+        assertEquals(List.of("0.0->0.0", "0.0->0.5", "0.5->NaN", "NaN->-0.0"), seen);
+    }
+
+    @Test
+    public void testRemovedListenerIsNotNotified() {
+        ObservableLong     counter  = new ObservableLong(0);
+        List<Long>         seen     = new ArrayList<>();
+        LongChangeListener listener = (oldValue, newValue) -> seen.add(newValue);
+        counter.onChange(listener);
+
+        counter.setValue(1);
+        counter.removeOnChange(listener);
+        counter.setValue(2);
+
+        assertEquals(List.of(0L, 1L), seen);
+    }
+}
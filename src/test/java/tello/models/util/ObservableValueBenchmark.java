@@ -0,0 +1,138 @@
+package tello.models.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Vergleicht das bisherige ObservableValue (Listener werden unter dem Write-Lock aufgerufen) mit dem Lock-freien
+ * {@link ObservableValue}.
+ * <p>
+ * Ein Thread setzt Werte wie der Video-Thread, sein Listener braucht einige Mikrosekunden wie ein UI-Listener. Drei
+ * Threads lesen gleichzeitig mit {@code getValue()}. Starten via {@link #main}.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObservableValueBenchmark {
+    // etwa 2-3 Mikrosekunden
+    private static final int LISTENER_WORK = 500;
+
+    private final LockedObservableValue<Integer> locked   = new LockedObservableValue<>(0);
+    private final ObservableValue<Integer>       lockFree = new ObservableValue<>(0);
+
+    private int lockedTick;
+    private int lockFreeTick;
+
+    public ObservableValueBenchmark() {
+        locked.onChange((oldValue, newValue) -> Blackhole.consumeCPU(LISTENER_WORK));
+        lockFree.onChange((oldValue, newValue) -> Blackhole.consumeCPU(LISTENER_WORK));
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public void lockedSet() {
+        locked.setValue(++lockedTick);
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public Integer lockedGet() {
+        return locked.getValue();
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(1)
+    public void lockFreeSet() {
+        lockFree.setValue(++lockFreeTick);
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(3)
+    public Integer lockFreeGet() {
+        return lockFree.getValue();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ObservableValueBenchmark.class.getSimpleName())
+                                       .addProfiler(GCProfiler.class)
+                                       .build()).run();
+    }
+
+    /**
+     * Das bisherige ObservableValue als Vergleich.
+     */
+    private static final class LockedObservableValue<T> {
+        private final Set<ValueChangeListener<T>> listeners = new HashSet<>();
+
+        private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
+        private final Lock                   r   = rwl.readLock();
+        private final Lock                   w   = rwl.writeLock();
+
+        private T value;
+
+        LockedObservableValue(T initialValue) {
+            value = initialValue;
+        }
+
+        void onChange(ValueChangeListener<T> listener) {
+            w.lock();
+            try {
+                listeners.add(listener);
+                listener.update(value, value);
+            } finally {
+                w.unlock();
+            }
+        }
+
+        void setValue(T newValue) {
+            w.lock();
+            try {
+                if (Objects.equals(value, newValue)) {
+                    return;
+                }
+                T oldValue = value;
+                value = newValue;
+                listeners.forEach(listener -> listener.update(oldValue, newValue));
+            } finally {
+                w.unlock();
+            }
+        }
+
+        T getValue() {
+            r.lock();
+            try {
+                return value;
+            } finally {
+                r.unlock();
+            }
+        }
+    }
+}
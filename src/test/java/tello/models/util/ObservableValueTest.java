@@ -0,0 +1,93 @@
+package tello.models.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ObservableValueTest {
+
+    @Test
+    public void testListenersSeeChainedChangesFromConcurrentWriters() throws InterruptedException {
+        ObservableValue<Integer> value   = new ObservableValue<>(0);
+        List<int[]>              changes = new ArrayList<>();  // die Listener laufen nie gleichzeitig
+        value.onChange((oldValue, newValue) -> changes.add(new int[]{oldValue, newValue}));
+
+        Thread[] writers = new Thread[4];
+        for (int w = 0; w < writers.length; w++) {
+            int offset = w * 100_000;
+            writers[w] = new Thread(() -> {
+                for (int i = 1; i <= 10_000; i++) {
+                    value.setValue(offset + i);
+                }
+            });
+            writers[w].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        for (int i = 1; i < changes.size(); i++) {
+            assertEquals(changes.get(i - 1)[1], changes.get(i)[0]);
+        }
+        assertEquals(value.getValue(), changes.get(changes.size() - 1)[1]);
+    }
+
+    @Test
+    public void testSlowListenerDoesNotBlockReaders() throws InterruptedException {
+        ObservableValue<String> value    = new ObservableValue<>("a");
+        CountDownLatch          entered  = new CountDownLatch(1);
+        CountDownLatch          released = new CountDownLatch(1);
+        value.onChange((oldValue, newValue) -> {
+            if (newValue.equals("b")) {
+                entered.countDown();
+                await(released);
+            }
+        });
+
+        Thread writer = new Thread(() -> value.setValue("b"));
+        writer.start();
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+
+        assertEquals("b", value.getValue());
+        value.setValue("c");  // wird vom Thread gemeldet, der gerade die Listener aufruft
+
+        released.countDown();
+        writer.join();
+        assertEquals("c", value.getValue());
+    }
+
+    @Test
+    public void testListenerMayChangeValueAndExceptionsReachTheCaller() {
+        ObservableValue<Integer> value = new ObservableValue<>(0);
+        List<Integer>            seen  = new ArrayList<>();
+        value.onChange((oldValue, newValue) -> {
+            seen.add(newValue);
+            if (newValue == 1) {
+                value.setValue(2);
+            } else if (newValue == 3) {
+                throw new IllegalStateException("listener failed");
+            }
+        });
+
+        value.setValue(1);
+        assertThrows(IllegalStateException.class, () -> value.setValue(3));
+        value.setValue(4);
+
+        assertEquals(List.of(0, 1, 2, 3, 4), seen);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package tello.models.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PipelineStageTest {
+
+    @Test
+    public void testRingKeepsOrderAcrossThreads() throws InterruptedException {
+        SpscRing<Integer> ring  = new SpscRing<>(6);
+        int               count = 100_000;
+        assertEquals(8, ring.capacity());
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                while (!ring.offer(i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        for (int expected = 0; expected < count; ) {
+            Integer item = ring.poll();
+            if (item != null) {
+                assertEquals(expected++, item);
+            } else {
+                Thread.yield();
+            }
+        }
+        producer.join();
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    public void testFullRingDropsNewest() {
+        PipelineStage<Integer> record = new PipelineStage<>("record", 4, PipelineStage.DropPolicy.DROP_NEWEST,
+                                                            item -> { }, item -> { });
+        for (int i = 0; i < 4; i++) {
+            assertTrue(record.offer(i));
+        }
+        assertFalse(record.offer(4));
+        assertEquals(4, record.size());
+        assertEquals(1, record.dropped());
+    }
+
+    @Test
+    public void testSlowStageDropsInsteadOfBlockingTheProducer() throws InterruptedException {
+        CountDownLatch release   = new CountDownLatch(1);
+        List<Integer>  processed = new ArrayList<>();
+        AtomicLong     dropped   = new AtomicLong();
+        PipelineStage<Integer> latest = new PipelineStage<>("latest", 1, PipelineStage.DropPolicy.LATEST, item -> {
+            await(release);
+            synchronized (processed) {
+                processed.add(item);
+            }
+        }, item -> dropped.incrementAndGet());
+        latest.start();
+
+        assertTrue(latest.offer(0));
+        while (latest.size() > 0) {  // die Stufe haengt jetzt in ihrem ersten Element
+            Thread.sleep(1);
+        }
+        long start = System.nanoTime();
+        for (int i = 1; i <= 100; i++) {
+            latest.offer(i);
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+
+        release.countDown();
+        while (latest.processed() < 2) {
+            Thread.sleep(1);
+        }
+        latest.stop();
+
+        synchronized (processed) {
+            assertEquals(List.of(0, 100), processed);  // von den wartenden Elementen nur das neueste
+        }
+        assertEquals(99, latest.dropped());
+        assertEquals(99, dropped.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
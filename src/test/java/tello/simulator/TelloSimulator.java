@@ -0,0 +1,420 @@
+package tello.simulator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ein Tello-Simulator fuer Tests und Benchmarks, der ohne Drohne und ohne TelloCamp auskommt.
+ * <p>
+ * Der Simulator beantwortet die SDK-Kommandos auf dem Kommando-Port mit "ok", "error" oder dem abgefragten Wert,
+ * schickt 10 mal pro Sekunde einen Status-String und kann optional eine H.264-Datei als Video-Stream verschicken.
+ * Verzoegerung, Jitter und Paketverlust sind einstellbar.
+ * <p>
+ * Wie die echte Drohne (SDK 2.0) antwortet der Simulator auf alles ausser 'rc', auch auf 'emergency'.
+ * <p>
+ * Kommando-Thread und Status-Task haben je einen eigenen {@link Random} aus demselben Seed. Wann ein Status-Paket
+ * verschickt wird, beeinflusst damit nicht, welche Antworten verloren gehen.
+ */
+public class TelloSimulator implements Closeable {
+    public static final int COMMAND_PORT = 8889;
+    public static final int STATE_PORT   = 8890;
+    public static final int VIDEO_PORT   = 11111;
+
+    // maximale Nutzlast eines Video-Pakets der Drohne
+    private static final int VIDEO_CHUNK_SIZE = 1460;
+
+    private final Builder                  config;
+    private final DatagramSocket           commandSocket;
+    private final DatagramSocket           outSocket;
+    private final ScheduledExecutorService scheduler;
+    private final Random                   commandRandom;
+    private final Random                   stateRandom;
+    private final List<String>             receivedCommands = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger            repliesToDrop;
+
+    private volatile boolean running = true;
+
+    // Zustand der simulierten Drohne, wird nur im Command-Thread veraendert
+    private volatile boolean flying;
+    private volatile int     height;
+    private volatile int     yaw;
+    private volatile int     speed   = 10;
+    private volatile int     battery = 87;
+    private final    long    startNanos = System.nanoTime();
+
+    private TelloSimulator(Builder config) throws IOException {
+        this.config   = config;
+        commandRandom = new Random(config.seed);
+        stateRandom   = new Random(~config.seed);
+        repliesToDrop = new AtomicInteger(config.dropReplies);
+        commandSocket = new DatagramSocket(new InetSocketAddress(config.host, config.commandPort));
+        outSocket     = new DatagramSocket(new InetSocketAddress(config.host, 0));
+        // ein Thread: ohne Jitter kommen die Antworten in der Reihenfolge der Kommandos an, wie bei der Drohne
+        scheduler     = Executors.newScheduledThreadPool(1, r -> {
+            Thread thread = new Thread(r, "tello-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Thread commandThread = new Thread(this::listenToCommands, "tello-simulator-commands");
+        commandThread.setDaemon(true);
+        commandThread.start();
+
+        if (config.stateRateHz > 0) {
+            scheduler.scheduleAtFixedRate(this::sendState, 0, 1_000_000 / config.stateRateHz, TimeUnit.MICROSECONDS);
+        }
+        if (config.videoFile != null) {
+            Thread videoThread = new Thread(this::streamVideo, "tello-simulator-video");
+            videoThread.setDaemon(true);
+            videoThread.start();
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return address and port the simulator receives commands on
+     */
+    public InetSocketAddress commandAddress() {
+        return (InetSocketAddress) commandSocket.getLocalSocketAddress();
+    }
+
+    /**
+     * @return all commands received so far, in order
+     */
+    public List<String> receivedCommands() {
+        synchronized (receivedCommands) {
+            return new ArrayList<>(receivedCommands);
+        }
+    }
+
+    public boolean isFlying() {
+        return flying;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        scheduler.shutdownNow();
+        commandSocket.close();
+        outSocket.close();
+    }
+
+    private void listenToCommands() {
+        byte[]         receiveData   = new byte[1024];
+        DatagramPacket receivePacket = new DatagramPacket(receiveData, receiveData.length);
+        while (running) {
+            try {
+                receivePacket.setLength(receiveData.length);
+                commandSocket.receive(receivePacket);
+            } catch (IOException e) {
+                continue;
+            }
+            String command = new String(receiveData, 0, receivePacket.getLength(), StandardCharsets.US_ASCII).trim();
+            receivedCommands.add(command);
+
+            String reply = execute(command);
+            if (reply != null && repliesToDrop.getAndUpdate(n -> Math.max(0, n - 1)) == 0 && !lost(commandRandom)) {
+                reply(reply, receivePacket.getSocketAddress());
+            }
+        }
+    }
+
+    /**
+     * @return the reply to {@code command} or null if Tello doesn't answer it
+     */
+    private String execute(String command) {
+        String[] parts = command.split(" ");
+        switch (parts[0]) {
+            case "rc":
+                return null;
+            case "emergency":
+                flying = false;
+                height = 0;
+                return "ok";
+            case "command":
+            case "streamon":
+            case "streamoff":
+            case "stop":
+                return "ok";
+            case "takeoff":
+                flying = true;
+                height = 80;
+                return "ok";
+            case "land":
+                flying = false;
+                height = 0;
+                return "ok";
+            case "up":
+                return move(parts, 1);
+            case "down":
+                return move(parts, -1);
+            case "left":
+            case "right":
+            case "forward":
+            case "back":
+                return move(parts, 0);
+            case "cw":
+            case "ccw":
+                if (!flying || parts.length != 2 || !inRange(parts[1], 1, 3600)) {
+                    return "error";
+                }
+                int angle = Integer.parseInt(parts[1]) * (parts[0].equals("cw") ? 1 : -1);
+                yaw = Math.floorMod(yaw + angle + 180, 360) - 180;
+                return "ok";
+            case "flip":
+                return flying && parts.length == 2 && "lrfb".contains(parts[1]) && parts[1].length() == 1 ? "ok" : "error";
+            case "speed":
+                if (parts.length != 2 || !inRange(parts[1], 10, 100)) {
+                    return "error";
+                }
+                speed = Integer.parseInt(parts[1]);
+                return "ok";
+            case "speed?":
+                return String.valueOf(speed);
+            case "battery?":
+                return String.valueOf(battery);
+            case "time?":
+                return flightTimeSeconds() + "s";
+            case "height?":
+                return (height / 10) + "dm";
+            case "tof?":
+                return (height + 10) * 10 + "mm";
+            case "wifi?":
+                return "90";
+            case "sdk?":
+                return "20";
+            case "sn?":
+                return "0TQZGANED0021X";
+            default:
+                return "error";
+        }
+    }
+
+    private String move(String[] parts, int vertical) {
+        if (!flying || parts.length != 2 || !inRange(parts[1], 20, 500)) {
+            return "error";
+        }
+        height = Math.max(0, height + vertical * Integer.parseInt(parts[1]));
+        return "ok";
+    }
+
+    private void reply(String reply, SocketAddress target) {
+        long delayMicros = config.delay.toNanos() / 1000;
+        if (config.jitter.toNanos() > 0) {
+            long jitterMicros = config.jitter.toNanos() / 1000;
+            delayMicros += (long) ((commandRandom.nextDouble() * 2 - 1) * jitterMicros);
+        }
+        Runnable send = () -> send(reply.getBytes(StandardCharsets.US_ASCII), target, commandSocket);
+        if (delayMicros <= 0) {
+            send.run();
+        } else {
+            scheduler.schedule(send, delayMicros, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    private void sendState() {
+        if (lost(stateRandom)) {
+            return;
+        }
+        String state = String.format(Locale.ROOT,
+                "mid:-1;x:0;y:0;z:0;mpry:0,0,0;pitch:0;roll:0;yaw:%d;vgx:0;vgy:0;vgz:0;templ:60;temph:62;" +
+                "tof:%d;h:%d;bat:%d;baro:%.2f;time:%d;agx:0.00;agy:0.00;agz:-1000.00;\r\n",
+                yaw, height + 10, height, battery, 300.0 + height / 100.0, flightTimeSeconds());
+        send(state.getBytes(StandardCharsets.US_ASCII), config.stateTarget, outSocket);
+    }
+
+    /**
+     * Verschickt die H.264-Datei NAL-Unit fuer NAL-Unit und wartet nach jedem Bild ein Frame-Intervall.
+     */
+    private void streamVideo() {
+        try {
+            byte[] video          = Files.readAllBytes(config.videoFile);
+            long   frameIntervalNanos = 1_000_000_000L / config.videoFps;
+            while (running) {
+                int start = nextStartCode(video, 0);
+                while (running && start >= 0) {
+                    int end = nextStartCode(video, start + 4);
+                    int stop = end < 0 ? video.length : end;
+                    for (int offset = start; offset < stop; offset += VIDEO_CHUNK_SIZE) {
+                        int length = Math.min(VIDEO_CHUNK_SIZE, stop - offset);
+                        outSocket.send(new DatagramPacket(video, offset, length, config.videoTarget));
+                    }
+                    int nalType = start + 4 < video.length ? video[start + 4] & 0x1F : 0;
+                    if (nalType == 1 || nalType == 5) {
+                        TimeUnit.NANOSECONDS.sleep(frameIntervalNanos);
+                    }
+                    start = end;
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                throw new IllegalStateException("can't stream " + config.videoFile, e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int nextStartCode(byte[] data, int from) {
+        for (int i = from; i + 3 < data.length; i++) {
+            if (data[i] == 0 && data[i + 1] == 0 && data[i + 2] == 0 && data[i + 3] == 1) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void send(byte[] data, SocketAddress target, DatagramSocket socket) {
+        try {
+            socket.send(new DatagramPacket(data, data.length, target));
+        } catch (SocketException e) {
+            // Simulator wurde geschlossen
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean lost(Random random) {
+        return config.lossRate > 0 && random.nextDouble() < config.lossRate;
+    }
+
+    private long flightTimeSeconds() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos);
+    }
+
+    private static boolean inRange(String value, int min, int max) {
+        try {
+            int x = Integer.parseInt(value);
+            return x >= min && x <= max;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public static class Builder {
+        private InetAddress       host        = InetAddress.getLoopbackAddress();
+        private int               commandPort = COMMAND_PORT;
+        private InetSocketAddress stateTarget = new InetSocketAddress(InetAddress.getLoopbackAddress(), STATE_PORT);
+        private InetSocketAddress videoTarget = new InetSocketAddress(InetAddress.getLoopbackAddress(), VIDEO_PORT);
+        private Path              videoFile;
+        private int               videoFps    = 30;
+        private int               stateRateHz = 10;
+        private Duration          delay       = Duration.ZERO;
+        private Duration          jitter      = Duration.ZERO;
+        private double            lossRate;
+        private long              seed        = 42;
+        private int               dropReplies;
+
+        /**
+         * @param host the address the simulated drone sends from, e.g. 127.0.0.2 for a second drone on this machine
+         */
+        public Builder host(InetAddress host) {
+            this.host = host;
+            return this;
+        }
+
+        /**
+         * @param port the port to receive commands on, 0 for any free port
+         */
+        public Builder commandPort(int port) {
+            commandPort = port;
+            return this;
+        }
+
+        /**
+         * @param port the local port the state strings are sent to
+         */
+        public Builder statePort(int port) {
+            stateTarget = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+            return this;
+        }
+
+        /**
+         * @param rateHz state strings per second, 0 to send none
+         */
+        public Builder stateRate(int rateHz) {
+            stateRateHz = rateHz;
+            return this;
+        }
+
+        /**
+         * Streams a raw H.264 file (Annex B, e.g. 'ffmpeg -i in.mp4 -c:v copy -bsf h264_mp4toannexb out.h264') in a loop.
+         */
+        public Builder video(Path h264File, int port, int fps) {
+            videoFile   = h264File;
+            videoTarget = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+            videoFps    = fps;
+            return this;
+        }
+
+        /**
+         * @param delay how long the simulator waits before it replies
+         */
+        public Builder delay(Duration delay) {
+            this.delay = delay;
+            return this;
+        }
+
+        /**
+         * @param jitter the reply delay varies uniformly by up to plus/minus this value
+         */
+        public Builder jitter(Duration jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * @param lossRate probability (0-1) that a reply or a state packet is lost
+         */
+        public Builder lossRate(double lossRate) {
+            this.lossRate = lossRate;
+            return this;
+        }
+
+        /**
+         * @param count the first {@code count} replies are lost, independent of the {@link #lossRate}
+         */
+        public Builder dropReplies(int count) {
+            dropReplies = count;
+            return this;
+        }
+
+        /**
+         * @param seed seed for loss and jitter, so that test runs are reproducible
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public TelloSimulator start() throws IOException {
+            return new TelloSimulator(this);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package tello.views.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FxValueChangeListenerTest {
+
+    @Test
+    public void testUpdatesBeforeTheDeliveryAreConflated() {
+        // der UI-Thread fuehrt die eingeplanten Auslieferungen erst aus, wenn der Test es will
+        List<Runnable>      uiThread   = new ArrayList<>();
+        List<List<Integer>> deliveries = new ArrayList<>();
+        FxValueChangeListener<Integer> listener = FxValueChangeListener.latest(
+                (oldValue, newValue) -> deliveries.add(List.of(oldValue, newValue)), uiThread::add);
+
+        for (int value = 1; value <= 5; value++) {
+            listener.update(value - 1, value);
+        }
+        assertEquals(1, uiThread.size());
+        runAll(uiThread);
+        assertEquals(List.of(List.of(0, 5)), deliveries);
+
+        listener.update(5, 6);
+        listener.update(6, 7);
+        listener.update(7, 8);
+        assertEquals(1, uiThread.size());
+        runAll(uiThread);
+        // der alte Wert ist der zuletzt ausgelieferte, nicht der zuletzt gemeldete
+        assertEquals(List.of(List.of(0, 5), List.of(5, 8)), deliveries);
+    }
+
+    private static void runAll(List<Runnable> uiThread) {
+        List<Runnable> pending = List.copyOf(uiThread);
+        uiThread.clear();
+        pending.forEach(Runnable::run);
+    }
+}
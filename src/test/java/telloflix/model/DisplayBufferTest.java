@@ -0,0 +1,67 @@
+package telloflix.model;
+
+import org.bytedeco.javacv.Frame;
+import org.bytedeco.opencv.opencv_core.Rect;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class DisplayBufferTest {
+
+    @Test
+    public void testReaderGetsTheNewestFrameAndKeepsItWhileTheWriterContinues() {
+        DisplayBuffer buffer = new DisplayBuffer();
+        Frame         frame  = new Frame(8, 4, Frame.DEPTH_UBYTE, 3);
+        assertNull(buffer.read());
+
+        for (int value = 1; value <= 3; value++) {
+            buffer.write(fill(frame, value), List.of());
+        }
+        DisplayBuffer.Slot shown = buffer.read();
+        assertEquals(3, blue(shown));
+
+        // der FX-Thread zeichnet noch: sein Puffer wird nicht ueberschrieben, die Bilder dazwischen schon
+        // ByteBuffer.equals vergleicht den Inhalt
+        Set<ByteBuffer> pixels = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int value = 4; value <= 9; value++) {
+            pixels.add(DisplayBuffer.bytes(buffer.write(fill(frame, value), List.of())));
+        }
+        assertEquals(3, blue(shown));
+        assertEquals(2, pixels.size());  // kein neuer Speicher
+
+        assertEquals(9, blue(buffer.read()));
+    }
+
+    @Test
+    public void testFacesAreDrawnIntoTheCopy() {
+        DisplayBuffer buffer = new DisplayBuffer();
+        Frame         frame  = fill(new Frame(32, 32, Frame.DEPTH_UBYTE, 3), 0);
+
+        buffer.write(frame, List.of(new Rect(8, 8, 16, 16)));
+
+        ByteBuffer pixels = DisplayBuffer.bytes(buffer.read());
+        int        corner = (8 * 32 + 8) * 4;
+        assertEquals(List.of(0, 255, 0, 255), List.of(pixels.get(corner) & 0xFF, pixels.get(corner + 1) & 0xFF,
+                                                      pixels.get(corner + 2) & 0xFF, pixels.get(corner + 3) & 0xFF));
+        assertEquals(0, ((ByteBuffer) frame.image[0]).get((8 * 32 + 8) * 3 + 1));  // das Original bleibt unveraendert
+    }
+
+    private static Frame fill(Frame frame, int value) {
+        ByteBuffer pixels = (ByteBuffer) frame.image[0];
+        for (int i = 0; i < pixels.capacity(); i++) {
+            pixels.put(i, (byte) value);
+        }
+        return frame;
+    }
+
+    private static int blue(DisplayBuffer.Slot slot) {
+        return DisplayBuffer.bytes(slot).get(0);
+    }
+}
@@ -0,0 +1,62 @@
+package telloflix.model;
+
+import org.bytedeco.javacv.Frame;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FramePoolTest {
+
+    @Test
+    public void testBuffersAreReusedAfterLastRelease() {
+        FramePool pool   = new FramePool(2);
+        Frame     source = frame(320, 240, (byte) 7);
+
+        PooledFrame first  = pool.acquire(source);
+        PooledFrame second = pool.acquire(source);
+        assertNull(pool.acquire(source));
+        assertEquals(1, pool.exhausted());
+        assertEquals(7, ((ByteBuffer) first.frame().image[0]).get(320 * 240 * 3 - 1));
+
+        first.retain();
+        first.release();
+        assertNull(pool.acquire(source));  // noch eine Referenz offen
+
+        first.release();
+        Frame       pixels = first.frame();
+        PooledFrame third  = pool.acquire(frame(320, 240, (byte) 9));
+        assertSame(first, third);
+        assertSame(pixels, third.frame());
+        assertEquals(9, ((ByteBuffer) third.frame().image[0]).get(0));
+        assertEquals(2, pool.size());
+
+        second.release();
+        third.release();
+        assertEquals(2, pool.available());
+    }
+
+    @Test
+    public void testReleasingTooOftenFails() {
+        FramePool   pool  = new FramePool(1);
+        PooledFrame frame = pool.acquire(frame(16, 16, (byte) 1));
+        frame.release();
+
+        assertThrows(IllegalStateException.class, frame::release);
+        assertThrows(IllegalStateException.class, frame::retain);
+        assertEquals(1, pool.available());
+    }
+
+    private static Frame frame(int width, int height, byte value) {
+        Frame      frame  = new Frame(width, height, Frame.DEPTH_UBYTE, 3);
+        ByteBuffer pixels = (ByteBuffer) frame.image[0];
+        for (int i = 0; i < pixels.capacity(); i++) {
+            pixels.put(i, value);
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,79 @@
+package telloflix.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tello.models.net.CommandTransport;
+import tello.models.net.IoReactor;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RcControlLoopTest {
+    private DatagramSocket   drone;
+    private IoReactor        reactor;
+    private CommandTransport transport;
+    private RcControlLoop    loop;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        drone     = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        reactor   = new IoReactor("test-reactor");
+        transport = CommandTransport.open((InetSocketAddress) drone.getLocalSocketAddress());
+        loop      = new RcControlLoop(reactor, transport);
+        drone.setSoTimeout(1000);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        loop.stop();
+        reactor.close();
+        transport.close();
+        drone.close();
+    }
+
+    @Test
+    public void testDeflectedChannelsAreSentOnEveryTick() throws IOException {
+        loop.set(10, -20, 150, -40);
+        loop.start(50);
+
+        // ausserhalb von -100~100 wird begrenzt
+        for (int i = 0; i < 3; i++) {
+            assertEquals("rc 10 -20 100 -40", receive());
+        }
+    }
+
+    @Test
+    public void testLoopPausesAfterRepeatingTheNeutralPacket() throws IOException {
+        loop.setUpDown(30);
+        loop.start(50);
+        assertEquals("rc 0 0 30 0", receive());
+
+        loop.setUpDown(0);
+        String packet;
+        while (!(packet = receive()).equals("rc 0 0 0 0")) {
+            assertEquals("rc 0 0 30 0", packet);
+        }
+        for (int i = 1; i < 5; i++) {
+            assertEquals("rc 0 0 0 0", receive());
+        }
+
+        drone.setSoTimeout(300);
+        assertThrows(SocketTimeoutException.class, this::receive);
+    }
+
+    private String receive() throws IOException {
+        byte[]         buffer = new byte[64];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        drone.receive(packet);
+        return new String(buffer, 0, packet.getLength(), StandardCharsets.US_ASCII);
+    }
+}
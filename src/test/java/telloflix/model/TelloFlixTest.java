@@ -0,0 +1,60 @@
+package telloflix.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tello.models.net.Response;
+import tello.simulator.TelloSimulator;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TelloFlixTest {
+    private TelloSimulator simulator;
+    private TelloFlix      tello;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        int statePort;
+        try (DatagramSocket socket = new DatagramSocket(0)) {
+            statePort = socket.getLocalPort();
+        }
+        simulator = TelloSimulator.builder()
+                                  .commandPort(0)
+                                  .statePort(statePort)
+                                  .stateRate(0)
+                                  .delay(Duration.ofMillis(50))
+                                  .start();
+        tello = new TelloFlix(null, "127.0.0.1", simulator.commandAddress().getPort(), statePort);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tello.disconnect();
+        simulator.close();
+    }
+
+    @Test
+    public void testEmergencyCancelsQueuedMoves() {
+        assertTrue(tello.connect());
+        assertTrue(tello.takeOff().join().isOk());
+
+        CompletableFuture<Response> forward = tello.forward(50);
+        CompletableFuture<Response> back    = tello.back(50);
+        Response                    stopped = tello.emergency().join();
+
+        assertTrue(stopped.isOk());
+        assertThrows(CancellationException.class, forward::join);
+        assertThrows(CancellationException.class, back::join);
+        assertFalse(simulator.isFlying());
+        assertEquals("emergency", simulator.receivedCommands().get(simulator.receivedCommands().size() - 1));
+    }
+}
@@ -0,0 +1,22 @@
+package telloflix.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class VideoLatencyProbeTest {
+
+    @Test
+    public void testSliceTypeFindsStartOfPicture() {
+        // SPS, PPS und IDR-Slice im selben Paket, wie bei jedem Keyframe der Tello
+        ByteBuffer keyFrame = ByteBuffer.wrap(new byte[]{0, 0, 0, 1, 0x67, 42, 0, 0, 0, 1, 0x68, 42, 0, 0, 0, 1, 0x65, 42});
+        ByteBuffer picture  = ByteBuffer.wrap(new byte[]{0, 0, 0, 1, 0x41, 42, 42});
+        ByteBuffer payload  = ByteBuffer.wrap(new byte[]{42, 0, 0, 2, 0x41, 42, 42});
+
+        assertEquals(5, VideoLatencyProbe.sliceType(keyFrame));
+        assertEquals(1, VideoLatencyProbe.sliceType(picture));
+        assertEquals(0, VideoLatencyProbe.sliceType(payload));
+    }
+}
@@ -0,0 +1,75 @@
+package telloflix.model;
+
+import org.bytedeco.javacv.Frame;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VideoRecorderTest {
+
+    @Test
+    public void testFullQueueDropsAndReleasesFrames(@TempDir Path dir) {
+        FramePool     pool     = new FramePool(8);
+        AtomicInteger onDrop   = new AtomicInteger();
+        VideoRecorder recorder = new VideoRecorder(2, VideoRecorder.Overflow.DROP, frame -> {
+            onDrop.incrementAndGet();
+            frame.release();
+        });
+
+        assertFalse(recorder.offer(pool.acquire(frame(0))));  // keine Aufnahme: kein verlorenes Bild
+        assertEquals(0, onDrop.get());
+
+        recorder.begin(dir.resolve("dropped.mp4"));  // die Stufe laeuft nicht, der Encoder kommt also nie nach
+        for (int i = 0; i < 5; i++) {
+            recorder.offer(pool.acquire(frame(i)));
+        }
+        assertEquals(2, recorder.queued());
+        assertEquals(3, recorder.dropped());
+        assertEquals(3, onDrop.get());
+
+        recorder.stop();
+        assertFalse(recorder.isRecording());
+        assertEquals(5, recorder.dropped());  // was noch wartet, kommt nicht mehr in die Datei
+        assertEquals(pool.size(), pool.available());
+    }
+
+    @Test
+    public void testBlockingRecorderWritesEveryFrame(@TempDir Path dir) throws IOException, InterruptedException {
+        FramePool     pool     = new FramePool(4);
+        Path          file     = dir.resolve("recorded.mp4");
+        VideoRecorder recorder = new VideoRecorder(2, VideoRecorder.Overflow.BLOCK, PooledFrame::release);
+        recorder.start();
+
+        recorder.begin(file);
+        for (int i = 0; i < 30; i++) {
+            assertTrue(recorder.offer(pool.acquire(frame(i))));
+        }
+        while (recorder.queued() > 0) {
+            Thread.sleep(10);
+        }
+        recorder.stop();  // schreibt die Datei fertig
+
+        assertEquals(30, recorder.recorded());
+        assertEquals(0, recorder.dropped());
+        assertTrue(Files.size(file) > 0);
+        assertEquals(pool.size(), pool.available());
+    }
+
+    private static Frame frame(int index) {
+        Frame      frame  = new Frame(320, 240, Frame.DEPTH_UBYTE, 3);
+        ByteBuffer pixels = (ByteBuffer) frame.image[0];
+        for (int i = 0; i < pixels.capacity(); i += 7) {
+            pixels.put(i, (byte) (i + index));
+        }
+        return frame;
+    }
+}